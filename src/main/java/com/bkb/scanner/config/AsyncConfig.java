@@ -1,5 +1,6 @@
 package com.bkb.scanner.config;
 
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.scheduling.annotation.EnableAsync;
@@ -21,4 +22,35 @@ public class AsyncConfig {
         executor.initialize();
         return executor;
     }
-}
\ No newline at end of file
+
+    /**
+     * Dedicated pool for scan jobs so long-running NAPS2 processes cannot starve other async work.
+     * The scan worker only claims as many jobs as there are free threads, so no queue is needed.
+     */
+    @Bean(name = "scanExecutor")
+    public ThreadPoolTaskExecutor scanExecutor(@Value("${scan.worker.pool-size:2}") int poolSize) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(poolSize);
+        executor.setMaxPoolSize(poolSize);
+        executor.setQueueCapacity(0);
+        executor.setThreadNamePrefix("Scan-");
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.setAwaitTerminationSeconds(30);
+        executor.initialize();
+        return executor;
+    }
+
+    /**
+     * Verifies activity hash chains case by case in parallel; kept apart so a long verification
+     * cannot hold up other async work.
+     */
+    @Bean(name = "auditVerifyExecutor")
+    public ThreadPoolTaskExecutor auditVerifyExecutor(@Value("${audit.verify.parallelism:4}") int parallelism) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(parallelism);
+        executor.setMaxPoolSize(parallelism);
+        executor.setThreadNamePrefix("AuditVerify-");
+        executor.initialize();
+        return executor;
+    }
+}
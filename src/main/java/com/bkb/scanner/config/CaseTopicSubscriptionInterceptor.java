@@ -0,0 +1,84 @@
+package com.bkb.scanner.config;
+
+import com.bkb.scanner.entity.User;
+import com.bkb.scanner.repository.CaseRepository;
+import com.bkb.scanner.service.CaseUpdatePublisher;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.simp.stomp.StompCommand;
+import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
+import org.springframework.messaging.support.ChannelInterceptor;
+import org.springframework.messaging.support.MessageHeaderAccessor;
+import org.springframework.security.access.AccessDeniedException;
+import org.springframework.security.core.Authentication;
+import org.springframework.stereotype.Component;
+import org.springframework.web.util.UriUtils;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Restricts subscriptions to the routed case topics to the sessions they are meant for:
+ * role topics to users holding that role, assignee topics to the assignee, and an RM's case
+ * topics to cases assigned to them. Administrators may subscribe to anything.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class CaseTopicSubscriptionInterceptor implements ChannelInterceptor {
+
+    private final CaseRepository caseRepository;
+
+    @Override
+    public Message<?> preSend(Message<?> message, MessageChannel channel) {
+        StompHeaderAccessor accessor = MessageHeaderAccessor.getAccessor(message, StompHeaderAccessor.class);
+        if (accessor == null || accessor.getCommand() != StompCommand.SUBSCRIBE || accessor.getDestination() == null) {
+            return message;
+        }
+
+        String destination = accessor.getDestination();
+        User user = currentUser(accessor);
+        if (user == null || user.getRole() == User.UserRole.ADMIN) {
+            // Unauthenticated subscriptions are rejected by the message security rules
+            return message;
+        }
+
+        if (!isAllowed(user, destination)) {
+            log.warn("Rejected subscription of {} to {}", user.getUsername(), destination);
+            throw new AccessDeniedException("Not allowed to subscribe to " + destination);
+        }
+        return message;
+    }
+
+    private boolean isAllowed(User user, String destination) {
+        if (destination.startsWith(CaseUpdatePublisher.ROLE_TOPIC_PREFIX)) {
+            String role = firstSegment(destination, CaseUpdatePublisher.ROLE_TOPIC_PREFIX);
+            return user.getRole().name().equals(role);
+        }
+        if (destination.startsWith(CaseUpdatePublisher.ASSIGNEE_TOPIC_PREFIX)) {
+            String assignee = UriUtils.decode(
+                    firstSegment(destination, CaseUpdatePublisher.ASSIGNEE_TOPIC_PREFIX), StandardCharsets.UTF_8);
+            return assignee.equals(user.getName());
+        }
+        if (destination.startsWith(CaseUpdatePublisher.CASE_TOPIC_PREFIX) && user.getRole() == User.UserRole.RM) {
+            String caseId = firstSegment(destination, CaseUpdatePublisher.CASE_TOPIC_PREFIX);
+            return caseRepository.existsByCaseIdAndAssignedTo(caseId, user.getName());
+        }
+        return true;
+    }
+
+    private static String firstSegment(String destination, String prefix) {
+        String rest = destination.substring(prefix.length());
+        int slash = rest.indexOf('/');
+        return slash < 0 ? rest : rest.substring(0, slash);
+    }
+
+    private static User currentUser(StompHeaderAccessor accessor) {
+        if (accessor.getUser() instanceof Authentication authentication
+                && authentication.getPrincipal() instanceof User user) {
+            return user;
+        }
+        return null;
+    }
+}
@@ -0,0 +1,44 @@
+package com.bkb.scanner.config;
+
+import com.bkb.scanner.repository.CaseChecklistStatusRepository;
+import com.bkb.scanner.service.ChecklistService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Materializes csob_case_checklist_status for cases that have no rows yet, such as cases
+ * created before the table existed or by the seed data. Each case is synced in its own
+ * transaction, and the query returns nothing once every case is covered.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class ChecklistStatusBackfill {
+
+    private final CaseChecklistStatusRepository checklistStatusRepository;
+    private final ChecklistService checklistService;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfill() {
+        List<String> caseIds = checklistStatusRepository.findCaseIdsWithoutStatus();
+        if (caseIds.isEmpty()) {
+            return;
+        }
+
+        int synced = 0;
+        for (String caseId : caseIds) {
+            try {
+                checklistService.syncChecklistStatus(caseId);
+                synced++;
+            } catch (Exception e) {
+                log.warn("Failed to materialize checklist status for case {}: {}", caseId, e.getMessage());
+            }
+        }
+        log.info("Materialized checklist status for {} of {} cases", synced, caseIds.size());
+    }
+}
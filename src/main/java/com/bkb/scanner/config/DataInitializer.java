@@ -2,6 +2,7 @@ package com.bkb.scanner.config;
 
 import com.bkb.scanner.entity.*;
 import com.bkb.scanner.repository.*;
+import com.bkb.scanner.service.DocumentService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.boot.CommandLineRunner;
@@ -26,7 +27,9 @@ public class DataInitializer {
     private final UserRepository userRepository;
     private final PartyRepository partyRepository;
     private final CaseRepository caseRepository;
+    private final ActivityOutboxRepository activityOutboxRepository;
     private final DocumentRepository documentRepository;
+    private final DocumentContentRepository documentContentRepository;
     private final AccountTypeRepository accountTypeRepository;
     private final AccountStatusConfigRepository accountStatusConfigRepository;
     private final DocumentRequirementTemplateRepository documentRequirementTemplateRepository;
@@ -35,6 +38,8 @@ public class DataInitializer {
     private final Environment environment;
     private final JdbcTemplate jdbcTemplate;
 
+    private static final byte[] DEMO_FILE_DATA = "DEMO_FILE_DATA_PLACEHOLDER".getBytes();
+
     // Counter for unique activity IDs
     private final AtomicInteger activityCounter = new AtomicInteger(1);
 
@@ -457,32 +462,37 @@ public class DataInitializer {
         // Create verified documents for some parties
         Document doc1 = createDocument("DOC001", parties.get("P001").getPartyId(),
                 "Identity Document / NRIC / Birth Certificate", Document.DocumentCategory.IDENTITY,
-                "john_tan_nric.pdf", 2048000L, true, "Mary Anne");
+                "john_tan_nric.pdf", true, "Mary Anne");
 
         Document doc2 = createDocument("DOC002", parties.get("P004").getPartyId(),
                 "Identity Document / NRIC / Birth Certificate", Document.DocumentCategory.IDENTITY,
-                "david_lim_nric.pdf", 1536000L, true, "Mary Anne");
+                "david_lim_nric.pdf", true, "Mary Anne");
 
         Document doc3 = createDocument("DOC003", parties.get("P005").getPartyId(),
                 "Identity Document / NRIC / Birth Certificate", Document.DocumentCategory.IDENTITY,
-                "jessica_tan_nric.pdf", 1792000L, true, "Mary Anne");
+                "jessica_tan_nric.pdf", true, "Mary Anne");
 
         Document doc4 = createDocument("DOC004", parties.get("P006").getPartyId(),
                 "Passport", Document.DocumentCategory.IDENTITY,
-                "robert_wang_passport.pdf", 3072000L, true, "Mary Anne");
+                "robert_wang_passport.pdf", true, "Mary Anne");
 
         // Add some unverified documents
         Document doc5 = createDocument("DOC005", parties.get("P002").getPartyId(),
                 "Identity Document / NRIC / Birth Certificate", Document.DocumentCategory.IDENTITY,
-                "michael_lim_nric.pdf", 1892000L, false, null);
+                "michael_lim_nric.pdf", false, null);
 
         Document doc6 = createDocument("DOC006", parties.get("P003").getPartyId(),
                 "Passport", Document.DocumentCategory.IDENTITY,
-                "sarah_chen_passport.pdf", 2456000L, false, null);
+                "sarah_chen_passport.pdf", false, null);
 
         List<Document> documents = Arrays.asList(doc1, doc2, doc3, doc4, doc5, doc6);
         documentRepository.saveAll(documents);
 
+        // For demo purposes, we'll just store a placeholder instead of actual file data
+        documentContentRepository.saveAll(documents.stream()
+                .map(d -> new DocumentContent(d.getDocId(), DEMO_FILE_DATA))
+                .toList());
+
         documents.forEach(d -> docMap.put(d.getDocId(), d));
 
         log.info("Created {} documents", documents.size());
@@ -491,14 +501,16 @@ public class DataInitializer {
 
     private Document createDocument(String docId, String ownerPartyId, String docType,
                                     Document.DocumentCategory category, String fileName,
-                                    Long fileSize, boolean isVerified, String verifiedBy) {
+                                    boolean isVerified, String verifiedBy) {
         Document doc = new Document();
         doc.setDocId(docId);
         doc.setOwnerPartyId(ownerPartyId);
         doc.setDocType(docType);
         doc.setCategory(category);
         doc.setFileName(fileName);
-        doc.setFileSize(fileSize);
+        // Size and hash must describe the stored placeholder so downloads get correct Content-Length/ETag
+        doc.setFileSize((long) DEMO_FILE_DATA.length);
+        doc.setContentHash(DocumentService.sha256Hex(DEMO_FILE_DATA));
         doc.setMimeType("application/pdf");
         doc.setIsVerified(isVerified);
 
@@ -510,14 +522,13 @@ public class DataInitializer {
 
         doc.setUploadedBy("Jane Doe");
 
-        // For demo purposes, we'll just store a placeholder instead of actual file data
-        doc.setFileData("DEMO_FILE_DATA_PLACEHOLDER".getBytes());
-
         return doc;
     }
 
     private void initializeCases(Map<String, User> users, Map<String, Party> parties, Map<String, Document> documents) {
         log.info("Initializing cases...");
+        // Seed history goes through the audit outbox once the cases exist, so it is hash-chained like any other
+        List<ActivityLog> activities = new ArrayList<>();
 
         // Case 1: TechStart Innovations - Draft status
         Case case1 = createCase("CASE-2025-001", Case.CaseStatus.DRAFT, Case.RiskLevel.MEDIUM,
@@ -537,7 +548,7 @@ public class DataInitializer {
         case1.getDocumentLinks().add(docLink1);
 
         // Add activity
-        case1.getActivities().add(createActivity("A1", case1, "System", "Case Created"));
+        activities.add(createActivity("A1", case1, "System", "Case Created"));
 
         caseRepository.save(case1);
 
@@ -557,8 +568,8 @@ public class DataInitializer {
         docLink2.getSubmissions().add(sub2);
         case2.getDocumentLinks().add(docLink2);
 
-        case2.getActivities().add(createActivity("A1", case2, "System", "Case Created"));
-        case2.getActivities().add(createActivity("A2", case2, users.get("RM").getName(), "Submitted for Review"));
+        activities.add(createActivity("A1", case2, "System", "Case Created"));
+        activities.add(createActivity("A2", case2, users.get("RM").getName(), "Submitted for Review"));
 
         caseRepository.save(case2);
 
@@ -573,9 +584,9 @@ public class DataInitializer {
         // Add compliance notes
         case3.setComplianceNotes("High-risk case due to PEP involvement. Enhanced due diligence required.");
 
-        case3.getActivities().add(createActivity("A1", case3, "System", "Case Created"));
-        case3.getActivities().add(createActivity("A2", case3, users.get("RM").getName(), "Submitted for Review"));
-        case3.getActivities().add(createActivity("A3", case3, users.get("CHECKER").getName(), "Approved by Checker"));
+        activities.add(createActivity("A1", case3, "System", "Case Created"));
+        activities.add(createActivity("A2", case3, users.get("RM").getName(), "Submitted for Review"));
+        activities.add(createActivity("A3", case3, users.get("CHECKER").getName(), "Approved by Checker"));
 
         caseRepository.save(case3);
 
@@ -618,11 +629,12 @@ public class DataInitializer {
         account.setActivatedBy(users.get("COMPLIANCE").getName());
         case4.getAccounts().add(account);
 
-        case4.getActivities().add(createActivity("A1", case4, "System", "Case Created"));
-        case4.getActivities().add(createActivity("A2", case4, users.get("GM").getName(), "KYC Approved"));
-        case4.getActivities().add(createActivity("A3", case4, users.get("COMPLIANCE").getName(), "Account Activated"));
+        activities.add(createActivity("A1", case4, "System", "Case Created"));
+        activities.add(createActivity("A2", case4, users.get("GM").getName(), "KYC Approved"));
+        activities.add(createActivity("A3", case4, users.get("COMPLIANCE").getName(), "Account Activated"));
 
         caseRepository.save(case4);
+        activityOutboxRepository.saveAll(activities.stream().map(ActivityOutbox::from).toList());
 
         log.info("Created {} cases", 4);
     }
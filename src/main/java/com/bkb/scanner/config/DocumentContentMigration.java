@@ -0,0 +1,70 @@
+package com.bkb.scanner.config;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.DatabaseMetaData;
+import java.sql.ResultSet;
+
+/**
+ * One-off migration of binaries from the legacy csob_documents.file_data column
+ * into csob_document_contents. It is a no-op once the column has been dropped
+ * or emptied, so it is safe to leave enabled on every start.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class DocumentContentMigration {
+
+    private static final String LEGACY_TABLE = "csob_documents";
+    private static final String LEGACY_COLUMN = "file_data";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional
+    public void migrateLegacyFileData() {
+        if (!legacyColumnExists()) {
+            log.debug("No legacy {}.{} column, skipping document content migration", LEGACY_TABLE, LEGACY_COLUMN);
+            return;
+        }
+
+        int copied = jdbcTemplate.update(
+                "INSERT INTO csob_document_contents (doc_id, data) " +
+                        "SELECT d.doc_id, d.file_data FROM csob_documents d " +
+                        "WHERE d.file_data IS NOT NULL " +
+                        "AND NOT EXISTS (SELECT 1 FROM csob_document_contents c WHERE c.doc_id = d.doc_id)");
+
+        int cleared = jdbcTemplate.update(
+                "UPDATE csob_documents SET file_data = NULL " +
+                        "WHERE file_data IS NOT NULL " +
+                        "AND EXISTS (SELECT 1 FROM csob_document_contents c WHERE c.doc_id = csob_documents.doc_id)");
+
+        if (copied > 0 || cleared > 0) {
+            log.info("Migrated {} document binaries to csob_document_contents, cleared {} legacy rows", copied, cleared);
+        }
+    }
+
+    private boolean legacyColumnExists() {
+        Boolean exists = jdbcTemplate.execute((ConnectionCallback<Boolean>) connection -> {
+            DatabaseMetaData metaData = connection.getMetaData();
+            for (String table : new String[]{LEGACY_TABLE, LEGACY_TABLE.toUpperCase()}) {
+                for (String column : new String[]{LEGACY_COLUMN, LEGACY_COLUMN.toUpperCase()}) {
+                    try (ResultSet rs = metaData.getColumns(connection.getCatalog(), null, table, column)) {
+                        if (rs.next()) {
+                            return true;
+                        }
+                    }
+                }
+            }
+            return false;
+        });
+        return Boolean.TRUE.equals(exists);
+    }
+}
@@ -2,6 +2,7 @@ package com.bkb.scanner.config;
 
 import com.bkb.scanner.security.JwtAuthenticationEntryPoint;
 import com.bkb.scanner.security.JwtAuthenticationFilter;
+import com.bkb.scanner.security.PublicEndpoints;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.context.annotation.Bean;
@@ -34,6 +35,7 @@ public class SecurityConfig {
 
     private final JwtAuthenticationEntryPoint jwtAuthenticationEntryPoint;
     private final JwtAuthenticationFilter jwtAuthenticationFilter;
+    private final PublicEndpoints publicEndpoints;
     private final UserDetailsService userDetailsService;
 
     @Bean
@@ -66,22 +68,8 @@ public class SecurityConfig {
                 .authorizeHttpRequests(authz -> {
                     log.info("Setting up authorization rules...");
                     authz
-                            // Public endpoints
-                            .requestMatchers("/auth/**").permitAll()
-                            .requestMatchers("/health").permitAll()
-                            .requestMatchers("/public/**").permitAll()
-                            .requestMatchers("/actuator/**").permitAll()
-                            .requestMatchers("/error").permitAll()
-                            .requestMatchers("/swagger-ui/**").permitAll()
-                            .requestMatchers("/v3/api-docs/**").permitAll()
-                            .requestMatchers("/swagger-resources/**").permitAll()
-
-                            // FIX: Explicitly permit WebSocket endpoint
-                            .requestMatchers("/ws/**").permitAll()
-
-                            // Mock endpoints for testing
-                            .requestMatchers("/mockcases/**").permitAll()
-                            .requestMatchers("/mockparties/**").permitAll()
+                            // Public endpoints, shared with JwtAuthenticationFilter
+                            .requestMatchers(publicEndpoints.permittedRequests()).permitAll()
 
                             // All other endpoints require authentication
                             .anyRequest().authenticated();
@@ -98,6 +86,8 @@ public class SecurityConfig {
         configuration.setAllowedOrigins(Arrays.asList("http://localhost:3000", "http://localhost:3001"));
         configuration.setAllowedMethods(Arrays.asList("GET", "POST", "PUT", "DELETE", "OPTIONS", "PATCH"));
         configuration.setAllowedHeaders(Arrays.asList("*"));
+        // Browsers hide response headers from scripts unless exposed; clients echo the ETag in If-Match
+        configuration.setExposedHeaders(Arrays.asList("ETag"));
         configuration.setAllowCredentials(true);
         configuration.setMaxAge(3600L);
 
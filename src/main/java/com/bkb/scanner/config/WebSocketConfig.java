@@ -1,12 +1,22 @@
 package com.bkb.scanner.config;
 
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.messaging.simp.config.ChannelRegistration;
 import org.springframework.messaging.simp.config.MessageBrokerRegistry;
+import org.springframework.messaging.simp.config.StompBrokerRelayRegistration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 import org.springframework.web.socket.config.annotation.EnableWebSocketMessageBroker;
 import org.springframework.web.socket.config.annotation.StompEndpointRegistry;
 import org.springframework.web.socket.config.annotation.WebSocketMessageBrokerConfigurer;
+import org.springframework.web.socket.config.annotation.WebSocketTransportRegistration;
 
 @Configuration
 @EnableWebSocketMessageBroker
@@ -14,10 +24,124 @@ import org.springframework.web.socket.config.annotation.WebSocketMessageBrokerCo
 @Slf4j
 public class WebSocketConfig implements WebSocketMessageBrokerConfigurer {
 
+    private final WebSocketSessionMetrics sessionMetrics;
+    private final CaseTopicSubscriptionInterceptor caseTopicSubscriptionInterceptor;
+
+    // "simple" keeps the in-JVM broker (single node, tests); "relay" forwards to an external STOMP broker
+    @Value("${websocket.broker.mode:simple}")
+    private String brokerMode;
+
+    @Value("${websocket.broker.relay.host:localhost}")
+    private String relayHost;
+
+    @Value("${websocket.broker.relay.port:61613}")
+    private int relayPort;
+
+    @Value("${websocket.broker.relay.virtual-host:}")
+    private String relayVirtualHost;
+
+    @Value("${websocket.broker.relay.client-login:guest}")
+    private String relayClientLogin;
+
+    @Value("${websocket.broker.relay.client-passcode:guest}")
+    private String relayClientPasscode;
+
+    @Value("${websocket.broker.relay.system-login:guest}")
+    private String relaySystemLogin;
+
+    @Value("${websocket.broker.relay.system-passcode:guest}")
+    private String relaySystemPasscode;
+
+    @Value("${websocket.inbound.core-pool-size:4}")
+    private int inboundCorePoolSize;
+
+    @Value("${websocket.inbound.max-pool-size:16}")
+    private int inboundMaxPoolSize;
+
+    @Value("${websocket.inbound.queue-capacity:1000}")
+    private int inboundQueueCapacity;
+
+    @Value("${websocket.outbound.core-pool-size:4}")
+    private int outboundCorePoolSize;
+
+    @Value("${websocket.outbound.max-pool-size:16}")
+    private int outboundMaxPoolSize;
+
+    @Value("${websocket.outbound.queue-capacity:5000}")
+    private int outboundQueueCapacity;
+
+    @Value("${websocket.transport.send-time-limit-ms:10000}")
+    private int sendTimeLimitMs;
+
+    @Value("${websocket.transport.send-buffer-size-limit:524288}")
+    private int sendBufferSizeLimit;
+
+    @Value("${websocket.transport.message-size-limit:65536}")
+    private int messageSizeLimit;
+
+    @Value("${websocket.transport.time-to-first-message-ms:30000}")
+    private int timeToFirstMessageMs;
+
+    @Override
+    public void configureClientInboundChannel(ChannelRegistration registration) {
+        registration.interceptors(caseTopicSubscriptionInterceptor);
+        registration.taskExecutor()
+                .corePoolSize(inboundCorePoolSize)
+                .maxPoolSize(inboundMaxPoolSize)
+                .queueCapacity(inboundQueueCapacity);
+    }
+
+    @Override
+    public void configureClientOutboundChannel(ChannelRegistration registration) {
+        // Outbound tasks only hand frames to each session's buffer; a slow socket is cut off
+        // by the send limits below instead of holding a pool thread
+        registration.taskExecutor()
+                .corePoolSize(outboundCorePoolSize)
+                .maxPoolSize(outboundMaxPoolSize)
+                .queueCapacity(outboundQueueCapacity);
+    }
+
+    @Override
+    public void configureWebSocketTransport(WebSocketTransportRegistration registration) {
+        registration
+                .setSendTimeLimit(sendTimeLimitMs)
+                .setSendBufferSizeLimit(sendBufferSizeLimit)
+                .setMessageSizeLimit(messageSizeLimit)
+                .setTimeToFirstMessage(timeToFirstMessageMs)
+                .addDecoratorFactory(sessionMetrics);
+    }
+
+    /**
+     * Queue depth and active threads of the STOMP channel executors
+     */
+    @Bean
+    public MeterBinder stompChannelMetrics(
+            @Qualifier("clientInboundChannelExecutor") ThreadPoolTaskExecutor inboundExecutor,
+            @Qualifier("clientOutboundChannelExecutor") ThreadPoolTaskExecutor outboundExecutor) {
+        return registry -> {
+            bindExecutor(registry, "inbound", inboundExecutor);
+            bindExecutor(registry, "outbound", outboundExecutor);
+        };
+    }
+
+    private static void bindExecutor(MeterRegistry registry, String channel, ThreadPoolTaskExecutor executor) {
+        Gauge.builder("websocket.channel.queue.depth", executor,
+                        e -> e.getThreadPoolExecutor().getQueue().size())
+                .tag("channel", channel)
+                .register(registry);
+        Gauge.builder("websocket.channel.active.threads", executor, ThreadPoolTaskExecutor::getActiveCount)
+                .tag("channel", channel)
+                .register(registry);
+    }
+
     @Override
     public void configureMessageBroker(MessageBrokerRegistry config) {
-        // Enable a simple in-memory message broker for broadcasting to connected clients
-        config.enableSimpleBroker("/topic", "/queue");
+        if ("relay".equalsIgnoreCase(brokerMode)) {
+            configureBrokerRelay(config);
+        } else {
+            // Enable a simple in-memory message broker for broadcasting to connected clients
+            config.enableSimpleBroker("/topic", "/queue");
+        }
 
         // Set the application destination prefix for messages bound for @MessageMapping methods
         config.setApplicationDestinationPrefixes("/app");
@@ -25,7 +149,29 @@ public class WebSocketConfig implements WebSocketMessageBrokerConfigurer {
         // Set the user destination prefix for user-specific messages
         config.setUserDestinationPrefix("/user");
 
-        log.info("WebSocket message broker configured with prefixes: /topic, /queue, /app");
+        log.info("WebSocket message broker ({}) configured with prefixes: /topic, /queue, /app", brokerMode);
+    }
+
+    /**
+     * Relay /topic and /queue to an external STOMP broker (RabbitMQ, ActiveMQ, ...) so every node
+     * sees every message. User destinations are resolved across nodes by broadcasting the user
+     * registry and unresolved user messages through the broker.
+     */
+    private void configureBrokerRelay(MessageBrokerRegistry config) {
+        StompBrokerRelayRegistration relay = config.enableStompBrokerRelay("/topic", "/queue")
+                .setRelayHost(relayHost)
+                .setRelayPort(relayPort)
+                .setClientLogin(relayClientLogin)
+                .setClientPasscode(relayClientPasscode)
+                .setSystemLogin(relaySystemLogin)
+                .setSystemPasscode(relaySystemPasscode)
+                .setUserDestinationBroadcast("/topic/unresolved-user-destination")
+                .setUserRegistryBroadcast("/topic/simp-user-registry");
+        if (!relayVirtualHost.isEmpty()) {
+            relay.setVirtualHost(relayVirtualHost);
+        }
+
+        log.info("Using STOMP broker relay at {}:{}", relayHost, relayPort);
     }
 
     @Override
@@ -0,0 +1,87 @@
+package com.bkb.scanner.config;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.WebSocketHandler;
+import org.springframework.web.socket.WebSocketMessage;
+import org.springframework.web.socket.WebSocketSession;
+import org.springframework.web.socket.handler.WebSocketHandlerDecorator;
+import org.springframework.web.socket.handler.WebSocketHandlerDecoratorFactory;
+import org.springframework.web.socket.handler.WebSocketSessionDecorator;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures how long writes to each client socket take. The STOMP handler buffers outbound
+ * messages per session and closes the session with SESSION_NOT_RELIABLE once
+ * {@code websocket.transport.send-time-limit-ms} or {@code send-buffer-size-limit} is exceeded.
+ * These sessions are counted and logged here as slow consumers. Slow individual sends are
+ * logged with their session id. Metrics are not tagged per session, to keep cardinality bounded.
+ */
+@Component
+@Slf4j
+public class WebSocketSessionMetrics implements WebSocketHandlerDecoratorFactory {
+
+    private final Timer sendLatency;
+    private final Counter slowSends;
+    private final Counter slowConsumersClosed;
+
+    @Value("${websocket.transport.slow-send-warn-ms:1000}")
+    private long slowSendWarnMs;
+
+    public WebSocketSessionMetrics(MeterRegistry meterRegistry) {
+        this.sendLatency = Timer.builder("websocket.session.send")
+                .description("Time to write one frame to a client socket")
+                .publishPercentiles(0.5, 0.99)
+                .register(meterRegistry);
+        this.slowSends = meterRegistry.counter("websocket.session.slow-sends");
+        this.slowConsumersClosed = meterRegistry.counter("websocket.session.slow-consumers-closed");
+    }
+
+    @Override
+    public WebSocketHandler decorate(WebSocketHandler handler) {
+        return new WebSocketHandlerDecorator(handler) {
+            @Override
+            public void afterConnectionEstablished(WebSocketSession session) throws Exception {
+                super.afterConnectionEstablished(new TimedSession(session));
+            }
+
+            @Override
+            public void afterConnectionClosed(WebSocketSession session, CloseStatus closeStatus) throws Exception {
+                if (CloseStatus.SESSION_NOT_RELIABLE.equalsCode(closeStatus)) {
+                    slowConsumersClosed.increment();
+                    log.warn("Closed slow WebSocket session {}: {}", session.getId(), closeStatus.getReason());
+                }
+                super.afterConnectionClosed(session, closeStatus);
+            }
+        };
+    }
+
+    private final class TimedSession extends WebSocketSessionDecorator {
+
+        TimedSession(WebSocketSession session) {
+            super(session);
+        }
+
+        @Override
+        public void sendMessage(WebSocketMessage<?> message) throws IOException {
+            long start = System.nanoTime();
+            try {
+                super.sendMessage(message);
+            } finally {
+                long elapsed = System.nanoTime() - start;
+                sendLatency.record(elapsed, TimeUnit.NANOSECONDS);
+                if (TimeUnit.NANOSECONDS.toMillis(elapsed) >= slowSendWarnMs) {
+                    slowSends.increment();
+                    log.warn("Slow WebSocket send to session {}: {} ms", getId(), TimeUnit.NANOSECONDS.toMillis(elapsed));
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,41 @@
+package com.bkb.scanner.controller;
+
+import com.bkb.scanner.dto.ChainVerificationReport;
+import com.bkb.scanner.exception.BadRequestException;
+import com.bkb.scanner.service.audit.ActivityChainVerifier;
+import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * On-demand verification of the tamper-evident activity history, for auditors
+ */
+@RestController
+@RequestMapping("/audit")
+@RequiredArgsConstructor
+@PreAuthorize("hasAnyRole('ADMIN', 'COMPLIANCE')")
+public class AuditController {
+
+    private final ActivityChainVerifier chainVerifier;
+
+    /**
+     * Verify one case's chain, or every case's entries within [from, to)
+     */
+    @PostMapping("/activity-chain/verify")
+    public ResponseEntity<ChainVerificationReport> verifyActivityChain(
+            @RequestParam(required = false) String caseId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to) {
+        if (caseId != null && !caseId.isBlank()) {
+            return ResponseEntity.ok(chainVerifier.verifyCase(caseId));
+        }
+        if (from == null || to == null || !from.isBefore(to)) {
+            throw new BadRequestException("Either caseId or a from/to window with from before to is required");
+        }
+        return ResponseEntity.ok(chainVerifier.verifyWindow(from, to));
+    }
+}
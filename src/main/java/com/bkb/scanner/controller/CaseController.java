@@ -1,17 +1,25 @@
 package com.bkb.scanner.controller;
 
 import com.bkb.scanner.dto.*;
+import com.bkb.scanner.entity.ActivityArchiveIndex;
 import com.bkb.scanner.entity.Case;
 import com.bkb.scanner.entity.User;
+import com.bkb.scanner.exception.BadRequestException;
 import com.bkb.scanner.service.CaseService;
+import com.bkb.scanner.service.OptimisticRetry;
+import com.bkb.scanner.service.audit.ActivityArchiveService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
 
+import java.time.YearMonth;
+import java.time.format.DateTimeParseException;
 import java.util.List;
+import java.util.function.Supplier;
 
 @RestController
 @RequestMapping("/cases")
@@ -19,6 +27,8 @@ import java.util.List;
 public class CaseController {
 
     private final CaseService caseService;
+    private final OptimisticRetry optimisticRetry;
+    private final ActivityArchiveService activityArchiveService;
 
     @GetMapping
     public ResponseEntity<List<Case>> getAllCases(
@@ -28,9 +38,62 @@ public class CaseController {
         return ResponseEntity.ok(caseService.getAllCases(status, assignedTo, riskLevel));
     }
 
+    @GetMapping("/summary")
+    public ResponseEntity<List<CaseSummary>> getCaseSummaries(
+            @RequestParam(required = false) Case.CaseStatus status,
+            @RequestParam(required = false) String assignedTo,
+            @RequestParam(required = false) Case.RiskLevel riskLevel) {
+        return ResponseEntity.ok(caseService.getCaseSummaries(status, assignedTo, riskLevel));
+    }
+
+    @GetMapping("/checklist-completion")
+    public ResponseEntity<List<ChecklistCompletion>> getChecklistCompletion(
+            @RequestParam(required = false) Case.CaseStatus status,
+            @RequestParam(required = false) String assignedTo,
+            @RequestParam(required = false) Case.RiskLevel riskLevel) {
+        return ResponseEntity.ok(caseService.getChecklistCompletion(status, assignedTo, riskLevel));
+    }
+
+    @GetMapping("/page")
+    public ResponseEntity<CursorPage<Case>> getCasesPage(
+            @RequestParam(required = false) Case.CaseStatus status,
+            @RequestParam(required = false) String assignedTo,
+            @RequestParam(required = false) Case.RiskLevel riskLevel,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer size) {
+        return ResponseEntity.ok(caseService.getCasesPage(status, assignedTo, riskLevel, cursor, size));
+    }
+
     @GetMapping("/{caseId}")
     public ResponseEntity<Case> getCaseById(@PathVariable String caseId) {
-        return ResponseEntity.ok(caseService.getCaseByCaseId(caseId));
+        Case caseEntity = caseService.getCaseByCaseId(caseId);
+        return ResponseEntity.ok().eTag(String.valueOf(caseEntity.getVersion())).body(caseEntity);
+    }
+
+    @GetMapping("/{caseId}/activities")
+    public ResponseEntity<CursorPage<ActivityEntry>> getActivities(
+            @PathVariable String caseId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer size) {
+        return ResponseEntity.ok(caseService.getActivities(caseId, cursor, size));
+    }
+
+    @GetMapping("/{caseId}/activities/archive")
+    public ResponseEntity<List<ActivityArchiveIndex>> getArchivedActivityMonths(@PathVariable String caseId) {
+        return ResponseEntity.ok(activityArchiveService.getArchiveIndex(caseId));
+    }
+
+    @GetMapping("/{caseId}/activities/archive/{month}")
+    public ResponseEntity<List<ActivityEntry>> getArchivedActivities(
+            @PathVariable String caseId,
+            @PathVariable String month) {
+        YearMonth archiveMonth;
+        try {
+            archiveMonth = YearMonth.parse(month);
+        } catch (DateTimeParseException e) {
+            throw new BadRequestException("Invalid month, expected yyyy-MM: " + month);
+        }
+        return ResponseEntity.ok(activityArchiveService.readArchived(caseId, archiveMonth));
     }
 
     @PostMapping
@@ -41,63 +104,124 @@ public class CaseController {
                 .body(caseService.createCase(createCaseDto, currentUser));
     }
 
+    /*
+     * Mutations honour an optional If-Match header carrying the version from a previous ETag. A stale
+     * version is rejected with 412; a race lost while committing is reported as 409. Requests without
+     * If-Match are last-writer-wins, so those are retried a bounded number of times instead.
+     *
+     * Each resource has one version: endpoints on the case take and return the case version, and the
+     * submission and account endpoints take and return the version of that submission or account.
+     */
+
     @PutMapping("/{caseId}")
     public ResponseEntity<Case> updateCase(
             @PathVariable String caseId,
             @RequestBody Case caseUpdate,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
             @AuthenticationPrincipal User currentUser) {
-        return ResponseEntity.ok(caseService.updateCase(caseId, caseUpdate, currentUser));
+        Long expectedVersion = parseIfMatch(ifMatch);
+        Case savedCase = execute(expectedVersion,
+                () -> caseService.updateCase(caseId, caseUpdate, currentUser, expectedVersion));
+        return ResponseEntity.ok().eTag(String.valueOf(savedCase.getVersion())).body(savedCase);
     }
 
     @PatchMapping("/{caseId}/status")
-    public ResponseEntity<Case> updateCaseStatus(
+    public ResponseEntity<CaseDelta> updateCaseStatus(
             @PathVariable String caseId,
             @RequestBody UpdateCaseStatusDto statusUpdate,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
             @AuthenticationPrincipal User currentUser) {
-        return ResponseEntity.ok(caseService.updateCaseStatus(caseId, statusUpdate, currentUser));
+        Long expectedVersion = parseIfMatch(ifMatch);
+        return withETag(execute(expectedVersion,
+                () -> caseService.updateCaseStatus(caseId, statusUpdate, currentUser, expectedVersion)));
     }
 
     @PostMapping("/{caseId}/parties")
-    public ResponseEntity<Case> linkPartyToCase(
+    public ResponseEntity<CaseDelta> linkPartyToCase(
             @PathVariable String caseId,
             @RequestBody LinkPartyDto linkPartyDto,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
             @AuthenticationPrincipal User currentUser) {
-        return ResponseEntity.ok(caseService.linkPartyToCase(caseId, linkPartyDto, currentUser));
+        Long expectedVersion = parseIfMatch(ifMatch);
+        return withETag(execute(expectedVersion,
+                () -> caseService.linkPartyToCase(caseId, linkPartyDto, currentUser, expectedVersion)));
     }
 
     @PostMapping("/{caseId}/submissions")
-    public ResponseEntity<Case> addSubmission(
+    public ResponseEntity<CaseDelta> addSubmission(
             @PathVariable String caseId,
             @RequestParam String requirementId,
             @Valid @RequestBody CreateSubmissionDto submissionDto,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
             @AuthenticationPrincipal User currentUser) {
-        return ResponseEntity.ok(caseService.addSubmission(caseId, requirementId, submissionDto, currentUser));
+        Long expectedVersion = parseIfMatch(ifMatch);
+        return withETag(execute(expectedVersion,
+                () -> caseService.addSubmission(caseId, requirementId, submissionDto, currentUser, expectedVersion)));
     }
 
     @PutMapping("/{caseId}/submissions/{submissionId}")
-    public ResponseEntity<Case> updateSubmission(
+    public ResponseEntity<CaseDelta> updateSubmission(
             @PathVariable String caseId,
             @PathVariable String submissionId,
             @Valid @RequestBody UpdateSubmissionDto updateDto,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
             @AuthenticationPrincipal User currentUser) {
-        return ResponseEntity.ok(caseService.updateSubmission(caseId, submissionId, updateDto, currentUser));
+        Long expectedVersion = parseIfMatch(ifMatch);
+        CaseDelta delta = execute(expectedVersion,
+                () -> caseService.updateSubmission(caseId, submissionId, updateDto, currentUser, expectedVersion));
+        return ResponseEntity.ok().eTag(String.valueOf(delta.getEntityVersion())).body(delta);
     }
 
     @PostMapping("/{caseId}/accounts")
-    public ResponseEntity<Case> createAccount(
+    public ResponseEntity<CaseDelta> createAccount(
             @PathVariable String caseId,
             @Valid @RequestBody CreateAccountDto accountDto,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
             @AuthenticationPrincipal User currentUser) {
-        return ResponseEntity.ok(caseService.createAccount(caseId, accountDto, currentUser));
+        Long expectedVersion = parseIfMatch(ifMatch);
+        return withETag(execute(expectedVersion,
+                () -> caseService.createAccount(caseId, accountDto, currentUser, expectedVersion)));
     }
 
     @PatchMapping("/{caseId}/accounts/{accountId}/status")
-    public ResponseEntity<Case> updateAccountStatus(
+    public ResponseEntity<CaseDelta> updateAccountStatus(
             @PathVariable String caseId,
             @PathVariable String accountId,
             @RequestBody UpdateAccountStatusDto statusDto,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
             @AuthenticationPrincipal User currentUser) {
-        return ResponseEntity.ok(caseService.updateAccountStatus(caseId, accountId, statusDto, currentUser));
+        Long expectedVersion = parseIfMatch(ifMatch);
+        CaseDelta delta = execute(expectedVersion,
+                () -> caseService.updateAccountStatus(caseId, accountId, statusDto, currentUser, expectedVersion));
+        return ResponseEntity.ok().eTag(String.valueOf(delta.getEntityVersion())).body(delta);
+    }
+
+    private <T> T execute(Long expectedVersion, Supplier<T> command) {
+        return expectedVersion != null ? command.get() : optimisticRetry.execute(command);
     }
 
-}
\ No newline at end of file
+    private static ResponseEntity<CaseDelta> withETag(CaseDelta delta) {
+        return ResponseEntity.ok().eTag(String.valueOf(delta.getVersion())).body(delta);
+    }
+
+    /**
+     * Version from a single (optionally weak) entity tag; null when absent or "*"
+     */
+    static Long parseIfMatch(String ifMatch) {
+        if (ifMatch == null || ifMatch.isBlank() || "*".equals(ifMatch.trim())) {
+            return null;
+        }
+        String tag = ifMatch.trim();
+        if (tag.startsWith("W/")) {
+            tag = tag.substring(2);
+        }
+        if (tag.length() >= 2 && tag.startsWith("\"") && tag.endsWith("\"")) {
+            tag = tag.substring(1, tag.length() - 1);
+        }
+        try {
+            return Long.parseLong(tag);
+        } catch (NumberFormatException e) {
+            throw new BadRequestException("Invalid If-Match header: " + ifMatch);
+        }
+    }
+}
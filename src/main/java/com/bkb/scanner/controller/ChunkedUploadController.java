@@ -0,0 +1,65 @@
+package com.bkb.scanner.controller;
+
+import com.bkb.scanner.dto.InitiateUploadDto;
+import com.bkb.scanner.dto.UploadSessionDto;
+import com.bkb.scanner.entity.User;
+import com.bkb.scanner.service.ChunkedUploadService;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.web.bind.annotation.*;
+
+import java.io.IOException;
+
+@RestController
+@RequestMapping("/documents/uploads")
+@RequiredArgsConstructor
+public class ChunkedUploadController {
+
+    private final ChunkedUploadService chunkedUploadService;
+
+    @PostMapping
+    public ResponseEntity<UploadSessionDto> initiateUpload(
+            @Valid @RequestBody InitiateUploadDto initiateUploadDto,
+            @AuthenticationPrincipal User currentUser) {
+        return ResponseEntity.status(HttpStatus.CREATED)
+                .body(chunkedUploadService.initiateUpload(initiateUploadDto, currentUser));
+    }
+
+    @PutMapping(value = "/{uploadId}/chunks/{index}", consumes = MediaType.APPLICATION_OCTET_STREAM_VALUE)
+    public ResponseEntity<UploadSessionDto> uploadChunk(
+            @PathVariable String uploadId,
+            @PathVariable int index,
+            @RequestParam(required = false) Long offset,
+            HttpServletRequest request,
+            @AuthenticationPrincipal User currentUser) throws IOException {
+        return ResponseEntity.ok(chunkedUploadService.uploadChunk(uploadId, index, offset, request.getInputStream(),
+                currentUser));
+    }
+
+    @GetMapping("/{uploadId}")
+    public ResponseEntity<UploadSessionDto> getUploadStatus(
+            @PathVariable String uploadId,
+            @AuthenticationPrincipal User currentUser) {
+        return ResponseEntity.ok(chunkedUploadService.getUploadStatus(uploadId, currentUser));
+    }
+
+    @PostMapping("/{uploadId}/complete")
+    public ResponseEntity<UploadSessionDto> completeUpload(
+            @PathVariable String uploadId,
+            @AuthenticationPrincipal User currentUser) {
+        return ResponseEntity.ok(chunkedUploadService.completeUpload(uploadId, currentUser));
+    }
+
+    @DeleteMapping("/{uploadId}")
+    public ResponseEntity<Void> abortUpload(
+            @PathVariable String uploadId,
+            @AuthenticationPrincipal User currentUser) {
+        chunkedUploadService.abortUpload(uploadId, currentUser);
+        return ResponseEntity.noContent().build();
+    }
+}
@@ -1,16 +1,21 @@
 package com.bkb.scanner.controller;
 
 import com.bkb.scanner.entity.Document;
+import com.bkb.scanner.exception.ResourceNotFoundException;
 import com.bkb.scanner.service.DocumentService;
 import lombok.RequiredArgsConstructor;
-import org.springframework.core.io.ByteArrayResource;
-import org.springframework.core.io.Resource;
 import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpRange;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.IOException;
+import java.util.List;
 
 @RestController
 @RequestMapping("/documents")
@@ -36,15 +41,58 @@ public class DocumentController {
     }
 
     @GetMapping("/{docId}/download")
-    public ResponseEntity<Resource> downloadDocument(@PathVariable String docId) {
+    public ResponseEntity<StreamingResponseBody> downloadDocument(
+            @PathVariable String docId,
+            @RequestHeader(value = HttpHeaders.RANGE, required = false) String rangeHeader,
+            @RequestHeader(value = HttpHeaders.IF_RANGE, required = false) String ifRange,
+            WebRequest webRequest) throws IOException {
         Document document = documentService.getDocumentByDocId(docId);
-        ByteArrayResource resource = new ByteArrayResource(document.getFileData());
+        if (!documentService.hasDocumentContent(document)) {
+            throw new ResourceNotFoundException("Document content not found: " + docId);
+        }
+
+        String eTag = document.getContentHash() != null ? "\"" + document.getContentHash() + "\"" : null;
+        if (eTag != null && webRequest.checkNotModified(eTag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(eTag).build();
+        }
+
+        long fileSize = documentService.getContentLength(document);
+        long start = 0;
+        long end = fileSize - 1;
+        boolean partial = false;
+
+        // Only a single range is honoured; multi-range requests get the full body, which RFC 9110 allows
+        if (rangeHeader != null && (ifRange == null || ifRange.equals(eTag))) {
+            try {
+                List<HttpRange> ranges = HttpRange.parseRanges(rangeHeader);
+                if (ranges.size() == 1) {
+                    start = ranges.get(0).getRangeStart(fileSize);
+                    end = ranges.get(0).getRangeEnd(fileSize);
+                    partial = true;
+                }
+            } catch (IllegalArgumentException e) {
+                return ResponseEntity.status(HttpStatus.REQUESTED_RANGE_NOT_SATISFIABLE)
+                        .header(HttpHeaders.CONTENT_RANGE, "bytes */" + fileSize)
+                        .build();
+            }
+        }
+
+        long offset = start;
+        long length = end - start + 1;
+        StreamingResponseBody body = out -> documentService.writeDocumentContent(document, offset, length, out);
 
-        return ResponseEntity.ok()
+        ResponseEntity.BodyBuilder response = ResponseEntity.status(partial ? HttpStatus.PARTIAL_CONTENT : HttpStatus.OK)
                 .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + document.getFileName() + "\"")
+                .header(HttpHeaders.ACCEPT_RANGES, "bytes")
                 .contentType(MediaType.parseMediaType(document.getMimeType()))
-                .contentLength(document.getFileSize())
-                .body(resource);
+                .contentLength(length);
+        if (partial) {
+            response.header(HttpHeaders.CONTENT_RANGE, "bytes " + start + "-" + end + "/" + fileSize);
+        }
+        if (eTag != null) {
+            response.eTag(eTag);
+        }
+        return response.body(body);
     }
 
     @DeleteMapping("/{docId}")
@@ -0,0 +1,62 @@
+package com.bkb.scanner.controller;
+
+import com.bkb.scanner.dto.CursorPage;
+import com.bkb.scanner.dto.MarkNotificationsReadDto;
+import com.bkb.scanner.dto.NotificationDTO;
+import com.bkb.scanner.entity.User;
+import com.bkb.scanner.service.NotificationService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Notifications of the current user. They are keyed by principal name, the same name
+ * STOMP uses for /user/queue/notifications.
+ */
+@RestController
+@RequestMapping("/notifications")
+@RequiredArgsConstructor
+public class NotificationController {
+
+    private final NotificationService notificationService;
+
+    @GetMapping
+    public ResponseEntity<CursorPage<NotificationDTO>> getNotifications(
+            @RequestParam(defaultValue = "false") boolean unreadOnly,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer size,
+            @AuthenticationPrincipal User currentUser) {
+        return ResponseEntity.ok(notificationService.getNotifications(
+                currentUser.getUsername(), unreadOnly, cursor, size));
+    }
+
+    @GetMapping("/unread")
+    public ResponseEntity<List<NotificationDTO>> getUnreadNotifications(@AuthenticationPrincipal User currentUser) {
+        return ResponseEntity.ok(notificationService.getUnreadNotifications(currentUser.getUsername()));
+    }
+
+    @GetMapping("/unread/count")
+    public ResponseEntity<Map<String, Long>> getUnreadCount(@AuthenticationPrincipal User currentUser) {
+        return ResponseEntity.ok(Map.of("count", notificationService.getUnreadCount(currentUser.getUsername())));
+    }
+
+    @PostMapping("/read")
+    public ResponseEntity<Map<String, Integer>> markAsRead(
+            @RequestBody MarkNotificationsReadDto markReadDto,
+            @AuthenticationPrincipal User currentUser) {
+        int updated = markReadDto.isAll()
+                ? notificationService.markAllAsRead(currentUser.getUsername())
+                : notificationService.markAsRead(currentUser.getUsername(), markReadDto.getNotificationIds());
+        return ResponseEntity.ok(Map.of("updated", updated));
+    }
+
+    @DeleteMapping
+    public ResponseEntity<Void> clearNotifications(@AuthenticationPrincipal User currentUser) {
+        notificationService.clearNotifications(currentUser.getUsername());
+        return ResponseEntity.noContent().build();
+    }
+}
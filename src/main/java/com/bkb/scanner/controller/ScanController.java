@@ -35,7 +35,8 @@ public class ScanController {
                 request.getRequirementId(),
                 request.getDocType(),
                 request.getPartyId(),
-                request.getScanProfile()
+                request.getScanProfile(),
+                currentUser != null ? currentUser.getUsername() : null
         );
         return ResponseEntity.ok(ApiResponse.success(response));
     }
@@ -31,7 +31,8 @@ public class UserController {
 
     @GetMapping("/current")
     public ResponseEntity<User> getCurrentUser(@AuthenticationPrincipal User currentUser) {
-        return ResponseEntity.ok(currentUser);
+        // The principal only carries the token claims; the profile comes from the stored user
+        return ResponseEntity.ok(userService.getUserByUserId(currentUser.getUserId()));
     }
 
     @PutMapping("/{userId}")
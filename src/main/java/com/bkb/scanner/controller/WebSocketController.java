@@ -3,6 +3,7 @@ package com.bkb.scanner.controller;
 import com.bkb.scanner.dto.NotificationDTO;
 import com.bkb.scanner.entity.ActivityLog;
 import com.bkb.scanner.entity.Case;
+import com.bkb.scanner.service.CaseUpdatePublisher;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.messaging.handler.annotation.MessageMapping;
@@ -21,6 +22,7 @@ import java.time.LocalDateTime;
 public class WebSocketController {
 
     private final SimpMessagingTemplate messagingTemplate;
+    private final CaseUpdatePublisher caseUpdatePublisher;
 
     /**
      * Handle ping messages to keep connection alive
@@ -33,18 +35,10 @@ public class WebSocketController {
     }
 
     /**
-     * Broadcast case updates to all connected users
+     * Publish a case update to the sessions interested in that case
      */
     public void broadcastCaseUpdate(Case updatedCase, String action) {
-        CaseUpdateMessage message = new CaseUpdateMessage(
-                updatedCase.getCaseId(),
-                updatedCase.getStatus().name(),
-                action,
-                LocalDateTime.now()
-        );
-
-        messagingTemplate.convertAndSend("/topic/case-updates", message);
-        log.info("Broadcasted case update: {} - {}", updatedCase.getCaseId(), action);
+        caseUpdatePublisher.publish(updatedCase, action);
     }
 
     /**
@@ -89,26 +83,6 @@ public class WebSocketController {
     }
 
     // Message DTOs
-    public static class CaseUpdateMessage {
-        private final String caseId;
-        private final String status;
-        private final String action;
-        private final LocalDateTime timestamp;
-
-        public CaseUpdateMessage(String caseId, String status, String action, LocalDateTime timestamp) {
-            this.caseId = caseId;
-            this.status = status;
-            this.action = action;
-            this.timestamp = timestamp;
-        }
-
-        // Getters
-        public String getCaseId() { return caseId; }
-        public String getStatus() { return status; }
-        public String getAction() { return action; }
-        public LocalDateTime getTimestamp() { return timestamp; }
-    }
-
     public static class ActivityMessage {
         private final String activityId;
         private final String caseId;
@@ -0,0 +1,24 @@
+package com.bkb.scanner.dto;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
+import java.time.LocalDateTime;
+
+/**
+ * One row of a case's activity history, read with a JPQL constructor expression.
+ * The row id only positions the keyset cursor and is not serialized.
+ */
+public record ActivityEntry(
+        @JsonIgnore Long id,
+        String activityId,
+        LocalDateTime timestamp,
+        String actor,
+        String actorRole,
+        String action,
+        String entityType,
+        String entityId,
+        String details,
+        String previousValue,
+        String newValue
+) {
+}
@@ -0,0 +1,33 @@
+package com.bkb.scanner.dto;
+
+import com.bkb.scanner.entity.Case;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+
+/**
+ * Compact response for case mutation commands: what changed and the activity that recorded it,
+ * rather than the whole case with every collection. Clients refetch the case only when they need it.
+ */
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class CaseDelta {
+    private String caseId;
+    private Case.CaseStatus status;
+    // Case version after the command; the ETag of /cases/{caseId}
+    private Long version;
+    private LocalDateTime updatedAt;
+    private String action;
+    private String activityId;
+    private String entityType;
+    private String entityId;
+    // Version of the submission or account the command wrote; the ETag of that sub-resource. Null for parties
+    private Long entityVersion;
+    private Map<String, Object> changes;
+}
@@ -0,0 +1,16 @@
+package com.bkb.scanner.dto;
+
+import com.bkb.scanner.entity.Case;
+
+/**
+ * The handful of case columns a targeted mutation needs (row id for child inserts,
+ * status and assignee for routing updates, version for preconditions), read without hydrating the aggregate.
+ */
+public record CaseHeader(
+        Long id,
+        String caseId,
+        Case.CaseStatus status,
+        String assignedTo,
+        Long version
+) {
+}
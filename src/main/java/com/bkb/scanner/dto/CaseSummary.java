@@ -0,0 +1,23 @@
+package com.bkb.scanner.dto;
+
+import com.bkb.scanner.entity.Case;
+import com.bkb.scanner.entity.EntityData;
+
+import java.time.LocalDateTime;
+
+/**
+ * Row-level view of a case for list screens, populated by a JPQL constructor
+ * expression so no {@link Case} entity or its collections are hydrated.
+ */
+public record CaseSummary(
+        String caseId,
+        Case.CaseStatus status,
+        Case.RiskLevel riskLevel,
+        Case.Priority priority,
+        String assignedTo,
+        String entityName,
+        EntityData.EntityType entityType,
+        LocalDateTime updatedAt,
+        LocalDateTime targetCompletionDate
+) {
+}
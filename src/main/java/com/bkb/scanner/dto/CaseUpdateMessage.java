@@ -0,0 +1,18 @@
+package com.bkb.scanner.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class CaseUpdateMessage {
+    private String caseId;
+    private String status;
+    private String assignedTo;
+    private String action;
+    private LocalDateTime timestamp;
+}
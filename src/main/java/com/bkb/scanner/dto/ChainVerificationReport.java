@@ -0,0 +1,22 @@
+package com.bkb.scanner.dto;
+
+import java.util.List;
+
+/**
+ * Outcome of an activity hash-chain verification run. {@code brokenLinks} counts every problem
+ * found, {@code breaks} lists the first ones up to audit.verify.max-reported-breaks.
+ */
+public record ChainVerificationReport(
+        String scope,
+        int cases,
+        long rows,
+        long checkpoints,
+        long brokenLinks,
+        long elapsedMs,
+        double rowsPerSecond,
+        List<BrokenLink> breaks
+) {
+
+    public record BrokenLink(String caseId, long sequence, String activityId, String reason) {
+    }
+}
@@ -0,0 +1,17 @@
+package com.bkb.scanner.dto;
+
+/**
+ * Checklist progress for one case, aggregated from csob_case_checklist_status.
+ * Only required items are counted.
+ */
+public record ChecklistCompletion(
+        String caseId,
+        long required,
+        long submitted,
+        long verified
+) {
+
+    public int percentComplete() {
+        return required == 0 ? 100 : (int) (verified * 100 / required);
+    }
+}
@@ -0,0 +1,26 @@
+package com.bkb.scanner.dto;
+
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Positive;
+import lombok.Data;
+
+@Data
+public class InitiateUploadDto {
+    @NotBlank(message = "Owner party is required")
+    private String ownerPartyId;
+
+    @NotBlank(message = "Document type is required")
+    private String docType;
+
+    @NotBlank(message = "File name is required")
+    private String fileName;
+
+    @NotNull(message = "Total size is required")
+    @Positive(message = "Total size must be positive")
+    private Long totalSize;
+
+    private String mimeType;
+    private String issueDate;
+    private String expiryDate;
+}
@@ -0,0 +1,14 @@
+package com.bkb.scanner.dto;
+
+import lombok.Data;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+public class MarkNotificationsReadDto {
+    private List<String> notificationIds = new ArrayList<>();
+
+    // Mark every unread notification of the user, ignoring notificationIds
+    private boolean all;
+}
@@ -6,6 +6,7 @@ import lombok.Data;
 @Data
 @Builder
 public class ScanStatusResponse {
+    private String scanId;
     private String status;
     private Integer progress;
     private String documentId;
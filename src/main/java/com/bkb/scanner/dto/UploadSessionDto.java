@@ -0,0 +1,37 @@
+package com.bkb.scanner.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class UploadSessionDto {
+    private String uploadId;
+    private String status;
+    private String fileName;
+    private Long totalSize;
+    private Long chunkSize;
+    private Integer totalChunks;
+    private Long receivedBytes;
+    private List<ByteRange> receivedRanges;
+    private String documentId;
+    private LocalDateTime expiresAt;
+
+    /**
+     * Inclusive byte range, matching HTTP Content-Range semantics
+     */
+    @Data
+    @AllArgsConstructor
+    @NoArgsConstructor
+    public static class ByteRange {
+        private long start;
+        private long end;
+    }
+}
@@ -73,6 +73,9 @@ public class Account {
 
     private LocalDateTime updatedAt;
 
+    @Version
+    private Long version;
+
     private LocalDate lastReviewDate;
 
     @PrePersist
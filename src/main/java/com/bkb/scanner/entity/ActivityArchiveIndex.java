@@ -0,0 +1,48 @@
+package com.bkb.scanner.entity;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import jakarta.persistence.*;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+/**
+ * Where a case's history sits inside an archive segment. Every case is written as its own gzip
+ * member, so its rows are read back with a single ranged read of the segment file.
+ */
+@Entity
+@Table(name = "csob_activity_archive_index", indexes = {
+        @Index(name = "idx_archive_index_case_month", columnList = "case_id, month")
+})
+@Data
+public class ActivityArchiveIndex {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @JsonIgnore
+    private Long id;
+
+    @Column(name = "case_id", nullable = false)
+    private String caseId;
+
+    @Column(nullable = false)
+    private String segmentId;
+
+    @Column(nullable = false, length = 7)
+    private String month;
+
+    @JsonIgnore
+    @Column(nullable = false, length = 64)
+    private String contentHash;
+
+    @JsonIgnore
+    private long byteOffset;
+
+    @JsonIgnore
+    private long byteLength;
+
+    private int rowCount;
+
+    private LocalDateTime fromTimestamp;
+
+    private LocalDateTime toTimestamp;
+}
@@ -0,0 +1,46 @@
+package com.bkb.scanner.entity;
+
+import jakarta.persistence.*;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+/**
+ * One archived chunk of csob_activity_logs: a gzip file in DocumentStorage holding one month's rows,
+ * grouped by case. A month that needs more than audit.archive.segment-rows rows spans several segments.
+ */
+@Entity
+@Table(name = "csob_activity_archive_segments", indexes = {
+        @Index(name = "idx_archive_segment_month", columnList = "month")
+})
+@Data
+public class ActivityArchiveSegment {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(unique = true, nullable = false)
+    private String segmentId;
+
+    // yyyy-MM of the archived rows' timestamps
+    @Column(nullable = false, length = 7)
+    private String month;
+
+    @Column(nullable = false, length = 64)
+    private String contentHash;
+
+    private String location;
+
+    private long sizeBytes;
+
+    private int rowCount;
+
+    private int caseCount;
+
+    private LocalDateTime fromTimestamp;
+
+    private LocalDateTime toTimestamp;
+
+    @Column(nullable = false)
+    private LocalDateTime createdAt = LocalDateTime.now();
+}
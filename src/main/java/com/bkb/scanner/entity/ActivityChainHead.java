@@ -0,0 +1,36 @@
+package com.bkb.scanner.entity;
+
+import jakarta.persistence.*;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+/**
+ * Tip of a case's activity hash chain. Writers lock this row while appending, so entries of one case
+ * are chained strictly in order even when several nodes drain the outbox; it survives archival of
+ * the rows themselves.
+ */
+@Entity
+@Table(name = "csob_activity_chain_heads")
+@Data
+public class ActivityChainHead {
+    // csob_cases.id of the case
+    @Id
+    private Long caseRowId;
+
+    @Column(nullable = false)
+    private String caseId;
+
+    private long lastSequence;
+
+    @Column(nullable = false, length = 64)
+    private String lastHash;
+
+    // Last sequence covered by an ActivityCheckpoint
+    private long checkpointedSequence;
+
+    // First sequence that could not be checkpointed because entries were missing; set once, never cleared
+    private Long checkpointGapSequence;
+
+    private LocalDateTime updatedAt;
+}
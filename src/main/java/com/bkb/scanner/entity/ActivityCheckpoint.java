@@ -0,0 +1,47 @@
+package com.bkb.scanner.entity;
+
+import jakarta.persistence.*;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+/**
+ * Merkle root over the entry hashes of one contiguous sequence range of a case's activity chain.
+ * Verification of a range only has to recompute it and compare, and lastHash anchors the next range.
+ */
+@Entity
+@Table(name = "csob_activity_checkpoints", indexes = {
+        @Index(name = "idx_checkpoint_case_sequence", columnList = "case_row_id, from_sequence"),
+        @Index(name = "idx_checkpoint_created_at", columnList = "created_at")
+})
+@Data
+public class ActivityCheckpoint {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "case_row_id", nullable = false)
+    private Long caseRowId;
+
+    @Column(nullable = false)
+    private String caseId;
+
+    @Column(name = "from_sequence", nullable = false)
+    private long fromSequence;
+
+    @Column(nullable = false)
+    private long toSequence;
+
+    @Column(nullable = false, length = 64)
+    private String merkleRoot;
+
+    @Column(nullable = false, length = 64)
+    private String lastHash;
+
+    private LocalDateTime fromTimestamp;
+
+    private LocalDateTime toTimestamp;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt = LocalDateTime.now();
+}
@@ -8,7 +8,12 @@ import lombok.ToString;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "csob_activity_logs")
+@Table(name = "csob_activity_logs", uniqueConstraints = {
+        @UniqueConstraint(name = "uk_activity_case_sequence", columnNames = {"case_id", "sequence"})
+}, indexes = {
+        @Index(name = "idx_activity_case_id", columnList = "case_id, id"),
+        @Index(name = "idx_activity_timestamp", columnList = "timestamp")
+})
 @Data
 @EqualsAndHashCode(callSuper = false)
 public class ActivityLog {
@@ -61,4 +66,13 @@ public class ActivityLog {
     private String userAgent;
 
     private String sessionId;
+
+    // Tamper evidence, assigned by ActivityLogWriter: position in the case's chain and the SHA-256 links
+    private Long sequence;
+
+    @Column(length = 64)
+    private String previousHash;
+
+    @Column(length = 64)
+    private String hash;
 }
\ No newline at end of file
@@ -0,0 +1,79 @@
+package com.bkb.scanner.entity;
+
+import jakarta.persistence.*;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+/**
+ * Activity event written in the same transaction as the change it describes and moved into
+ * csob_activity_logs in batches by ActivityLogWriter. Rows only live here until the next drain.
+ */
+@Entity
+@Table(name = "csob_activity_outbox")
+@Data
+public class ActivityOutbox {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false)
+    private String activityId;
+
+    // Row id of the case (csob_cases.id), which is what csob_activity_logs.case_id references
+    @Column(nullable = false)
+    private Long caseRowId;
+
+    @Column(nullable = false)
+    private String caseId;
+
+    @Column(nullable = false)
+    private LocalDateTime timestamp;
+
+    @Column(nullable = false)
+    private String actor;
+
+    private String actorRole;
+
+    private String actorId;
+
+    @Column(nullable = false)
+    private String action;
+
+    private String actionType;
+
+    private String entityType;
+
+    private String entityId;
+
+    @Column(columnDefinition = "TEXT")
+    private String details;
+
+    @Column(columnDefinition = "TEXT")
+    private String previousValue;
+
+    @Column(columnDefinition = "TEXT")
+    private String newValue;
+
+    /**
+     * Outbox event for a prepared ActivityLog whose case is already saved
+     */
+    public static ActivityOutbox from(ActivityLog activity) {
+        ActivityOutbox event = new ActivityOutbox();
+        event.setActivityId(activity.getActivityId());
+        event.setCaseRowId(activity.getCaseEntity().getId());
+        event.setCaseId(activity.getCaseEntity().getCaseId());
+        event.setTimestamp(activity.getTimestamp());
+        event.setActor(activity.getActor());
+        event.setActorRole(activity.getActorRole());
+        event.setActorId(activity.getActorId());
+        event.setAction(activity.getAction());
+        event.setActionType(activity.getActionType());
+        event.setEntityType(activity.getEntityType());
+        event.setEntityId(activity.getEntityId());
+        event.setDetails(activity.getDetails());
+        event.setPreviousValue(activity.getPreviousValue());
+        event.setNewValue(activity.getNewValue());
+        return event;
+    }
+}
@@ -5,6 +5,7 @@ import jakarta.persistence.*;
 import lombok.Data;
 import lombok.EqualsAndHashCode;
 import lombok.ToString;
+import org.hibernate.annotations.BatchSize;
 import org.springframework.data.annotation.CreatedDate;
 import org.springframework.data.annotation.LastModifiedDate;
 import org.springframework.data.jpa.domain.support.AuditingEntityListener;
@@ -14,10 +15,15 @@ import java.util.ArrayList;
 import java.util.List;
 
 @Entity
-@Table(name = "csob_cases")
+@Table(name = "csob_cases", indexes = {
+        @Index(name = "idx_cases_updated_at_id", columnList = "updatedAt, id"),
+        @Index(name = "idx_cases_status", columnList = "status"),
+        @Index(name = "idx_cases_assigned_to", columnList = "assignedTo"),
+        @Index(name = "idx_cases_risk_level", columnList = "riskLevel")
+})
 @Data
-@EqualsAndHashCode(exclude = {"relatedPartyLinks", "accounts", "documentLinks", "activities", "accountApprovalSnapshots"})
-@ToString(exclude = {"relatedPartyLinks", "accounts", "documentLinks", "activities", "accountApprovalSnapshots"})
+@EqualsAndHashCode(exclude = {"relatedPartyLinks", "accounts", "documentLinks", "accountApprovalSnapshots"})
+@ToString(exclude = {"relatedPartyLinks", "accounts", "documentLinks", "accountApprovalSnapshots"})
 @EntityListeners(AuditingEntityListener.class)
 public class Case {
     @Id
@@ -46,7 +52,8 @@ public class Case {
     @Embedded
     private EntityData entityData;
 
-    @OneToMany(mappedBy = "caseEntity", cascade = CascadeType.ALL, orphanRemoval = true, fetch = FetchType.EAGER)
+    @OneToMany(mappedBy = "caseEntity", cascade = CascadeType.ALL, orphanRemoval = true)
+    @BatchSize(size = 50)
     @JsonManagedReference("case-party-link")
     private List<CasePartyLink> relatedPartyLinks = new ArrayList<>();
 
@@ -58,9 +65,7 @@ public class Case {
     @JsonManagedReference("case-document-link")
     private List<CaseDocumentLink> documentLinks = new ArrayList<>();
 
-    @OneToMany(mappedBy = "caseEntity", cascade = CascadeType.ALL, orphanRemoval = true)
-    @JsonManagedReference("case-activity")
-    private List<ActivityLog> activities = new ArrayList<>();
+    // Activity history is append-only and read page by page through ActivityLogRepository, so it is not mapped here
 
     @OneToOne(cascade = CascadeType.ALL)
     @JoinColumn(name = "kyc_approval_snapshot_id")
@@ -80,6 +85,10 @@ public class Case {
     @LastModifiedDate
     private LocalDateTime updatedAt;
 
+    // Optimistic concurrency; served to clients as the case ETag
+    @Version
+    private Long version;
+
     private LocalDateTime targetCompletionDate;
     private LocalDateTime actualCompletionDate;
 
@@ -0,0 +1,45 @@
+package com.bkb.scanner.entity;
+
+import jakarta.persistence.*;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+/**
+ * Materialized checklist line for a case: one row per generated requirement with the
+ * status of its latest submission. Maintained by ChecklistService alongside submission
+ * changes so completion can be aggregated in SQL without building checklists.
+ */
+@Entity
+@Table(name = "csob_case_checklist_status",
+        uniqueConstraints = @UniqueConstraint(name = "uk_checklist_status_case_requirement",
+                columnNames = {"case_id", "requirement_id"}),
+        indexes = @Index(name = "idx_checklist_status_case_required", columnList = "case_id, required, latest_status"))
+@Data
+public class CaseChecklistStatus {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "case_id", nullable = false)
+    private String caseId;
+
+    @Column(name = "requirement_id", nullable = false)
+    private String requirementId;
+
+    // "ENTITY" or the party id the requirement belongs to
+    @Column(nullable = false)
+    private String ownerPartyId;
+
+    @Column(nullable = false)
+    private Boolean required = true;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "latest_status", nullable = false)
+    private Submission.DocumentStatus latestStatus = Submission.DocumentStatus.MISSING;
+
+    private String latestSubmissionId;
+
+    @Column(nullable = false)
+    private LocalDateTime updatedAt = LocalDateTime.now();
+}
@@ -8,7 +8,10 @@ import java.time.LocalDate;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "csob_documents")
+@Table(name = "csob_documents", indexes = {
+        @Index(name = "idx_documents_owner_party_id", columnList = "owner_party_id"),
+        @Index(name = "idx_documents_content_hash", columnList = "contentHash")
+})
 @Data
 @EqualsAndHashCode(callSuper = false)
 public class Document {
@@ -36,9 +39,11 @@ public class Document {
     private String mimeType;
     private String fileUrl;
 
-    @Lob
-    @Column(columnDefinition = "LONGBLOB")
-    private byte[] fileData;
+    // SHA-256 of the binary, hex encoded; served as the download ETag
+    @Column(length = 64)
+    private String contentHash;
+
+    // Binary payload lives in DocumentContent (csob_document_contents), keyed by docId
 
     // Document details
     private String issuer;
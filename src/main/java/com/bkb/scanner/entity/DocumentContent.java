@@ -0,0 +1,36 @@
+package com.bkb.scanner.entity;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.NoArgsConstructor;
+import lombok.ToString;
+
+/**
+ * Binary payload of a {@link Document}, kept in its own table so metadata
+ * queries on csob_documents never read blob pages.
+ */
+@Entity
+@Table(name = "csob_document_contents")
+@Data
+@NoArgsConstructor
+@EqualsAndHashCode(callSuper = false, exclude = {"data"})
+@ToString(exclude = {"data"})
+public class DocumentContent {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    // References Document.docId, same as the other string-keyed links
+    @Column(name = "doc_id", unique = true, nullable = false)
+    private String docId;
+
+    @Lob
+    @Column(columnDefinition = "LONGBLOB")
+    private byte[] data;
+
+    public DocumentContent(String docId, byte[] data) {
+        this.docId = docId;
+        this.data = data;
+    }
+}
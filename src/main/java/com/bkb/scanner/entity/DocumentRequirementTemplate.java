@@ -1,5 +1,6 @@
 package com.bkb.scanner.entity;
 
+import com.bkb.scanner.service.RequirementTemplateListener;
 import jakarta.persistence.*;
 import lombok.Data;
 import lombok.EqualsAndHashCode;
@@ -8,6 +9,7 @@ import java.time.LocalDateTime;
 
 @Entity
 @Table(name = "csob_document_requirement_templates")
+@EntityListeners(RequirementTemplateListener.class)
 @Data
 @EqualsAndHashCode(callSuper = false)
 public class DocumentRequirementTemplate {
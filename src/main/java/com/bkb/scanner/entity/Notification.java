@@ -0,0 +1,93 @@
+package com.bkb.scanner.entity;
+
+import com.bkb.scanner.dto.NotificationDTO;
+import jakarta.persistence.*;
+import lombok.Data;
+import org.hibernate.annotations.JdbcTypeCode;
+import org.hibernate.type.SqlTypes;
+
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "csob_notifications", uniqueConstraints = {
+        // One notification fanned out to several users shares its notificationId
+        @UniqueConstraint(name = "uk_notification_user_notification", columnNames = {"user_id", "notification_id"})
+}, indexes = {
+        @Index(name = "idx_notification_user_read_id", columnList = "user_id, is_read, id"),
+        @Index(name = "idx_notification_user_created_at", columnList = "user_id, created_at")
+})
+@Data
+public class Notification {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "notification_id", nullable = false)
+    private String notificationId;
+
+    // Principal name of the recipient, the same key used for /user/queue/notifications
+    @Column(name = "user_id", nullable = false)
+    private String userId;
+
+    @Column(nullable = false)
+    private String type;
+
+    @Column(nullable = false)
+    private String title;
+
+    @Column(columnDefinition = "TEXT")
+    private String message;
+
+    private String relatedEntityId;
+    private String relatedEntityType;
+
+    @Enumerated(EnumType.STRING)
+    private NotificationDTO.NotificationSeverity severity;
+
+    @Column(name = "is_read", nullable = false)
+    private boolean read = false;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime timestamp;
+
+    private LocalDateTime readAt;
+
+    private String actionUrl;
+
+    @JdbcTypeCode(SqlTypes.JSON)
+    private NotificationDTO.NotificationMetadata metadata;
+
+    public static Notification from(String userId, NotificationDTO dto) {
+        Notification notification = new Notification();
+        notification.setNotificationId(dto.getId());
+        notification.setUserId(userId);
+        notification.setType(dto.getType());
+        notification.setTitle(dto.getTitle());
+        notification.setMessage(dto.getMessage());
+        notification.setRelatedEntityId(dto.getRelatedEntityId());
+        notification.setRelatedEntityType(dto.getRelatedEntityType());
+        notification.setSeverity(dto.getSeverity());
+        notification.setRead(dto.isRead());
+        notification.setTimestamp(dto.getTimestamp() != null ? dto.getTimestamp() : LocalDateTime.now());
+        notification.setActionUrl(dto.getActionUrl());
+        notification.setMetadata(dto.getMetadata());
+        return notification;
+    }
+
+    public NotificationDTO toDto() {
+        return NotificationDTO.builder()
+                .id(notificationId)
+                .type(type)
+                .title(title)
+                .message(message)
+                .userId(userId)
+                .relatedEntityId(relatedEntityId)
+                .relatedEntityType(relatedEntityType)
+                .severity(severity)
+                .read(read)
+                .timestamp(timestamp)
+                .actionUrl(actionUrl)
+                .metadata(metadata)
+                .build();
+    }
+}
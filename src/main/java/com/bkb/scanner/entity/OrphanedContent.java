@@ -0,0 +1,27 @@
+package com.bkb.scanner.entity;
+
+import jakarta.persistence.*;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+/**
+ * Stored content that lost a reference when a document was deleted. OrphanedContentSweeper removes
+ * the stored object once the grace period has passed and nothing references the hash any more.
+ */
+@Entity
+@Table(name = "csob_orphaned_contents", indexes = {
+        @Index(name = "idx_orphaned_content_queued_at", columnList = "queued_at")
+})
+@Data
+public class OrphanedContent {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false, length = 64)
+    private String contentHash;
+
+    @Column(name = "queued_at", nullable = false)
+    private LocalDateTime queuedAt;
+}
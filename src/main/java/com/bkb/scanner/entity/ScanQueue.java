@@ -6,7 +6,9 @@ import lombok.Data;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "csob_scan_queue")
+@Table(name = "csob_scan_queue", indexes = {
+        @Index(name = "idx_scan_queue_status_created_at", columnList = "status, createdAt")
+})
 @Data
 public class ScanQueue {
     @Id
@@ -30,12 +32,19 @@ public class ScanQueue {
 
     private String scanProfile;
 
+    // Principal name of the initiating user; progress events go to their /user/queue/scan/{scanId}
+    private String requestedBy;
+
     @Enumerated(EnumType.STRING)
     @Column(nullable = false)
     private ScanStatus status = ScanStatus.PENDING;
 
     private Integer progress = 0;
 
+    // Number of times a worker has claimed this scan; bounded by scan.max.retries
+    @Column(nullable = false)
+    private Integer attempts = 0;
+
     @Column(columnDefinition = "TEXT")
     private String errorMessage;
 
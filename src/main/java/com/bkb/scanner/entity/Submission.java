@@ -22,6 +22,9 @@ public class Submission {
     @Column(unique = true, nullable = false)
     private String submissionId;
 
+    @Version
+    private Long version;
+
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "document_link_id", nullable = false)
     @ToString.Exclude
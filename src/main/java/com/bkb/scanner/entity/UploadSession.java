@@ -0,0 +1,70 @@
+package com.bkb.scanner.entity;
+
+import jakarta.persistence.*;
+import lombok.Data;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "csob_upload_sessions", indexes = {
+        @Index(name = "idx_upload_sessions_status_expires_at", columnList = "status, expiresAt")
+})
+@Data
+public class UploadSession {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(unique = true, nullable = false)
+    private String uploadId;
+
+    // Target document details, applied when the upload completes
+    @Column(name = "owner_party_id", nullable = false)
+    private String ownerPartyId;
+
+    @Column(nullable = false)
+    private String docType;
+
+    @Column(nullable = false)
+    private String fileName;
+
+    private String declaredMimeType;
+    private LocalDate issueDate;
+    private LocalDate expiryDate;
+
+    // Chunk layout: chunk N covers [N * chunkSize, min((N + 1) * chunkSize, totalSize))
+    @Column(nullable = false)
+    private Long totalSize;
+
+    @Column(nullable = false)
+    private Long chunkSize;
+
+    @Column(nullable = false)
+    private Integer totalChunks;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private UploadStatus status = UploadStatus.IN_PROGRESS;
+
+    private String documentId;
+
+    private String uploadedBy;
+
+    // Only this user (or an admin) may send chunks to, read, complete or abort the session
+    @Column(name = "uploaded_by_user_id")
+    private String uploadedByUserId;
+
+    @Column(nullable = false, updatable = false)
+    private LocalDateTime createdAt = LocalDateTime.now();
+
+    // Sliding expiry, pushed forward on every received chunk
+    @Column(nullable = false)
+    private LocalDateTime expiresAt;
+
+    private LocalDateTime completedAt;
+
+    public enum UploadStatus {
+        IN_PROGRESS, COMPLETED, EXPIRED, ABORTED
+    }
+}
@@ -10,6 +10,7 @@ import java.util.Optional;
 @Repository
 public interface AccountRepository extends JpaRepository<Account, Long> {
     Optional<Account> findByAccountId(String accountId);
+    Optional<Account> findByAccountIdAndCaseEntity_Id(String accountId, Long caseId);
     List<Account> findByCaseEntity_CaseId(String caseId);
     List<Account> findByStatus(String status);
     boolean existsByAccountId(String accountId);
@@ -0,0 +1,14 @@
+package com.bkb.scanner.repository;
+
+import com.bkb.scanner.entity.ActivityArchiveIndex;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface ActivityArchiveIndexRepository extends JpaRepository<ActivityArchiveIndex, Long> {
+    List<ActivityArchiveIndex> findByCaseIdOrderByFromTimestampDesc(String caseId);
+    List<ActivityArchiveIndex> findByCaseIdOrderByFromTimestampAscIdAsc(String caseId);
+    List<ActivityArchiveIndex> findByCaseIdAndMonthOrderByFromTimestampDesc(String caseId, String month);
+}
@@ -0,0 +1,10 @@
+package com.bkb.scanner.repository;
+
+import com.bkb.scanner.entity.ActivityArchiveSegment;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface ActivityArchiveSegmentRepository extends JpaRepository<ActivityArchiveSegment, Long> {
+    boolean existsByContentHash(String contentHash);
+}
@@ -0,0 +1,43 @@
+package com.bkb.scanner.repository;
+
+import com.bkb.scanner.entity.ActivityChainHead;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface ActivityChainHeadRepository extends JpaRepository<ActivityChainHead, Long> {
+
+    /**
+     * Create the head for a case at the genesis hash unless it already exists. MySQL-specific:
+     * {@code INSERT IGNORE} lets concurrent drains race on the primary key without failing.
+     */
+    @Modifying
+    @Query(value = "INSERT IGNORE INTO csob_activity_chain_heads " +
+            "(case_row_id, case_id, last_sequence, last_hash, checkpointed_sequence, updated_at) " +
+            "VALUES (:caseRowId, :caseId, 0, :genesisHash, 0, NOW())", nativeQuery = true)
+    int insertIfAbsent(@Param("caseRowId") Long caseRowId, @Param("caseId") String caseId,
+                       @Param("genesisHash") String genesisHash);
+
+    /**
+     * Lock the heads of the given cases, in id order so that concurrent writers cannot deadlock
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    List<ActivityChainHead> findByCaseRowIdInOrderByCaseRowIdAsc(Collection<Long> caseRowIds);
+
+    /**
+     * Lock up to {@code limit} heads with entries not yet covered by a checkpoint, skipping heads
+     * another node holds and heads stopped at a checkpoint gap. Must run inside a transaction.
+     */
+    @Query(value = "SELECT * FROM csob_activity_chain_heads WHERE last_sequence > checkpointed_sequence " +
+            "AND checkpoint_gap_sequence IS NULL " +
+            "ORDER BY case_row_id LIMIT :limit FOR UPDATE SKIP LOCKED", nativeQuery = true)
+    List<ActivityChainHead> lockUncheckpointed(@Param("limit") int limit);
+}
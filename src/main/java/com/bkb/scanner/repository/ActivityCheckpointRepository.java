@@ -0,0 +1,22 @@
+package com.bkb.scanner.repository;
+
+import com.bkb.scanner.entity.ActivityCheckpoint;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface ActivityCheckpointRepository extends JpaRepository<ActivityCheckpoint, Long> {
+
+    /**
+     * Checkpoints of a case that lie entirely inside [fromSequence, toSequence]
+     */
+    @Query("SELECT cp FROM ActivityCheckpoint cp WHERE cp.caseRowId = :caseRowId " +
+            "AND cp.fromSequence >= :fromSequence AND cp.toSequence <= :toSequence ORDER BY cp.fromSequence")
+    List<ActivityCheckpoint> findWithin(@Param("caseRowId") Long caseRowId,
+                                        @Param("fromSequence") long fromSequence,
+                                        @Param("toSequence") long toSequence);
+}
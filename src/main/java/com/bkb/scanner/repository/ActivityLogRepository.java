@@ -0,0 +1,27 @@
+package com.bkb.scanner.repository;
+
+import com.bkb.scanner.dto.ActivityEntry;
+import com.bkb.scanner.entity.ActivityLog;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface ActivityLogRepository extends JpaRepository<ActivityLog, Long> {
+
+    /**
+     * Newest-first page of a case's history below {@code beforeId} (null for the first page),
+     * served from the (case_id, id) index.
+     */
+    @Query("SELECT new com.bkb.scanner.dto.ActivityEntry(a.id, a.activityId, a.timestamp, a.actor, a.actorRole, " +
+            "a.action, a.entityType, a.entityId, a.details, a.previousValue, a.newValue) " +
+            "FROM ActivityLog a " +
+            "WHERE a.caseEntity.id = :caseRowId AND (:beforeId IS NULL OR a.id < :beforeId) " +
+            "ORDER BY a.id DESC")
+    List<ActivityEntry> findPage(@Param("caseRowId") Long caseRowId, @Param("beforeId") Long beforeId,
+                                 Pageable pageable);
+}
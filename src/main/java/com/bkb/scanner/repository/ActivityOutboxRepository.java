@@ -0,0 +1,21 @@
+package com.bkb.scanner.repository;
+
+import com.bkb.scanner.entity.ActivityOutbox;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface ActivityOutboxRepository extends JpaRepository<ActivityOutbox, Long> {
+
+    /**
+     * Lock the oldest {@code limit} events, skipping rows another node is already draining.
+     * Must run inside a transaction; the rows are deleted before it commits.
+     */
+    @Query(value = "SELECT * FROM csob_activity_outbox ORDER BY id LIMIT :limit FOR UPDATE SKIP LOCKED",
+            nativeQuery = true)
+    List<ActivityOutbox> lockBatch(@Param("limit") int limit);
+}
@@ -0,0 +1,48 @@
+package com.bkb.scanner.repository;
+
+import com.bkb.scanner.dto.ChecklistCompletion;
+import com.bkb.scanner.entity.Case;
+import com.bkb.scanner.entity.CaseChecklistStatus;
+import com.bkb.scanner.entity.Submission;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface CaseChecklistStatusRepository extends JpaRepository<CaseChecklistStatus, Long> {
+    List<CaseChecklistStatus> findByCaseId(String caseId);
+    Optional<CaseChecklistStatus> findByCaseIdAndRequirementId(String caseId, String requirementId);
+
+    @Query("SELECT new com.bkb.scanner.dto.ChecklistCompletion(s.caseId, COUNT(s), " +
+            "SUM(CASE WHEN s.latestStatus NOT IN (:missing, :rejected) THEN 1L ELSE 0L END), " +
+            "SUM(CASE WHEN s.latestStatus = :verified THEN 1L ELSE 0L END)) " +
+            "FROM CaseChecklistStatus s JOIN com.bkb.scanner.entity.Case c ON c.caseId = s.caseId " +
+            "WHERE s.required = true " +
+            "AND (:status IS NULL OR c.status = :status) " +
+            "AND (:assignedTo IS NULL OR c.assignedTo = :assignedTo) " +
+            "AND (:riskLevel IS NULL OR c.riskLevel = :riskLevel) " +
+            "GROUP BY s.caseId")
+    List<ChecklistCompletion> summarizeCompletion(@Param("status") Case.CaseStatus status,
+                                                  @Param("assignedTo") String assignedTo,
+                                                  @Param("riskLevel") Case.RiskLevel riskLevel,
+                                                  @Param("missing") Submission.DocumentStatus missing,
+                                                  @Param("rejected") Submission.DocumentStatus rejected,
+                                                  @Param("verified") Submission.DocumentStatus verified);
+
+    default List<ChecklistCompletion> summarizeCompletion(Case.CaseStatus status, String assignedTo,
+                                                          Case.RiskLevel riskLevel) {
+        return summarizeCompletion(status, assignedTo, riskLevel, Submission.DocumentStatus.MISSING,
+                Submission.DocumentStatus.REJECTED, Submission.DocumentStatus.VERIFIED);
+    }
+
+    /**
+     * Ids of cases that have never been materialized, e.g. created before the table existed
+     */
+    @Query("SELECT c.caseId FROM com.bkb.scanner.entity.Case c WHERE NOT EXISTS " +
+            "(SELECT 1 FROM CaseChecklistStatus s WHERE s.caseId = c.caseId)")
+    List<String> findCaseIdsWithoutStatus();
+}
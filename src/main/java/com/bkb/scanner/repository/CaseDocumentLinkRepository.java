@@ -0,0 +1,12 @@
+package com.bkb.scanner.repository;
+
+import com.bkb.scanner.entity.CaseDocumentLink;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+
+@Repository
+public interface CaseDocumentLinkRepository extends JpaRepository<CaseDocumentLink, Long> {
+    Optional<CaseDocumentLink> findFirstByCaseEntity_IdAndRequirementIdOrderByIdAsc(Long caseId, String requirementId);
+}
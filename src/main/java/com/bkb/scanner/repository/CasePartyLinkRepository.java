@@ -0,0 +1,10 @@
+package com.bkb.scanner.repository;
+
+import com.bkb.scanner.entity.CasePartyLink;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface CasePartyLinkRepository extends JpaRepository<CasePartyLink, Long> {
+    boolean existsByCaseEntity_Id(Long caseId);
+}
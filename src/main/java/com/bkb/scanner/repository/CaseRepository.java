@@ -1,17 +1,61 @@
 package com.bkb.scanner.repository;
 
+import com.bkb.scanner.dto.CaseHeader;
+import com.bkb.scanner.dto.CaseSummary;
 import com.bkb.scanner.entity.Case;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 
 @Repository
-public interface CaseRepository extends JpaRepository<Case, Long> {
+public interface CaseRepository extends JpaRepository<Case, Long>, JpaSpecificationExecutor<Case> {
     Optional<Case> findByCaseId(String caseId);
     List<Case> findByAssignedTo(String assignedTo);
     List<Case> findByStatus(Case.CaseStatus status);
     List<Case> findByRiskLevel(Case.RiskLevel riskLevel);
     boolean existsByCaseId(String caseId);
-}
\ No newline at end of file
+    boolean existsByCaseIdAndAssignedTo(String caseId, String assignedTo);
+
+    @Query("SELECT new com.bkb.scanner.dto.CaseSummary(" +
+            "c.caseId, c.status, c.riskLevel, c.priority, c.assignedTo, " +
+            "c.entityData.entityName, c.entityData.entityType, c.updatedAt, c.targetCompletionDate) " +
+            "FROM com.bkb.scanner.entity.Case c " +
+            "WHERE (:status IS NULL OR c.status = :status) " +
+            "AND (:assignedTo IS NULL OR c.assignedTo = :assignedTo) " +
+            "AND (:riskLevel IS NULL OR c.riskLevel = :riskLevel) " +
+            "ORDER BY c.updatedAt DESC, c.id DESC")
+    List<CaseSummary> findSummaries(@Param("status") Case.CaseStatus status,
+                                    @Param("assignedTo") String assignedTo,
+                                    @Param("riskLevel") Case.RiskLevel riskLevel);
+
+    @Query("SELECT new com.bkb.scanner.dto.CaseHeader(c.id, c.caseId, c.status, c.assignedTo, c.version) " +
+            "FROM com.bkb.scanner.entity.Case c WHERE c.caseId = :caseId")
+    Optional<CaseHeader> findHeaderByCaseId(@Param("caseId") String caseId);
+
+    @Query("SELECT c.version FROM com.bkb.scanner.entity.Case c WHERE c.id = :id")
+    Long findVersionById(@Param("id") Long id);
+
+    /*
+     * Bulk updates bypass the auditing listener and Hibernate's version check, so both are done here:
+     * updatedAt is set explicitly to keep keyset paging correct, and the version is bumped and,
+     * when the client sent a precondition, compared in the WHERE clause. 0 rows means it did not match.
+     */
+    @Modifying
+    @Query("UPDATE com.bkb.scanner.entity.Case c " +
+            "SET c.status = :status, c.updatedAt = :now, c.version = c.version + 1 " +
+            "WHERE c.id = :id AND (:expectedVersion IS NULL OR c.version = :expectedVersion)")
+    int updateStatus(@Param("id") Long id, @Param("status") Case.CaseStatus status, @Param("now") LocalDateTime now,
+                     @Param("expectedVersion") Long expectedVersion);
+
+    @Modifying
+    @Query("UPDATE com.bkb.scanner.entity.Case c SET c.updatedAt = :now, c.version = c.version + 1 " +
+            "WHERE c.id = :id AND (:expectedVersion IS NULL OR c.version = :expectedVersion)")
+    int touch(@Param("id") Long id, @Param("now") LocalDateTime now, @Param("expectedVersion") Long expectedVersion);
+}
@@ -0,0 +1,68 @@
+package com.bkb.scanner.repository;
+
+import com.bkb.scanner.entity.Case;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.time.LocalDateTime;
+
+/**
+ * Query predicates for {@link Case} so list filters run in SQL instead of in memory.
+ * A null argument yields a null specification, which Spring Data treats as "no filter".
+ */
+public final class CaseSpecifications {
+
+    /**
+     * Keyset order for case listings: most recently updated first, id as tie-breaker.
+     * Rows without updatedAt (inserted outside JPA auditing) come last.
+     */
+    public static final Sort KEYSET_SORT = Sort.by(
+            Sort.Order.desc("updatedAt").nullsLast(),
+            Sort.Order.desc("id")
+    );
+
+    private CaseSpecifications() {
+    }
+
+    public static Specification<Case> withFilters(Case.CaseStatus status, String assignedTo, Case.RiskLevel riskLevel) {
+        return Specification.where(hasStatus(status))
+                .and(isAssignedTo(assignedTo))
+                .and(hasRiskLevel(riskLevel));
+    }
+
+    public static Specification<Case> hasStatus(Case.CaseStatus status) {
+        return status == null ? null : (root, query, cb) -> cb.equal(root.get("status"), status);
+    }
+
+    public static Specification<Case> isAssignedTo(String assignedTo) {
+        return assignedTo == null ? null : (root, query, cb) -> cb.equal(root.get("assignedTo"), assignedTo);
+    }
+
+    public static Specification<Case> hasRiskLevel(Case.RiskLevel riskLevel) {
+        return riskLevel == null ? null : (root, query, cb) -> cb.equal(root.get("riskLevel"), riskLevel);
+    }
+
+    /**
+     * Rows strictly after the given (updatedAt, id) position in {@link #KEYSET_SORT} order.
+     * A null updatedAt is a position among the trailing rows that have none.
+     */
+    public static Specification<Case> after(LocalDateTime updatedAt, Long id) {
+        if (id == null) {
+            return null;
+        }
+        if (updatedAt == null) {
+            return (root, query, cb) -> cb.and(
+                    cb.isNull(root.get("updatedAt")),
+                    cb.lessThan(root.get("id"), id)
+            );
+        }
+        return (root, query, cb) -> cb.or(
+                cb.lessThan(root.get("updatedAt"), updatedAt),
+                cb.and(
+                        cb.equal(root.get("updatedAt"), updatedAt),
+                        cb.lessThan(root.get("id"), id)
+                ),
+                cb.isNull(root.get("updatedAt"))
+        );
+    }
+}
@@ -0,0 +1,25 @@
+package com.bkb.scanner.repository;
+
+import com.bkb.scanner.entity.DocumentContent;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface DocumentContentRepository extends JpaRepository<DocumentContent, Long> {
+    Optional<DocumentContent> findByDocId(String docId);
+    boolean existsByDocId(String docId);
+
+    @Query("SELECT dc.id FROM DocumentContent dc WHERE dc.id > :afterId ORDER BY dc.id")
+    List<Long> findIdsAfter(@Param("afterId") Long afterId, Pageable pageable);
+
+    @Modifying
+    @Query("DELETE FROM DocumentContent dc WHERE dc.docId = :docId")
+    void deleteByDocId(@Param("docId") String docId);
+}
@@ -13,4 +13,5 @@ public interface DocumentRepository extends JpaRepository<Document, Long> {
     List<Document> findByOwnerPartyId(String ownerPartyId);
     List<Document> findByDocType(String docType);
     boolean existsByDocId(String docId);
+    boolean existsByContentHash(String contentHash);
 }
\ No newline at end of file
@@ -34,4 +34,6 @@ public interface DocumentRequirementTemplateRepository extends JpaRepository<Doc
             DocumentRequirementTemplate.RequirementType type,
             String accountType
     );
-}
\ No newline at end of file
+
+    List<DocumentRequirementTemplate> findByIsActiveTrueOrderByIdAsc();
+}
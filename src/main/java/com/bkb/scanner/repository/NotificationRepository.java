@@ -0,0 +1,41 @@
+package com.bkb.scanner.repository;
+
+import com.bkb.scanner.entity.Notification;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface NotificationRepository extends JpaRepository<Notification, Long> {
+
+    // Keyset pages, newest first; the identity id doubles as the cursor
+    List<Notification> findByUserIdOrderByIdDesc(String userId, Pageable pageable);
+    List<Notification> findByUserIdAndIdLessThanOrderByIdDesc(String userId, Long id, Pageable pageable);
+    List<Notification> findByUserIdAndReadFalseOrderByIdDesc(String userId, Pageable pageable);
+    List<Notification> findByUserIdAndReadFalseAndIdLessThanOrderByIdDesc(String userId, Long id, Pageable pageable);
+
+    long countByUserIdAndReadFalse(String userId);
+
+    @Modifying
+    @Query("UPDATE Notification n SET n.read = true, n.readAt = :readAt " +
+            "WHERE n.userId = :userId AND n.read = false AND n.notificationId IN :notificationIds")
+    int markRead(@Param("userId") String userId,
+                 @Param("notificationIds") Collection<String> notificationIds,
+                 @Param("readAt") LocalDateTime readAt);
+
+    @Modifying
+    @Query("UPDATE Notification n SET n.read = true, n.readAt = :readAt " +
+            "WHERE n.userId = :userId AND n.read = false")
+    int markAllRead(@Param("userId") String userId, @Param("readAt") LocalDateTime readAt);
+
+    @Modifying
+    @Query("DELETE FROM Notification n WHERE n.userId = :userId")
+    int deleteByUserId(@Param("userId") String userId);
+}
@@ -0,0 +1,16 @@
+package com.bkb.scanner.repository;
+
+import com.bkb.scanner.entity.OrphanedContent;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface OrphanedContentRepository extends JpaRepository<OrphanedContent, Long> {
+    List<OrphanedContent> findByQueuedAtBeforeAndIdGreaterThanOrderByIdAsc(LocalDateTime cutoff, Long afterId,
+                                                                         Pageable pageable);
+    void deleteByContentHash(String contentHash);
+}
@@ -2,8 +2,12 @@ package com.bkb.scanner.repository;
 
 import com.bkb.scanner.entity.ScanQueue;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 
@@ -13,4 +17,49 @@ public interface ScanQueueRepository extends JpaRepository<ScanQueue, Long> {
     List<ScanQueue> findByStatus(ScanQueue.ScanStatus status);
     List<ScanQueue> findByCaseId(String caseId);
     boolean existsByScanId(String scanId);
-}
\ No newline at end of file
+
+    /**
+     * Lock up to {@code limit} pending scans, skipping rows another worker already holds.
+     * Must run inside a transaction; the claim is made durable by updating the status before commit.
+     */
+    @Query(value = "SELECT * FROM csob_scan_queue WHERE status = 'PENDING' " +
+            "ORDER BY created_at LIMIT :limit FOR UPDATE SKIP LOCKED", nativeQuery = true)
+    List<ScanQueue> lockPending(@Param("limit") int limit);
+
+    @Modifying
+    @Query("UPDATE ScanQueue s SET s.progress = :progress " +
+            "WHERE s.scanId = :scanId AND s.status = :status AND s.progress < :progress")
+    int updateProgress(@Param("scanId") String scanId,
+                       @Param("status") ScanQueue.ScanStatus status,
+                       @Param("progress") int progress);
+
+    @Modifying
+    @Query("UPDATE ScanQueue s SET s.status = :to WHERE s.scanId = :scanId AND s.status = :from")
+    int transition(@Param("scanId") String scanId,
+                   @Param("from") ScanQueue.ScanStatus from,
+                   @Param("to") ScanQueue.ScanStatus to);
+
+    /**
+     * Return scans orphaned by a crashed worker to the queue, unless they have used up their attempts
+     */
+    @Modifying
+    @Query("UPDATE ScanQueue s SET s.status = :to " +
+            "WHERE s.status IN :from AND s.startedAt < :cutoff AND s.attempts < :maxAttempts")
+    int requeueStale(@Param("from") List<ScanQueue.ScanStatus> from,
+                     @Param("to") ScanQueue.ScanStatus to,
+                     @Param("cutoff") LocalDateTime cutoff,
+                     @Param("maxAttempts") int maxAttempts);
+
+    /**
+     * Fail orphaned scans that have been attempted {@code maxAttempts} times: each attempt took its worker down
+     */
+    @Modifying
+    @Query("UPDATE ScanQueue s SET s.status = :to, s.errorMessage = :error, s.completedAt = :now " +
+            "WHERE s.status IN :from AND s.startedAt < :cutoff AND s.attempts >= :maxAttempts")
+    int failStale(@Param("from") List<ScanQueue.ScanStatus> from,
+                  @Param("to") ScanQueue.ScanStatus to,
+                  @Param("cutoff") LocalDateTime cutoff,
+                  @Param("maxAttempts") int maxAttempts,
+                  @Param("error") String error,
+                  @Param("now") LocalDateTime now);
+}
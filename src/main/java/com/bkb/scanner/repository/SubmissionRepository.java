@@ -1,5 +1,6 @@
 package com.bkb.scanner.repository;
 
+import com.bkb.scanner.entity.CaseDocumentLink;
 import com.bkb.scanner.entity.Submission;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Repository;
@@ -10,6 +11,8 @@ import java.util.Optional;
 @Repository
 public interface SubmissionRepository extends JpaRepository<Submission, Long> {
     Optional<Submission> findBySubmissionId(String submissionId);
+    Optional<Submission> findBySubmissionIdAndDocumentLink_CaseEntity_Id(String submissionId, Long caseId);
+    Optional<Submission> findFirstByDocumentLinkOrderByIdDesc(CaseDocumentLink documentLink);
     List<Submission> findByStatus(Submission.DocumentStatus status);
     boolean existsBySubmissionId(String submissionId);
 }
\ No newline at end of file
@@ -0,0 +1,38 @@
+package com.bkb.scanner.repository;
+
+import com.bkb.scanner.entity.UploadSession;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface UploadSessionRepository extends JpaRepository<UploadSession, Long> {
+    Optional<UploadSession> findByUploadId(String uploadId);
+
+    /**
+     * Lock the session row until the transaction ends, so completion and abort run once per session
+     * and wait for chunks that are still being stored
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT s FROM UploadSession s WHERE s.uploadId = :uploadId")
+    Optional<UploadSession> findForUpdateByUploadId(@Param("uploadId") String uploadId);
+
+    /**
+     * Push the expiry of a session that is still in progress. The row stays locked until the
+     * transaction ends, so a completion cannot start assembling until the chunk is in place.
+     * Returns 0 when the session was completed, aborted or expired in the meantime.
+     */
+    @Modifying
+    @Query("UPDATE UploadSession s SET s.expiresAt = :expiresAt WHERE s.id = :id AND s.status = :status")
+    int extendIfInStatus(@Param("id") Long id, @Param("status") UploadSession.UploadStatus status,
+                         @Param("expiresAt") LocalDateTime expiresAt);
+    List<UploadSession> findByStatusAndExpiresAtBefore(UploadSession.UploadStatus status, LocalDateTime cutoff);
+}
@@ -2,6 +2,7 @@ package com.bkb.scanner.security;
 
 import com.bkb.scanner.entity.User;
 import com.bkb.scanner.repository.UserRepository;
+import io.jsonwebtoken.Claims;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.security.core.userdetails.UserDetails;
@@ -15,6 +16,7 @@ import org.springframework.stereotype.Service;
 public class CustomUserDetailsService implements UserDetailsService {
 
     private final UserRepository userRepository;
+    private final UserStatusCache userStatusCache;
 
     @Override
     public UserDetails loadUserByUsername(String email) throws UsernameNotFoundException {
@@ -43,4 +45,30 @@ public class CustomUserDetailsService implements UserDetailsService {
 
         return user;
     }
-}
\ No newline at end of file
+
+    /**
+     * Build the principal from verified access-token claims without loading the user.
+     * Tokens that do not carry the identity claims (refresh tokens, older tokens) fall
+     * back to {@link #loadUserByUsername(String)}.
+     */
+    public UserDetails loadUserFromClaims(Claims claims) throws UsernameNotFoundException {
+        String userId = claims.get("userId", String.class);
+        String role = claims.get("role", String.class);
+        String name = claims.get("name", String.class);
+        if (userId == null || role == null || name == null) {
+            return loadUserByUsername(claims.getSubject());
+        }
+
+        if (!userStatusCache.isActive(userId)) {
+            throw new UsernameNotFoundException("User account is inactive: " + userId);
+        }
+
+        // Transient principal: never persisted or attached to an entity
+        User user = new User();
+        user.setUserId(userId);
+        user.setEmail(claims.getSubject());
+        user.setName(name);
+        user.setRole(User.UserRole.valueOf(role));
+        return user;
+    }
+}
@@ -1,5 +1,6 @@
 package com.bkb.scanner.security;
 
+import io.jsonwebtoken.Claims;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -12,13 +13,11 @@ import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
 import org.springframework.stereotype.Component;
-import org.springframework.util.AntPathMatcher;
 import org.springframework.util.StringUtils;
 import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
-import java.util.Arrays;
-import java.util.List;
+import java.util.Optional;
 
 @Component
 @RequiredArgsConstructor
@@ -27,24 +26,11 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
     private final JwtUtil jwtUtil;
     private final CustomUserDetailsService userDetailsService;
-    private final AntPathMatcher pathMatcher = new AntPathMatcher();
+    private final PublicEndpoints publicEndpoints;
 
     @Value("${app.demo-mode:false}")
     private boolean demoMode;
 
-    // Define public endpoints that don't need authentication
-    private static final List<String> PUBLIC_ENDPOINTS = Arrays.asList(
-            "/health",
-            "/api/health",
-            "/actuator/**",
-            "/api/auth/**",
-            "/error",
-            "/swagger-ui/**",
-            "/v3/api-docs/**",
-            "/swagger-resources/**",
-            "/api/demo/**"
-    );
-
     @Override
     protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response,
                                     FilterChain filterChain) throws ServletException, IOException {
@@ -52,7 +38,7 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         String requestPath = request.getServletPath();
 
         // Skip authentication for public endpoints
-        if (isPublicEndpoint(requestPath)) {
+        if (publicEndpoints.isAnonymous(requestPath)) {
             log.debug("Skipping authentication for public endpoint: {}", requestPath);
             filterChain.doFilter(request, response);
             return;
@@ -72,9 +58,10 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
                 }
             }
 
-            if (StringUtils.hasText(jwt) && jwtUtil.validateToken(jwt)) {
-                String userEmail = jwtUtil.getUserEmailFromToken(jwt);
-                UserDetails userDetails = userDetailsService.loadUserByUsername(userEmail);
+            Optional<Claims> claims = StringUtils.hasText(jwt) ? jwtUtil.verify(jwt) : Optional.empty();
+            if (claims.isPresent()) {
+                String userEmail = claims.get().getSubject();
+                UserDetails userDetails = userDetailsService.loadUserFromClaims(claims.get());
 
                 UsernamePasswordAuthenticationToken authentication =
                         new UsernamePasswordAuthenticationToken(userDetails, null, userDetails.getAuthorities());
@@ -90,11 +77,6 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         filterChain.doFilter(request, response);
     }
 
-    private boolean isPublicEndpoint(String requestPath) {
-        return PUBLIC_ENDPOINTS.stream()
-                .anyMatch(pattern -> pathMatcher.match(pattern, requestPath));
-    }
-
     private String getJwtFromRequest(HttpServletRequest request) {
         String bearerToken = request.getHeader("Authorization");
         if (StringUtils.hasText(bearerToken) && bearerToken.startsWith("Bearer ")) {
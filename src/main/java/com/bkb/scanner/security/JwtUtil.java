@@ -1,8 +1,13 @@
 package com.bkb.scanner.security;
 
 import com.bkb.scanner.entity.User;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.google.common.hash.Hashing;
 import io.jsonwebtoken.*;
 import io.jsonwebtoken.security.Keys;
+import jakarta.annotation.PostConstruct;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
@@ -12,6 +17,7 @@ import java.nio.charset.StandardCharsets;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.Optional;
 import java.util.function.Function;
 
 @Component
@@ -27,9 +33,48 @@ public class JwtUtil {
     @Value("${jwt.refresh-expiration:604800000}") // 7 days default
     private Long refreshExpiration;
 
+    @Value("${jwt.cache.max-size:10000}")
+    private long verifiedCacheSize;
+
+    // Built once: the key and the parser are immutable and safe to share between request threads
+    private SecretKey signingKey;
+    private JwtParser parser;
+
+    // SHA-256 of the compact token -> its verified claims, kept until the token expires
+    private Cache<String, Claims> verifiedTokens;
+
+    @PostConstruct
+    void init() {
+        signingKey = Keys.hmacShaKeyFor(secret.getBytes(StandardCharsets.UTF_8));
+        parser = Jwts.parserBuilder()
+                .setSigningKey(signingKey)
+                .build();
+        verifiedTokens = Caffeine.newBuilder()
+                .maximumSize(verifiedCacheSize)
+                .expireAfter(new Expiry<String, Claims>() {
+                    @Override
+                    public long expireAfterCreate(String digest, Claims claims, long currentTime) {
+                        return Math.max(0, claims.getExpiration().getTime() - System.currentTimeMillis())
+                                * 1_000_000L;
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(String digest, Claims claims, long currentTime,
+                                                  long currentDuration) {
+                        return currentDuration;
+                    }
+
+                    @Override
+                    public long expireAfterRead(String digest, Claims claims, long currentTime,
+                                                long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .build();
+    }
+
     private SecretKey getSigningKey() {
-        byte[] keyBytes = secret.getBytes(StandardCharsets.UTF_8);
-        return Keys.hmacShaKeyFor(keyBytes);
+        return signingKey;
     }
 
     public String generateToken(User user) {
@@ -60,13 +105,27 @@ public class JwtUtil {
                 .compact();
     }
 
-    public Boolean validateToken(String token) {
+    /**
+     * Verify a token and return its claims, parsing it at most once for its whole lifetime.
+     * Later calls with the same token are answered from the verified-token cache.
+     */
+    public Optional<Claims> verify(String token) {
+        if (token == null || token.isEmpty()) {
+            return Optional.empty();
+        }
+
+        String digest = Hashing.sha256().hashString(token, StandardCharsets.UTF_8).toString();
+        Claims cached = verifiedTokens.getIfPresent(digest);
+        if (cached != null && cached.getExpiration().after(new Date())) {
+            return Optional.of(cached);
+        }
+
         try {
-            Jwts.parserBuilder()
-                    .setSigningKey(getSigningKey())
-                    .build()
-                    .parseClaimsJws(token);
-            return true;
+            Claims claims = parser.parseClaimsJws(token).getBody();
+            if (claims.getExpiration() != null) {
+                verifiedTokens.put(digest, claims);
+            }
+            return Optional.of(claims);
         } catch (ExpiredJwtException e) {
             log.error("JWT token has expired: {}", e.getMessage());
         } catch (UnsupportedJwtException e) {
@@ -78,7 +137,11 @@ public class JwtUtil {
         } catch (IllegalArgumentException e) {
             log.error("JWT token is invalid: {}", e.getMessage());
         }
-        return false;
+        return Optional.empty();
+    }
+
+    public Boolean validateToken(String token) {
+        return verify(token).isPresent();
     }
 
     public String getUserEmailFromToken(String token) {
@@ -105,11 +168,7 @@ public class JwtUtil {
     }
 
     private Claims getAllClaimsFromToken(String token) {
-        return Jwts.parserBuilder()
-                .setSigningKey(getSigningKey())
-                .build()
-                .parseClaimsJws(token)
-                .getBody();
+        return verify(token).orElseThrow(() -> new JwtException("Invalid JWT token"));
     }
 
     public Boolean isTokenExpired(String token) {
@@ -0,0 +1,104 @@
+package com.bkb.scanner.security;
+
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.security.web.util.matcher.RequestMatcher;
+import org.springframework.stereotype.Component;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Single source of truth for the endpoints that do not require authentication, shared by
+ * {@link com.bkb.scanner.config.SecurityConfig} and {@link JwtAuthenticationFilter}.
+ * <p>
+ * Paths are servlet-relative (without the /api context path). Patterns are either exact
+ * paths or a prefix ending in {@code /**}; they are compiled into hash sets at startup, so
+ * a lookup costs one probe per path segment instead of a pattern match per rule.
+ */
+@Component
+public class PublicEndpoints {
+
+    /**
+     * Never need a principal: the JWT filter skips them entirely
+     */
+    private static final List<String> ANONYMOUS = List.of(
+            "/health",
+            "/public/**",
+            "/actuator/**",
+            "/error",
+            "/swagger-ui/**",
+            "/v3/api-docs/**",
+            "/swagger-resources/**",
+            "/mockcases/**",
+            "/mockparties/**"
+    );
+
+    /**
+     * Open to everyone, but a bearer token is still honoured when present (e.g. /auth/me, WebSocket handshake)
+     */
+    private static final List<String> OPTIONAL_AUTHENTICATION = List.of(
+            "/auth/**",
+            "/ws/**"
+    );
+
+    private final CompiledPatterns anonymous = new CompiledPatterns(ANONYMOUS);
+    private final CompiledPatterns permitted = new CompiledPatterns(ANONYMOUS, OPTIONAL_AUTHENTICATION);
+
+    /**
+     * True when the JWT filter does not need to look at the request at all
+     */
+    public boolean isAnonymous(String servletPath) {
+        return anonymous.matches(servletPath);
+    }
+
+    public boolean isPermitted(String servletPath) {
+        return permitted.matches(servletPath);
+    }
+
+    public RequestMatcher permittedRequests() {
+        return request -> isPermitted(servletPath(request));
+    }
+
+    private static String servletPath(HttpServletRequest request) {
+        String path = request.getServletPath();
+        return path.isEmpty() && request.getPathInfo() != null ? request.getPathInfo() : path;
+    }
+
+    private static final class CompiledPatterns {
+
+        private final Set<String> exact = new HashSet<>();
+        private final Set<String> prefixes = new HashSet<>();
+
+        @SafeVarargs
+        CompiledPatterns(List<String>... patternLists) {
+            for (List<String> patterns : patternLists) {
+                for (String pattern : patterns) {
+                    if (pattern.endsWith("/**")) {
+                        prefixes.add(pattern.substring(0, pattern.length() - 3));
+                    } else if (pattern.contains("*")) {
+                        throw new IllegalArgumentException("Unsupported public endpoint pattern: " + pattern);
+                    } else {
+                        exact.add(pattern);
+                    }
+                }
+            }
+        }
+
+        boolean matches(String path) {
+            if (path == null || path.isEmpty()) {
+                return false;
+            }
+            if (exact.contains(path) || prefixes.contains(path)) {
+                return true;
+            }
+            // "/a/b/c" probes "/a" and "/a/b" as "/**" prefixes
+            for (int slash = path.indexOf('/', 1); slash > 0; slash = path.indexOf('/', slash + 1)) {
+                if (prefixes.contains(path.substring(0, slash))) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+}
@@ -0,0 +1,51 @@
+package com.bkb.scanner.security;
+
+import com.bkb.scanner.entity.User;
+import com.bkb.scanner.repository.UserRepository;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.LoadingCache;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * Short-lived cache of whether a user may still authenticate. Claims-based principals
+ * are checked against it instead of loading the user on every request; a deactivation
+ * takes effect immediately on this node through {@link #evict(String)} and everywhere
+ * else within {@code security.user-status.ttl-seconds}.
+ */
+@Component
+@RequiredArgsConstructor
+public class UserStatusCache {
+
+    private final UserRepository userRepository;
+
+    @Value("${security.user-status.ttl-seconds:30}")
+    private long ttlSeconds;
+
+    @Value("${security.user-status.max-size:10000}")
+    private long maxSize;
+
+    private LoadingCache<String, Boolean> activeUsers;
+
+    @PostConstruct
+    void init() {
+        activeUsers = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(Duration.ofSeconds(ttlSeconds))
+                .build(userId -> userRepository.findByUserId(userId)
+                        .map(User::isEnabled)
+                        .orElse(false));
+    }
+
+    public boolean isActive(String userId) {
+        return activeUsers.get(userId);
+    }
+
+    public void evict(String userId) {
+        activeUsers.invalidate(userId);
+    }
+}
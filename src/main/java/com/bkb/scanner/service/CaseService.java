@@ -3,15 +3,25 @@ package com.bkb.scanner.service;
 import com.bkb.scanner.dto.*;
 import com.bkb.scanner.entity.*;
 import com.bkb.scanner.repository.*;
+import com.bkb.scanner.exception.BadRequestException;
+import com.bkb.scanner.exception.PreconditionFailedException;
 import com.bkb.scanner.exception.ResourceNotFoundException;
+import com.bkb.scanner.service.audit.ActivityLogWriter;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.util.Base64;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
 
 @Service
@@ -23,22 +33,90 @@ public class CaseService {
     private final CaseRepository caseRepository;
     private final AccountRepository accountRepository;
     private final SubmissionRepository submissionRepository;
+    private final CasePartyLinkRepository casePartyLinkRepository;
+    private final CaseDocumentLinkRepository caseDocumentLinkRepository;
+    private final ActivityLogRepository activityLogRepository;
+    private final ActivityLogWriter activityLogWriter;
+    private final CaseChecklistStatusRepository checklistStatusRepository;
+    private final ChecklistService checklistService;
+    private final CaseUpdatePublisher caseUpdatePublisher;
+
+    @Value("${app.cases.page.default-size:50}")
+    private int defaultPageSize;
+
+    @Value("${app.cases.page.max-size:200}")
+    private int maxPageSize;
 
     public List<Case> getAllCases(Case.CaseStatus status, String assignedTo, Case.RiskLevel riskLevel) {
-        // Simple implementation - you can enhance with Specifications
-        List<Case> cases = caseRepository.findAll();
+        return caseRepository.findAll(
+                CaseSpecifications.withFilters(status, assignedTo, riskLevel),
+                CaseSpecifications.KEYSET_SORT
+        );
+    }
 
-        if (status != null) {
-            cases = cases.stream().filter(c -> c.getStatus() == status).toList();
-        }
-        if (assignedTo != null) {
-            cases = cases.stream().filter(c -> assignedTo.equals(c.getAssignedTo())).toList();
-        }
-        if (riskLevel != null) {
-            cases = cases.stream().filter(c -> c.getRiskLevel() == riskLevel).toList();
+    @Transactional(readOnly = true)
+    public List<CaseSummary> getCaseSummaries(Case.CaseStatus status, String assignedTo, Case.RiskLevel riskLevel) {
+        return caseRepository.findSummaries(status, assignedTo, riskLevel);
+    }
+
+    /**
+     * Required, submitted and verified checklist counts per case, read from the materialized
+     * csob_case_checklist_status rows with the same filters as the case summaries.
+     */
+    @Transactional(readOnly = true)
+    public List<ChecklistCompletion> getChecklistCompletion(Case.CaseStatus status, String assignedTo,
+                                                            Case.RiskLevel riskLevel) {
+        return checklistStatusRepository.summarizeCompletion(status, assignedTo, riskLevel);
+    }
+
+    /**
+     * Keyset-paginated case listing ordered by (updatedAt, id) descending.
+     * The returned cursor encodes the last row's position, so later pages stay stable
+     * and cost the same regardless of how deep the client scrolls.
+     */
+    @Transactional(readOnly = true)
+    public CursorPage<Case> getCasesPage(Case.CaseStatus status, String assignedTo, Case.RiskLevel riskLevel,
+                                         String cursor, Integer size) {
+        int pageSize = resolvePageSize(size);
+
+        Specification<Case> spec = CaseSpecifications.withFilters(status, assignedTo, riskLevel);
+        if (cursor != null && !cursor.isBlank()) {
+            CaseCursor position = decodeCursor(cursor);
+            spec = spec.and(CaseSpecifications.after(position.updatedAt(), position.id()));
         }
 
-        return cases;
+        // Fetch one extra row to learn whether another page exists without a count query
+        List<Case> rows = caseRepository.findBy(spec, query -> query
+                .sortBy(CaseSpecifications.KEYSET_SORT)
+                .limit(pageSize + 1)
+                .all());
+
+        boolean hasMore = rows.size() > pageSize;
+        List<Case> items = hasMore ? rows.subList(0, pageSize) : rows;
+        String nextCursor = hasMore ? encodeCursor(items.get(items.size() - 1)) : null;
+
+        return new CursorPage<>(items, nextCursor, hasMore, pageSize);
+    }
+
+    /**
+     * Newest-first keyset page of a case's activity history. Entries appear once ActivityLogWriter
+     * has drained them from the outbox, normally within one poll interval.
+     */
+    @Transactional(readOnly = true)
+    public CursorPage<ActivityEntry> getActivities(String caseId, String cursor, Integer size) {
+        int pageSize = resolvePageSize(size);
+        CaseHeader header = getCaseHeader(caseId);
+        Long beforeId = cursor != null && !cursor.isBlank() ? decodeActivityCursor(cursor) : null;
+
+        // One extra row tells whether another page exists
+        List<ActivityEntry> rows = activityLogRepository.findPage(header.id(), beforeId,
+                PageRequest.of(0, pageSize + 1));
+
+        boolean hasMore = rows.size() > pageSize;
+        List<ActivityEntry> items = hasMore ? rows.subList(0, pageSize) : rows;
+        String nextCursor = hasMore ? encodeActivityCursor(items.get(items.size() - 1).id()) : null;
+
+        return new CursorPage<>(items, nextCursor, hasMore, pageSize);
     }
 
     public Case getCaseByCaseId(String caseId) {
@@ -59,20 +137,25 @@ public class CaseService {
         entityData.setEntityType(dto.getEntityType());
         newCase.setEntityData(entityData);
 
-        // Add initial activity
-        ActivityLog activity = new ActivityLog();
-        activity.setActivityId("ACT-" + UUID.randomUUID());
-        activity.setCaseEntity(newCase);
-        activity.setTimestamp(LocalDateTime.now());
-        activity.setActor(currentUser.getName());
-        activity.setAction("Case Created");
-        newCase.getActivities().add(activity);
+        Case savedCase = caseRepository.save(newCase);
 
-        return caseRepository.save(newCase);
+        // Add initial activity
+        ActivityOutbox activity = newActivity(savedCase.getId(), savedCase.getCaseId(), currentUser,
+                LocalDateTime.now(), "Case Created");
+        activity.setEntityType("CASE");
+        activity.setEntityId(savedCase.getCaseId());
+        activityLogWriter.append(activity);
+
+        caseUpdatePublisher.publishAfterCommit(savedCase, activity.getAction());
+        checklistService.syncChecklistStatus(savedCase);
+        return savedCase;
     }
 
-    public Case updateCase(String caseId, Case caseUpdate, User currentUser) {
+    public Case updateCase(String caseId, Case caseUpdate, User currentUser, Long expectedVersion) {
         Case existingCase = getCaseByCaseId(caseId);
+        checkVersion("Case " + caseId, existingCase.getVersion(), expectedVersion);
+        Case.CaseStatus previousStatus = existingCase.getStatus();
+        String previousAssignedTo = existingCase.getAssignedTo();
 
         // Update fields as needed
         if (caseUpdate.getStatus() != null) {
@@ -85,75 +168,103 @@ public class CaseService {
             existingCase.setAssignedTo(caseUpdate.getAssignedTo());
         }
 
-        // Add activity log
-        ActivityLog activity = new ActivityLog();
-        activity.setActivityId("ACT-" + UUID.randomUUID());
-        activity.setCaseEntity(existingCase);
-        activity.setTimestamp(LocalDateTime.now());
-        activity.setActor(currentUser.getName());
-        activity.setAction("Case Updated");
-        existingCase.getActivities().add(activity);
+        Case savedCase = caseRepository.save(existingCase);
 
-        return caseRepository.save(existingCase);
+        // Add activity log
+        ActivityOutbox activity = newActivity(savedCase.getId(), caseId, currentUser, LocalDateTime.now(),
+                "Case Updated");
+        activity.setEntityType("CASE");
+        activity.setEntityId(caseId);
+        activityLogWriter.append(activity);
+
+        caseUpdatePublisher.publishAfterCommit(caseId, previousStatus, previousAssignedTo,
+                savedCase.getStatus(), savedCase.getAssignedTo(), activity.getAction());
+        if (caseUpdate.getRiskLevel() != null) {
+            // Risk-based requirements depend on the risk level
+            checklistService.syncChecklistStatus(savedCase);
+        }
+        return savedCase;
     }
 
-    public Case updateCaseStatus(String caseId, UpdateCaseStatusDto dto, User currentUser) {
-        Case existingCase = getCaseByCaseId(caseId);
-        existingCase.setStatus(dto.getStatus());
+    /*
+     * The commands below touch only the rows they change: one UPDATE on the case row plus the child
+     * INSERT/UPDATE and an activity outbox row, with children attached to a case reference instead of
+     * the loaded aggregate. They answer with a CaseDelta rather than the whole case.
+     *
+     * expectedVersion is the client's If-Match precondition (null when absent): the case version for
+     * case-level commands, the submission/account version for commands addressed to those. The delta
+     * always carries the case version, plus the version of the submission or account it wrote.
+     */
+
+    public CaseDelta updateCaseStatus(String caseId, UpdateCaseStatusDto dto, User currentUser,
+                                      Long expectedVersion) {
+        CaseHeader header = getCaseHeader(caseId);
+        LocalDateTime now = LocalDateTime.now();
+        if (caseRepository.updateStatus(header.id(), dto.getStatus(), now, expectedVersion) == 0) {
+            throw versionMismatch("Case " + caseId, expectedVersion);
+        }
 
-        // Add activity log
-        ActivityLog activity = new ActivityLog();
-        activity.setActivityId("ACT-" + UUID.randomUUID());
-        activity.setCaseEntity(existingCase);
-        activity.setTimestamp(LocalDateTime.now());
-        activity.setActor(currentUser.getName());
-        activity.setAction("Status Changed to " + dto.getStatus());
+        ActivityOutbox activity = newActivity(header.id(), caseId, currentUser, now,
+                "Status Changed to " + dto.getStatus());
+        activity.setEntityType("CASE");
+        activity.setEntityId(caseId);
         activity.setDetails(dto.getComment());
-        existingCase.getActivities().add(activity);
-
-        return caseRepository.save(existingCase);
+        activity.setPreviousValue(header.status().name());
+        activity.setNewValue(dto.getStatus().name());
+        activityLogWriter.append(activity);
+
+        caseUpdatePublisher.publishAfterCommit(caseId, header.status(), header.assignedTo(),
+                dto.getStatus(), header.assignedTo(), activity.getAction());
+        return delta(header, dto.getStatus(), caseRepository.findVersionById(header.id()), null, activity,
+                Map.of("status", dto.getStatus()));
     }
 
-    public Case linkPartyToCase(String caseId, LinkPartyDto dto, User currentUser) {
-        Case existingCase = getCaseByCaseId(caseId);
+    public CaseDelta linkPartyToCase(String caseId, LinkPartyDto dto, User currentUser, Long expectedVersion) {
+        CaseHeader header = getCaseHeader(caseId);
+        LocalDateTime now = LocalDateTime.now();
+        long version = touchCase(header, now, expectedVersion);
 
         CasePartyLink link = new CasePartyLink();
-        link.setCaseEntity(existingCase);
+        link.setCaseEntity(caseRepository.getReferenceById(header.id()));
         link.setPartyId(dto.getPartyId());
         link.setRelationshipType(dto.getRelationshipType());
         link.setOwnershipPercentage(dto.getOwnershipPercentage());
-        link.setStartDate(LocalDate.now());  // Added LocalDate import for this
-        link.setIsPrimary(existingCase.getRelatedPartyLinks().isEmpty());
-
-        existingCase.getRelatedPartyLinks().add(link);
+        link.setStartDate(LocalDate.now());
+        link.setIsPrimary(!casePartyLinkRepository.existsByCaseEntity_Id(header.id()));
+        casePartyLinkRepository.save(link);
 
-        // Add activity log
-        ActivityLog activity = new ActivityLog();
-        activity.setActivityId("ACT-" + UUID.randomUUID());
-        activity.setCaseEntity(existingCase);
-        activity.setTimestamp(LocalDateTime.now());
-        activity.setActor(currentUser.getName());
-        activity.setAction("Party Linked");
+        ActivityOutbox activity = newActivity(header.id(), caseId, currentUser, now, "Party Linked");
+        activity.setEntityType("PARTY");
+        activity.setEntityId(dto.getPartyId());
         activity.setDetails("Linked party " + dto.getPartyId() + " as " + dto.getRelationshipType());
-        existingCase.getActivities().add(activity);
+        activityLogWriter.append(activity);
 
-        return caseRepository.save(existingCase);
+        caseUpdatePublisher.publishAfterCommit(caseId, header.status(), header.assignedTo(), activity.getAction());
+        // A new party brings its own individual-document requirements, so the checklist is rebuilt
+        checklistService.syncChecklistStatus(caseId);
+
+        Map<String, Object> changes = new LinkedHashMap<>();
+        changes.put("partyId", link.getPartyId());
+        changes.put("relationshipType", link.getRelationshipType());
+        changes.put("isPrimary", link.getIsPrimary());
+        return delta(header, header.status(), version, null, activity, changes);
     }
 
-    public Case addSubmission(String caseId, String requirementId, CreateSubmissionDto dto, User currentUser) {
-        Case existingCase = getCaseByCaseId(caseId);
+    public CaseDelta addSubmission(String caseId, String requirementId, CreateSubmissionDto dto, User currentUser,
+                                   Long expectedVersion) {
+        CaseHeader header = getCaseHeader(caseId);
+        LocalDateTime now = LocalDateTime.now();
+        long version = touchCase(header, now, expectedVersion);
 
         // Find or create document link
-        CaseDocumentLink docLink = existingCase.getDocumentLinks().stream()
-                .filter(dl -> dl.getRequirementId().equals(requirementId))
-                .findFirst()
+        CaseDocumentLink docLink = caseDocumentLinkRepository
+                .findFirstByCaseEntity_IdAndRequirementIdOrderByIdAsc(header.id(), requirementId)
                 .orElseGet(() -> {
                     CaseDocumentLink newLink = new CaseDocumentLink();
                     newLink.setLinkId("LNK-" + UUID.randomUUID());
-                    newLink.setCaseEntity(existingCase);
+                    newLink.setCaseEntity(caseRepository.getReferenceById(header.id()));
                     newLink.setRequirementId(requirementId);
-                    existingCase.getDocumentLinks().add(newLink);
-                    return newLink;
+                    return caseDocumentLinkRepository.save(newLink);
                 });
 
         // Create submission
@@ -170,83 +281,88 @@ public class CaseService {
 
         // Add initial comment if provided
         if (dto.getComment() != null && !dto.getComment().isEmpty()) {
-            Comment comment = new Comment();
-            comment.setCommentId("COM-" + UUID.randomUUID());
-            comment.setSubmission(submission);
-            comment.setAuthor(currentUser.getName());
-            comment.setAuthorRole(currentUser.getRole().name());
-            comment.setTimestamp(LocalDateTime.now());
-            comment.setText(dto.getComment());
-            submission.getComments().add(comment);
+            submission.getComments().add(newComment(submission, currentUser, dto.getComment(), now));
         }
 
-        docLink.getSubmissions().add(submission);
+        submissionRepository.save(submission);
 
-        // Add activity log
-        ActivityLog activity = new ActivityLog();
-        activity.setActivityId("ACT-" + UUID.randomUUID());
-        activity.setCaseEntity(existingCase);
-        activity.setTimestamp(LocalDateTime.now());
-        activity.setActor(currentUser.getName());
-        activity.setAction("Document Submitted");
+        ActivityOutbox activity = newActivity(header.id(), caseId, currentUser, now, "Document Submitted");
+        activity.setEntityType("SUBMISSION");
+        activity.setEntityId(submission.getSubmissionId());
         activity.setDetails("Submitted document for requirement " + requirementId);
-        existingCase.getActivities().add(activity);
+        activityLogWriter.append(activity);
+
+        caseUpdatePublisher.publishAfterCommit(caseId, header.status(), header.assignedTo(), activity.getAction());
+        // The new submission is the latest for its requirement
+        checklistService.recordSubmissionStatus(caseId, requirementId, submission);
 
-        return caseRepository.save(existingCase);
+        Map<String, Object> changes = new LinkedHashMap<>();
+        changes.put("requirementId", requirementId);
+        changes.put("linkId", docLink.getLinkId());
+        changes.put("submissionStatus", submission.getStatus());
+        return delta(header, header.status(), version, submission.getVersion(), activity, changes);
     }
 
-    public Case updateSubmission(String caseId, String submissionId, UpdateSubmissionDto dto, User currentUser) {
-        Case existingCase = getCaseByCaseId(caseId);
+    public CaseDelta updateSubmission(String caseId, String submissionId, UpdateSubmissionDto dto, User currentUser,
+                                      Long expectedVersion) {
+        CaseHeader header = getCaseHeader(caseId);
+        LocalDateTime now = LocalDateTime.now();
 
-        // Find submission
-        Submission submission = existingCase.getDocumentLinks().stream()
-                .flatMap(dl -> dl.getSubmissions().stream())
-                .filter(s -> s.getSubmissionId().equals(submissionId))
-                .findFirst()
+        Submission submission = submissionRepository
+                .findBySubmissionIdAndDocumentLink_CaseEntity_Id(submissionId, header.id())
                 .orElseThrow(() -> new ResourceNotFoundException("Submission not found: " + submissionId));
+        checkVersion("Submission " + submissionId, submission.getVersion(), expectedVersion);
 
+        Submission.DocumentStatus previousStatus = submission.getStatus();
         submission.setStatus(dto.getStatus());
 
         // Update review timestamps
         if (dto.getStatus() == Submission.DocumentStatus.PENDING_COMPLIANCE_VERIFICATION) {
-            submission.setCheckerReviewedAt(LocalDateTime.now());
+            submission.setCheckerReviewedAt(now);
             submission.setCheckerReviewedBy(currentUser.getName());
         } else if (dto.getStatus() == Submission.DocumentStatus.VERIFIED) {
-            submission.setComplianceReviewedAt(LocalDateTime.now());
+            submission.setComplianceReviewedAt(now);
             submission.setComplianceReviewedBy(currentUser.getName());
         }
 
         // Add comment if provided
         if (dto.getComment() != null && !dto.getComment().isEmpty()) {
-            Comment comment = new Comment();
-            comment.setCommentId("COM-" + UUID.randomUUID());
-            comment.setSubmission(submission);
-            comment.setAuthor(currentUser.getName());
-            comment.setAuthorRole(currentUser.getRole().name());
-            comment.setTimestamp(LocalDateTime.now());
-            comment.setText(dto.getComment());
-            submission.getComments().add(comment);
+            submission.getComments().add(newComment(submission, currentUser, dto.getComment(), now));
         }
 
-        // Add activity log
-        ActivityLog activity = new ActivityLog();
-        activity.setActivityId("ACT-" + UUID.randomUUID());
-        activity.setCaseEntity(existingCase);
-        activity.setTimestamp(LocalDateTime.now());
-        activity.setActor(currentUser.getName());
-        activity.setAction("Document Reviewed");
+        // Flushed here so a concurrent review fails this request rather than overwriting it
+        submissionRepository.saveAndFlush(submission);
+        long version = touchCase(header, now, null);
+
+        ActivityOutbox activity = newActivity(header.id(), caseId, currentUser, now, "Document Reviewed");
+        activity.setEntityType("SUBMISSION");
+        activity.setEntityId(submissionId);
         activity.setDetails("Set submission " + submissionId + " to " + dto.getStatus());
-        existingCase.getActivities().add(activity);
+        activity.setPreviousValue(previousStatus != null ? previousStatus.name() : null);
+        activity.setNewValue(dto.getStatus().name());
+        activityLogWriter.append(activity);
 
-        return caseRepository.save(existingCase);
+        caseUpdatePublisher.publishAfterCommit(caseId, header.status(), header.assignedTo(), activity.getAction());
+
+        // Only the latest submission of a requirement drives its checklist row
+        CaseDocumentLink docLink = submission.getDocumentLink();
+        checklistService.recordSubmissionStatus(caseId, docLink.getRequirementId(),
+                submissionRepository.findFirstByDocumentLinkOrderByIdDesc(docLink).orElse(null));
+
+        Map<String, Object> changes = new LinkedHashMap<>();
+        changes.put("requirementId", docLink.getRequirementId());
+        changes.put("submissionStatus", submission.getStatus());
+        return delta(header, header.status(), version, submission.getVersion(), activity, changes);
     }
 
-    public Case createAccount(String caseId, CreateAccountDto dto, User currentUser) {
-        Case existingCase = getCaseByCaseId(caseId);
+    public CaseDelta createAccount(String caseId, CreateAccountDto dto, User currentUser, Long expectedVersion) {
+        CaseHeader header = getCaseHeader(caseId);
+        LocalDateTime now = LocalDateTime.now();
+        long version = touchCase(header, now, expectedVersion);
 
         Account account = new Account();
         account.setAccountId("ACC-" + UUID.randomUUID());
-        account.setCaseEntity(existingCase);
+        account.setCaseEntity(caseRepository.getReferenceById(header.id()));
         account.setAccountType(dto.getAccountType());
         account.setCurrency(dto.getCurrency());
         account.setStatus("Proposed");
@@ -258,51 +374,168 @@ public class CaseService {
             account.setPrimaryHolderId(dto.getAuthorizedSignatories().get(0));
         }
 
-        existingCase.getAccounts().add(account);
+        accountRepository.save(account);
 
-        // Add activity log
-        ActivityLog activity = new ActivityLog();
-        activity.setActivityId("ACT-" + UUID.randomUUID());
-        activity.setCaseEntity(existingCase);
-        activity.setTimestamp(LocalDateTime.now());
-        activity.setActor(currentUser.getName());
-        activity.setAction("Account Proposed");
+        ActivityOutbox activity = newActivity(header.id(), caseId, currentUser, now, "Account Proposed");
+        activity.setEntityType("ACCOUNT");
+        activity.setEntityId(account.getAccountId());
         activity.setDetails("Proposed " + dto.getAccountType());
-        existingCase.getActivities().add(activity);
+        activityLogWriter.append(activity);
 
-        return caseRepository.save(existingCase);
+        caseUpdatePublisher.publishAfterCommit(caseId, header.status(), header.assignedTo(), activity.getAction());
+
+        Map<String, Object> changes = new LinkedHashMap<>();
+        changes.put("accountType", account.getAccountType());
+        changes.put("accountStatus", account.getStatus());
+        return delta(header, header.status(), version, account.getVersion(), activity, changes);
     }
 
-    public Case updateAccountStatus(String caseId, String accountId, UpdateAccountStatusDto dto, User currentUser) {
-        Case existingCase = getCaseByCaseId(caseId);
+    public CaseDelta updateAccountStatus(String caseId, String accountId, UpdateAccountStatusDto dto, User currentUser,
+                                         Long expectedVersion) {
+        CaseHeader header = getCaseHeader(caseId);
+        LocalDateTime now = LocalDateTime.now();
 
-        Account account = existingCase.getAccounts().stream()
-                .filter(a -> a.getAccountId().equals(accountId))
-                .findFirst()
+        Account account = accountRepository.findByAccountIdAndCaseEntity_Id(accountId, header.id())
                 .orElseThrow(() -> new ResourceNotFoundException("Account not found: " + accountId));
+        checkVersion("Account " + accountId, account.getVersion(), expectedVersion);
 
+        String previousStatus = account.getStatus();
         account.setStatus(dto.getStatus());
 
         if ("Active".equals(dto.getStatus())) {
-            account.setActivatedDate(LocalDateTime.now());
+            account.setActivatedDate(now);
             account.setActivatedBy(currentUser.getName());
             account.setAccountNumber("ACC" + System.currentTimeMillis()); // Generate account number
         }
 
-        // Add activity log
-        ActivityLog activity = new ActivityLog();
+        accountRepository.saveAndFlush(account);
+        long version = touchCase(header, now, null);
+
+        ActivityOutbox activity = newActivity(header.id(), caseId, currentUser, now, "Account Status Changed");
+        activity.setEntityType("ACCOUNT");
+        activity.setEntityId(accountId);
+        activity.setDetails("Account " + accountId + " status changed to " + dto.getStatus());
+        activity.setPreviousValue(previousStatus);
+        activity.setNewValue(dto.getStatus());
+        activityLogWriter.append(activity);
+
+        caseUpdatePublisher.publishAfterCommit(caseId, header.status(), header.assignedTo(), activity.getAction());
+
+        Map<String, Object> changes = new LinkedHashMap<>();
+        changes.put("accountStatus", account.getStatus());
+        if (account.getAccountNumber() != null) {
+            changes.put("accountNumber", account.getAccountNumber());
+        }
+        return delta(header, header.status(), version, account.getVersion(), activity, changes);
+    }
+
+    private CaseHeader getCaseHeader(String caseId) {
+        return caseRepository.findHeaderByCaseId(caseId)
+                .orElseThrow(() -> new ResourceNotFoundException("Case not found: " + caseId));
+    }
+
+    /**
+     * Bump the case row for a command that appends to the case, enforcing the client's
+     * precondition if it sent one. Returns the new case version.
+     */
+    private long touchCase(CaseHeader header, LocalDateTime now, Long expectedVersion) {
+        if (caseRepository.touch(header.id(), now, expectedVersion) == 0) {
+            throw versionMismatch("Case " + header.caseId(), expectedVersion);
+        }
+        return caseRepository.findVersionById(header.id());
+    }
+
+    private static void checkVersion(String resource, Long currentVersion, Long expectedVersion) {
+        if (expectedVersion != null && !expectedVersion.equals(currentVersion)) {
+            throw versionMismatch(resource, expectedVersion);
+        }
+    }
+
+    private static PreconditionFailedException versionMismatch(String resource, Long expectedVersion) {
+        return new PreconditionFailedException(resource + " is no longer at version " + expectedVersion);
+    }
+
+    private static ActivityOutbox newActivity(Long caseRowId, String caseId, User currentUser, LocalDateTime now,
+                                              String action) {
+        ActivityOutbox activity = new ActivityOutbox();
         activity.setActivityId("ACT-" + UUID.randomUUID());
-        activity.setCaseEntity(existingCase);
-        activity.setTimestamp(LocalDateTime.now());
+        activity.setCaseRowId(caseRowId);
+        activity.setCaseId(caseId);
+        activity.setTimestamp(now);
         activity.setActor(currentUser.getName());
-        activity.setAction("Account Status Changed");
-        activity.setDetails("Account " + accountId + " status changed to " + dto.getStatus());
-        existingCase.getActivities().add(activity);
+        activity.setActorId(currentUser.getUserId());
+        activity.setActorRole(currentUser.getRole().name());
+        activity.setAction(action);
+        return activity;
+    }
+
+    private Comment newComment(Submission submission, User currentUser, String text, LocalDateTime now) {
+        Comment comment = new Comment();
+        comment.setCommentId("COM-" + UUID.randomUUID());
+        comment.setSubmission(submission);
+        comment.setAuthor(currentUser.getName());
+        comment.setAuthorRole(currentUser.getRole().name());
+        comment.setTimestamp(now);
+        comment.setText(text);
+        return comment;
+    }
+
+    private static CaseDelta delta(CaseHeader header, Case.CaseStatus status, Long version, Long entityVersion,
+                                   ActivityOutbox activity, Map<String, Object> changes) {
+        return CaseDelta.builder()
+                .caseId(header.caseId())
+                .status(status)
+                .version(version)
+                .updatedAt(activity.getTimestamp())
+                .action(activity.getAction())
+                .activityId(activity.getActivityId())
+                .entityType(activity.getEntityType())
+                .entityId(activity.getEntityId())
+                .entityVersion(entityVersion)
+                .changes(changes)
+                .build();
+    }
 
-        return caseRepository.save(existingCase);
+    private int resolvePageSize(Integer size) {
+        if (size == null || size <= 0) {
+            return defaultPageSize;
+        }
+        return Math.min(size, maxPageSize);
+    }
+
+    private String encodeCursor(Case lastCase) {
+        // An empty position stands for a case without updatedAt
+        String raw = (lastCase.getUpdatedAt() != null ? lastCase.getUpdatedAt().toString() : "")
+                + "|" + lastCase.getId();
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private CaseCursor decodeCursor(String cursor) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int separator = raw.lastIndexOf('|');
+            String updatedAt = raw.substring(0, separator);
+            return new CaseCursor(
+                    updatedAt.isEmpty() || "null".equals(updatedAt) ? null : LocalDateTime.parse(updatedAt),
+                    Long.parseLong(raw.substring(separator + 1))
+            );
+        } catch (RuntimeException e) {
+            throw new BadRequestException("Invalid cursor: " + cursor);
+        }
+    }
+
+    private static String encodeActivityCursor(Long id) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(id.toString().getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static Long decodeActivityCursor(String cursor) {
+        try {
+            return Long.parseLong(new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8));
+        } catch (RuntimeException e) {
+            throw new BadRequestException("Invalid cursor: " + cursor);
+        }
     }
 
-    public Case addSubmission(String caseId, String requirementId, CreateSubmissionDto dto) {
-        return addSubmission(caseId, requirementId, dto, null);
+    private record CaseCursor(LocalDateTime updatedAt, Long id) {
     }
 }
\ No newline at end of file
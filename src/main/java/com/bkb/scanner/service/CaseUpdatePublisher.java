@@ -0,0 +1,134 @@
+package com.bkb.scanner.service;
+
+import com.bkb.scanner.dto.CaseUpdateMessage;
+import com.bkb.scanner.entity.Case;
+import com.bkb.scanner.entity.User;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.util.UriUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+/**
+ * Routes case updates only to the sessions interested in them instead of one global topic:
+ * <ul>
+ *     <li>{@code /topic/cases/{caseId}} - anyone viewing the case</li>
+ *     <li>{@code /topic/assignee/{assignedTo}} - the assignee's queue screen (name is URL-encoded)</li>
+ *     <li>{@code /topic/role/{ROLE}/case-updates} - the role whose review queue the case is in</li>
+ * </ul>
+ * When a change moves a case out of a role's queue or away from an assignee, the previous role and
+ * assignee topics get the update too, so their queue screens can drop the case.
+ * Who may subscribe to which topic is enforced by CaseTopicSubscriptionInterceptor.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class CaseUpdatePublisher {
+
+    public static final String CASE_TOPIC_PREFIX = "/topic/cases/";
+    public static final String ASSIGNEE_TOPIC_PREFIX = "/topic/assignee/";
+    public static final String ROLE_TOPIC_PREFIX = "/topic/role/";
+
+    private final SimpMessagingTemplate messagingTemplate;
+
+    public void publish(Case caseEntity, String action) {
+        publish(caseEntity.getCaseId(), caseEntity.getStatus(), caseEntity.getAssignedTo(), action);
+    }
+
+    public void publish(String caseId, Case.CaseStatus status, String assignedTo, String action) {
+        publish(caseId, status, assignedTo, status, assignedTo, action);
+    }
+
+    public void publish(String caseId, Case.CaseStatus previousStatus, String previousAssignedTo,
+                        Case.CaseStatus status, String assignedTo, String action) {
+        CaseUpdateMessage message = toMessage(caseId, status, assignedTo, action);
+        for (String destination : destinations(caseId, previousStatus, previousAssignedTo, status, assignedTo)) {
+            messagingTemplate.convertAndSend(destination, message);
+        }
+        log.debug("Published case update: {} - {}", caseId, action);
+    }
+
+    public void publishAfterCommit(Case caseEntity, String action) {
+        publishAfterCommit(caseEntity.getCaseId(), caseEntity.getStatus(), caseEntity.getAssignedTo(), action);
+    }
+
+    /**
+     * Publish once the surrounding transaction commits, so clients never see a rolled-back change.
+     * Message and destinations are captured now, from the values the caller just wrote.
+     */
+    public void publishAfterCommit(String caseId, Case.CaseStatus status, String assignedTo, String action) {
+        publishAfterCommit(caseId, status, assignedTo, status, assignedTo, action);
+    }
+
+    /**
+     * As {@link #publishAfterCommit(String, Case.CaseStatus, String, String)} for a change that may have
+     * moved the case between review queues or assignees; the previous ones are notified as well.
+     */
+    public void publishAfterCommit(String caseId, Case.CaseStatus previousStatus, String previousAssignedTo,
+                                   Case.CaseStatus status, String assignedTo, String action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            publish(caseId, previousStatus, previousAssignedTo, status, assignedTo, action);
+            return;
+        }
+
+        CaseUpdateMessage message = toMessage(caseId, status, assignedTo, action);
+        Set<String> destinations = destinations(caseId, previousStatus, previousAssignedTo, status, assignedTo);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                try {
+                    destinations.forEach(destination -> messagingTemplate.convertAndSend(destination, message));
+                } catch (Exception e) {
+                    log.warn("Failed to publish case update for {}: {}", message.getCaseId(), e.getMessage());
+                }
+            }
+        });
+    }
+
+    public static String assigneeTopic(String assignedTo) {
+        return ASSIGNEE_TOPIC_PREFIX + UriUtils.encodePathSegment(assignedTo, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Role that has to act on a case in the given status, if any
+     */
+    public static User.UserRole reviewingRole(Case.CaseStatus status) {
+        return switch (status) {
+            case PENDING_CHECKER_REVIEW -> User.UserRole.CHECKER;
+            case PENDING_COMPLIANCE_REVIEW -> User.UserRole.COMPLIANCE;
+            case PENDING_GM_APPROVAL -> User.UserRole.GM;
+            default -> null;
+        };
+    }
+
+    private static CaseUpdateMessage toMessage(String caseId, Case.CaseStatus status, String assignedTo,
+                                               String action) {
+        return new CaseUpdateMessage(caseId, status.name(), assignedTo, action, LocalDateTime.now());
+    }
+
+    private static Set<String> destinations(String caseId, Case.CaseStatus previousStatus, String previousAssignedTo,
+                                            Case.CaseStatus status, String assignedTo) {
+        // Ordered and de-duplicated: an unchanged status or assignee yields one destination
+        Set<String> destinations = new LinkedHashSet<>();
+        destinations.add(CASE_TOPIC_PREFIX + caseId);
+        for (String assignee : new String[]{assignedTo, previousAssignedTo}) {
+            if (assignee != null) {
+                destinations.add(assigneeTopic(assignee));
+            }
+        }
+        for (Case.CaseStatus queueStatus : new Case.CaseStatus[]{status, previousStatus}) {
+            User.UserRole role = queueStatus != null ? reviewingRole(queueStatus) : null;
+            if (role != null) {
+                destinations.add(ROLE_TOPIC_PREFIX + role.name() + "/case-updates");
+            }
+        }
+        return destinations;
+    }
+}
@@ -1,31 +1,135 @@
 package com.bkb.scanner.service;
 
 import com.bkb.scanner.entity.*;
+import com.bkb.scanner.exception.ResourceNotFoundException;
+import com.bkb.scanner.repository.CaseChecklistStatusRepository;
+import com.bkb.scanner.repository.CaseRepository;
 import com.bkb.scanner.repository.PartyRepository;
-import com.bkb.scanner.repository.DocumentRequirementTemplateRepository;
+import com.google.common.collect.Lists;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
 import java.util.*;
 import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
 @Slf4j
-@Transactional
+@Transactional(readOnly = true)
 public class ChecklistService {
 
+    private static final int PARTY_LOOKUP_BATCH_SIZE = 500;
+
     private final PartyRepository partyRepository;
-    private final DocumentRequirementTemplateRepository requirementTemplateRepository;
+    private final CaseRepository caseRepository;
+    private final CaseChecklistStatusRepository checklistStatusRepository;
+    private final RequirementTemplateIndex requirementIndex;
 
     public List<ChecklistSection> generateChecklist(Case caseData) {
+        return generateChecklists(List.of(caseData)).get(caseData.getCaseId());
+    }
+
+    /**
+     * Generate checklists for many cases at once. Requirements come from the in-memory
+     * template index and related parties are loaded in a single query for the whole batch.
+     *
+     * @return checklist sections by case id, in the order the cases were given
+     */
+    public Map<String, List<ChecklistSection>> generateChecklists(Collection<Case> cases) {
+        Map<String, Party> parties = loadParties(cases);
+
+        Map<String, List<ChecklistSection>> checklists = new LinkedHashMap<>();
+        for (Case caseData : cases) {
+            checklists.put(caseData.getCaseId(), buildChecklist(caseData, parties));
+        }
+        return checklists;
+    }
+
+    /**
+     * Rewrite the materialized checklist rows of a case from a freshly generated checklist.
+     * Needed whenever the set of requirements can change: case creation, party links, risk level.
+     */
+    @Transactional
+    public void syncChecklistStatus(Case caseData) {
+        Map<String, CaseChecklistStatus> stale = checklistStatusRepository.findByCaseId(caseData.getCaseId()).stream()
+                .collect(Collectors.toMap(CaseChecklistStatus::getRequirementId, s -> s, (a, b) -> a));
+
+        List<CaseChecklistStatus> rows = new ArrayList<>();
+        for (ChecklistSection section : generateChecklist(caseData)) {
+            for (ChecklistItem item : section.getItems()) {
+                CaseChecklistStatus row = stale.remove(item.getId());
+                if (row == null) {
+                    row = new CaseChecklistStatus();
+                    row.setCaseId(caseData.getCaseId());
+                    row.setRequirementId(item.getId());
+                }
+                row.setOwnerPartyId(item.getOwnerPartyId());
+                row.setRequired(item.isRequired());
+                List<Submission> submissions = item.getSubmissions();
+                applyLatest(row, submissions.isEmpty() ? null : submissions.get(submissions.size() - 1));
+                rows.add(row);
+            }
+        }
+
+        checklistStatusRepository.saveAll(rows);
+        checklistStatusRepository.deleteAll(stale.values());
+    }
+
+    @Transactional
+    public void syncChecklistStatus(String caseId) {
+        syncChecklistStatus(caseRepository.findByCaseId(caseId)
+                .orElseThrow(() -> new ResourceNotFoundException("Case not found: " + caseId)));
+    }
+
+    /**
+     * Update the single checklist row affected by a submission change. Falls back to a
+     * full sync for a case whose checklist has not been materialized yet.
+     */
+    @Transactional
+    public void recordSubmissionStatus(String caseId, String requirementId, Submission latest) {
+        Optional<CaseChecklistStatus> row = checklistStatusRepository.findByCaseIdAndRequirementId(caseId, requirementId);
+        if (row.isEmpty()) {
+            syncChecklistStatus(caseId);
+            return;
+        }
+
+        applyLatest(row.get(), latest);
+        checklistStatusRepository.save(row.get());
+    }
+
+    private void applyLatest(CaseChecklistStatus row, Submission latest) {
+        row.setLatestStatus(latest != null ? latest.getStatus() : Submission.DocumentStatus.MISSING);
+        row.setLatestSubmissionId(latest != null ? latest.getSubmissionId() : null);
+        row.setUpdatedAt(LocalDateTime.now());
+    }
+
+    private Map<String, Party> loadParties(Collection<Case> cases) {
+        Set<String> partyIds = cases.stream()
+                .flatMap(c -> c.getRelatedPartyLinks().stream())
+                .map(CasePartyLink::getPartyId)
+                .collect(Collectors.toSet());
+        if (partyIds.isEmpty()) {
+            return Map.of();
+        }
+
+        // Unique-key lookups in bounded IN lists, so the cost follows the cases, not the size of csob_parties
+        Map<String, Party> parties = new HashMap<>();
+        for (List<String> chunk : Lists.partition(new ArrayList<>(partyIds), PARTY_LOOKUP_BATCH_SIZE)) {
+            partyRepository.findByPartyIdIn(chunk).forEach(p -> parties.put(p.getPartyId(), p));
+        }
+        return parties;
+    }
+
+    private List<ChecklistSection> buildChecklist(Case caseData, Map<String, Party> parties) {
         List<ChecklistSection> sections = new ArrayList<>();
-        List<Party> allParties = partyRepository.findAll();
+        Map<String, CaseDocumentLink> linksByRequirement = caseData.getDocumentLinks().stream()
+                .collect(Collectors.toMap(CaseDocumentLink::getRequirementId, l -> l, (a, b) -> a));
 
         // Entity documents section
-        List<ChecklistItem> entityDocs = generateEntityDocuments(caseData);
+        List<ChecklistItem> entityDocs = generateEntityDocuments(caseData, linksByRequirement);
         if (!entityDocs.isEmpty()) {
             sections.add(new ChecklistSection(
                     caseData.getEntityData().getEntityName() + " (Entity Docs)",
@@ -35,13 +139,10 @@ public class ChecklistService {
 
         // Party documents sections
         for (CasePartyLink partyLink : caseData.getRelatedPartyLinks()) {
-            Party party = allParties.stream()
-                    .filter(p -> p.getPartyId().equals(partyLink.getPartyId()))
-                    .findFirst()
-                    .orElse(null);
+            Party party = parties.get(partyLink.getPartyId());
 
             if (party != null) {
-                List<ChecklistItem> partyDocs = generatePartyDocuments(caseData, party, partyLink);
+                List<ChecklistItem> partyDocs = generatePartyDocuments(party, linksByRequirement);
                 if (!partyDocs.isEmpty()) {
                     sections.add(new ChecklistSection(
                             party.getName() + " (" + partyLink.getRelationshipType() + ")",
@@ -54,54 +155,20 @@ public class ChecklistService {
         return sections;
     }
 
-    private List<ChecklistItem> generateEntityDocuments(Case caseData) {
+    private List<ChecklistItem> generateEntityDocuments(Case caseData, Map<String, CaseDocumentLink> links) {
         List<ChecklistItem> items = new ArrayList<>();
         EntityData.EntityType entityType = caseData.getEntityData().getEntityType();
 
-        // Get entity-specific documents from database
-        List<DocumentRequirementTemplate> entityTemplates =
-                requirementTemplateRepository.findByRequirementTypeAndEntityTypeAndIsActiveTrue(
-                        DocumentRequirementTemplate.RequirementType.ENTITY_DOCUMENT,
-                        entityType
-                );
-
-        // Add entity documents
-        int index = 0;
-        for (DocumentRequirementTemplate template : entityTemplates) {
-            items.add(createChecklistItem(caseData, template, "req-entity-" + index, "ENTITY"));
-            index++;
-        }
+        // Entity-specific documents
+        addItems(items, requirementIndex.entityDocuments(entityType), "req-entity-", "ENTITY", links);
 
-        // Get bank forms based on entity type
+        // Bank forms based on entity type
         String formCategory = entityType == EntityData.EntityType.INDIVIDUAL_ACCOUNT
                 ? "INDIVIDUAL" : "CORPORATE";
+        addItems(items, requirementIndex.bankForms(formCategory), "req-forms-", "ENTITY", links);
 
-        List<DocumentRequirementTemplate> bankForms =
-                requirementTemplateRepository.findByRequirementTypeAndAccountTypeAndIsActiveTrue(
-                        DocumentRequirementTemplate.RequirementType.BANK_FORM,
-                        formCategory
-                );
-
-        // Add bank forms
-        index = 0;
-        for (DocumentRequirementTemplate template : bankForms) {
-            items.add(createChecklistItem(caseData, template, "req-forms-" + index, "ENTITY"));
-            index++;
-        }
-
-        // Get risk-based documents
-        List<DocumentRequirementTemplate> riskDocs =
-                requirementTemplateRepository.findByRequirementTypeAndRiskLevelAndIsActiveTrue(
-                        DocumentRequirementTemplate.RequirementType.RISK_BASED,
-                        caseData.getRiskLevel()
-                );
-
-        // Add risk-based documents
-        index = 0;
-        for (DocumentRequirementTemplate template : riskDocs) {
-            items.add(createChecklistItem(caseData, template, "req-risk-" + index, "ENTITY"));
-            index++;
-        }
+        // Risk-based documents
+        addItems(items, requirementIndex.riskBased(caseData.getRiskLevel()), "req-risk-", "ENTITY", links);
 
         // Sort by sortOrder
         return items.stream()
@@ -109,7 +176,7 @@ public class ChecklistService {
                 .collect(Collectors.toList());
     }
 
-    private List<ChecklistItem> generatePartyDocuments(Case caseData, Party party, CasePartyLink partyLink) {
+    private List<ChecklistItem> generatePartyDocuments(Party party, Map<String, CaseDocumentLink> links) {
         List<ChecklistItem> items = new ArrayList<>();
 
         String residencyStatus = party.getResidencyStatus();
@@ -117,23 +184,9 @@ public class ChecklistService {
             residencyStatus = "Singaporean/PR";
         }
 
-        // Get individual documents based on residency status
-        List<DocumentRequirementTemplate> individualTemplates =
-                requirementTemplateRepository.findByRequirementTypeAndResidencyStatusAndIsActiveTrue(
-                        DocumentRequirementTemplate.RequirementType.INDIVIDUAL_DOCUMENT,
-                        residencyStatus
-                );
-
-        int index = 0;
-        for (DocumentRequirementTemplate template : individualTemplates) {
-            items.add(createChecklistItem(
-                    caseData,
-                    template,
-                    "req-party-" + party.getPartyId() + "-" + index,
-                    party.getPartyId()
-            ));
-            index++;
-        }
+        // Individual documents based on residency status
+        addItems(items, requirementIndex.individualDocuments(residencyStatus),
+                "req-party-" + party.getPartyId() + "-", party.getPartyId(), links);
 
         // Sort by sortOrder
         return items.stream()
@@ -141,22 +194,28 @@ public class ChecklistService {
                 .collect(Collectors.toList());
     }
 
-    private ChecklistItem createChecklistItem(Case caseData, DocumentRequirementTemplate template,
-                                              String requirementId, String ownerPartyId) {
+    private void addItems(List<ChecklistItem> items, List<RequirementTemplateIndex.RequirementRule> rules,
+                          String idPrefix, String ownerPartyId, Map<String, CaseDocumentLink> links) {
+        int index = 0;
+        for (RequirementTemplateIndex.RequirementRule rule : rules) {
+            items.add(createChecklistItem(rule, idPrefix + index, ownerPartyId, links));
+            index++;
+        }
+    }
+
+    private ChecklistItem createChecklistItem(RequirementTemplateIndex.RequirementRule rule, String requirementId,
+                                              String ownerPartyId, Map<String, CaseDocumentLink> links) {
         ChecklistItem item = new ChecklistItem();
         item.setId(requirementId);
-        item.setName(template.getName());
-        item.setRequired(template.getRequired());
-        item.setDescription(template.getDescription());
-        item.setValidityMonths(template.getValidityMonths());
+        item.setName(rule.name());
+        item.setRequired(rule.required());
+        item.setDescription(rule.description());
+        item.setValidityMonths(rule.validityMonths());
         item.setOwnerPartyId(ownerPartyId);
-        item.setSortOrder(template.getSortOrder());
+        item.setSortOrder(rule.sortOrder());
 
         // Find corresponding document link and submissions
-        CaseDocumentLink link = caseData.getDocumentLinks().stream()
-                .filter(dl -> dl.getRequirementId().equals(requirementId))
-                .findFirst()
-                .orElse(null);
+        CaseDocumentLink link = links.get(requirementId);
 
         if (link != null && !link.getSubmissions().isEmpty()) {
             item.setSubmissions(link.getSubmissions());
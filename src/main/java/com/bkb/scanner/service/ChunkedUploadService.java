@@ -0,0 +1,368 @@
+package com.bkb.scanner.service;
+
+import com.bkb.scanner.dto.InitiateUploadDto;
+import com.bkb.scanner.dto.UploadSessionDto;
+import com.bkb.scanner.entity.Document;
+import com.bkb.scanner.entity.UploadSession;
+import com.bkb.scanner.entity.User;
+import com.bkb.scanner.exception.BadRequestException;
+import com.bkb.scanner.exception.ResourceNotFoundException;
+import com.bkb.scanner.repository.UploadSessionRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.io.FileUtils;
+import org.apache.commons.io.input.BoundedInputStream;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.access.AccessDeniedException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.*;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.TreeSet;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+/**
+ * Resumable uploads for large scans. Each chunk is staged as its own file under
+ * {@code <file.upload.directory>/.staging/<uploadId>/}, written to a temp name and renamed
+ * so a half-written chunk is never counted as received. On completion the chunks are
+ * concatenated with {@link FileChannel#transferTo} and handed to {@link DocumentService}.
+ * <p>
+ * A session belongs to the user who started it. Completion and abort hold the session row lock,
+ * and every stored chunk takes that lock briefly before it is renamed into place, so a session is
+ * assembled once, from a stable set of chunks. A repeated completion returns the same document.
+ */
+@Service
+@Slf4j
+@Transactional
+public class ChunkedUploadService {
+
+    private static final String STAGING_DIRECTORY = ".staging";
+    private static final String CHUNK_PREFIX = "chunk-";
+    private static final String CHUNK_SUFFIX = ".part";
+
+    private final UploadSessionRepository uploadSessionRepository;
+    private final DocumentService documentService;
+    private final Path stagingRoot;
+
+    @Value("${document.upload.chunk-size-bytes:5242880}")
+    private long chunkSize;
+
+    @Value("${document.upload.max-size-bytes:524288000}")
+    private long maxUploadSize;
+
+    @Value("${document.upload.session-ttl-minutes:1440}")
+    private long sessionTtlMinutes;
+
+    public ChunkedUploadService(UploadSessionRepository uploadSessionRepository,
+                                DocumentService documentService,
+                                @Value("${file.upload.directory}") String uploadDirectory) {
+        this.uploadSessionRepository = uploadSessionRepository;
+        this.documentService = documentService;
+        this.stagingRoot = Paths.get(uploadDirectory).toAbsolutePath().normalize().resolve(STAGING_DIRECTORY);
+    }
+
+    public UploadSessionDto initiateUpload(InitiateUploadDto dto, User currentUser) {
+        if (dto.getTotalSize() > maxUploadSize) {
+            throw new BadRequestException("Upload exceeds maximum size of " + maxUploadSize + " bytes");
+        }
+
+        UploadSession session = new UploadSession();
+        session.setUploadId("UPL-" + UUID.randomUUID());
+        session.setOwnerPartyId(dto.getOwnerPartyId());
+        session.setDocType(dto.getDocType());
+        session.setFileName(dto.getFileName());
+        session.setDeclaredMimeType(dto.getMimeType());
+        session.setIssueDate(parseDate(dto.getIssueDate()));
+        session.setExpiryDate(parseDate(dto.getExpiryDate()));
+        session.setTotalSize(dto.getTotalSize());
+        session.setChunkSize(chunkSize);
+        session.setTotalChunks((int) ((dto.getTotalSize() + chunkSize - 1) / chunkSize));
+        session.setUploadedBy(currentUser != null ? currentUser.getName() : "System");
+        session.setUploadedByUserId(currentUser != null ? currentUser.getUserId() : null);
+        session.setExpiresAt(LocalDateTime.now().plusMinutes(sessionTtlMinutes));
+
+        try {
+            Files.createDirectories(sessionDirectory(session));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to create staging area for upload", e);
+        }
+
+        UploadSession saved = uploadSessionRepository.save(session);
+        log.info("Initiated chunked upload {} for {} ({} bytes in {} chunks)",
+                saved.getUploadId(), saved.getFileName(), saved.getTotalSize(), saved.getTotalChunks());
+        return toDto(saved);
+    }
+
+    /**
+     * Store chunk {@code index}. Re-sending a chunk that was already received replaces it,
+     * so clients can blindly retry whatever they are unsure about.
+     */
+    public UploadSessionDto uploadChunk(String uploadId, int index, Long offset, InputStream content,
+                                        User currentUser) {
+        UploadSession session = getActiveSession(findSession(uploadId, currentUser));
+
+        if (index < 0 || index >= session.getTotalChunks()) {
+            throw new BadRequestException("Chunk index out of range: " + index);
+        }
+        long expectedOffset = index * session.getChunkSize();
+        if (offset != null && offset != expectedOffset) {
+            throw new BadRequestException("Chunk " + index + " must start at offset " + expectedOffset);
+        }
+        long expectedLength = Math.min(session.getChunkSize(), session.getTotalSize() - expectedOffset);
+
+        Path directory = sessionDirectory(session);
+        Path temp = null;
+        try {
+            Files.createDirectories(directory);
+            temp = Files.createTempFile(directory, "incoming-", ".tmp");
+
+            // Read at most one byte more than expected so oversized chunks are detected without buffering them
+            long written;
+            try (InputStream in = new BoundedInputStream(content, expectedLength + 1)) {
+                written = Files.copy(in, temp, StandardCopyOption.REPLACE_EXISTING);
+            }
+            if (written != expectedLength) {
+                throw new BadRequestException("Chunk " + index + " must be " + expectedLength + " bytes, got " + written);
+            }
+
+            // Locks the session row until commit, so a completion cannot be assembling while the chunk lands
+            LocalDateTime expiresAt = LocalDateTime.now().plusMinutes(sessionTtlMinutes);
+            if (uploadSessionRepository.extendIfInStatus(session.getId(), UploadSession.UploadStatus.IN_PROGRESS,
+                    expiresAt) == 0) {
+                throw new BadRequestException("Upload " + uploadId + " is no longer in progress");
+            }
+            session.setExpiresAt(expiresAt);
+
+            Files.move(temp, chunkPath(directory, index),
+                    StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException e) {
+            throw new BadRequestException("Failed to store chunk " + index + ": " + e.getMessage(), e);
+        } finally {
+            deleteQuietly(temp);
+        }
+
+        return toDto(session);
+    }
+
+    @Transactional(readOnly = true)
+    public UploadSessionDto getUploadStatus(String uploadId, User currentUser) {
+        return toDto(findSession(uploadId, currentUser));
+    }
+
+    public UploadSessionDto completeUpload(String uploadId, User currentUser) {
+        UploadSession session = lockSession(uploadId, currentUser);
+        if (session.getStatus() == UploadSession.UploadStatus.COMPLETED) {
+            // A retried or concurrent completion: the first one already registered the document
+            return toDto(session);
+        }
+        getActiveSession(session);
+        Path directory = sessionDirectory(session);
+
+        TreeSet<Integer> received = receivedChunks(directory);
+        if (received.size() != session.getTotalChunks()) {
+            throw new BadRequestException("Upload incomplete: received " + received.size()
+                    + " of " + session.getTotalChunks() + " chunks");
+        }
+
+        Path assembled = directory.resolve("assembled.bin");
+        try (FileChannel out = FileChannel.open(assembled,
+                StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            for (int index = 0; index < session.getTotalChunks(); index++) {
+                try (FileChannel in = FileChannel.open(chunkPath(directory, index), StandardOpenOption.READ)) {
+                    long position = 0;
+                    long size = in.size();
+                    while (position < size) {
+                        position += in.transferTo(position, size - position, out);
+                    }
+                }
+            }
+        } catch (IOException e) {
+            deleteQuietly(assembled);
+            throw new BadRequestException("Failed to assemble upload: " + e.getMessage(), e);
+        }
+
+        Document document = documentService.registerDocument(
+                assembled,
+                session.getFileName(),
+                session.getDeclaredMimeType(),
+                session.getOwnerPartyId(),
+                session.getDocType(),
+                session.getIssueDate(),
+                session.getExpiryDate(),
+                session.getUploadedBy()
+        );
+
+        session.setStatus(UploadSession.UploadStatus.COMPLETED);
+        session.setDocumentId(document.getDocId());
+        session.setCompletedAt(LocalDateTime.now());
+        deleteDirectory(directory);
+
+        log.info("Completed chunked upload {} as document {}", uploadId, document.getDocId());
+        return toDto(uploadSessionRepository.save(session));
+    }
+
+    public void abortUpload(String uploadId, User currentUser) {
+        UploadSession session = getActiveSession(lockSession(uploadId, currentUser));
+        session.setStatus(UploadSession.UploadStatus.ABORTED);
+        uploadSessionRepository.save(session);
+        deleteDirectory(sessionDirectory(session));
+    }
+
+    /**
+     * Expire sessions that have not received a chunk within the TTL and release their staging space
+     */
+    @Scheduled(fixedDelayString = "${document.upload.cleanup-interval-ms:600000}")
+    public void expireStaleSessions() {
+        List<UploadSession> stale = uploadSessionRepository.findByStatusAndExpiresAtBefore(
+                UploadSession.UploadStatus.IN_PROGRESS, LocalDateTime.now());
+
+        for (UploadSession session : stale) {
+            session.setStatus(UploadSession.UploadStatus.EXPIRED);
+            deleteDirectory(sessionDirectory(session));
+        }
+        uploadSessionRepository.saveAll(stale);
+
+        if (!stale.isEmpty()) {
+            log.info("Expired {} stale upload sessions", stale.size());
+        }
+    }
+
+    private UploadSession findSession(String uploadId, User currentUser) {
+        return checkOwner(uploadSessionRepository.findByUploadId(uploadId)
+                .orElseThrow(() -> new ResourceNotFoundException("Upload not found: " + uploadId)), currentUser);
+    }
+
+    private UploadSession lockSession(String uploadId, User currentUser) {
+        return checkOwner(uploadSessionRepository.findForUpdateByUploadId(uploadId)
+                .orElseThrow(() -> new ResourceNotFoundException("Upload not found: " + uploadId)), currentUser);
+    }
+
+    private static UploadSession checkOwner(UploadSession session, User currentUser) {
+        boolean owner = currentUser != null && currentUser.getUserId() != null
+                && currentUser.getUserId().equals(session.getUploadedByUserId());
+        if (!owner && (currentUser == null || currentUser.getRole() != User.UserRole.ADMIN)) {
+            throw new AccessDeniedException("Upload " + session.getUploadId() + " belongs to another user");
+        }
+        return session;
+    }
+
+    private static UploadSession getActiveSession(UploadSession session) {
+        if (session.getStatus() != UploadSession.UploadStatus.IN_PROGRESS) {
+            throw new BadRequestException("Upload " + session.getUploadId() + " is " + session.getStatus());
+        }
+        if (session.getExpiresAt().isBefore(LocalDateTime.now())) {
+            throw new BadRequestException("Upload " + session.getUploadId() + " has expired");
+        }
+        return session;
+    }
+
+    private UploadSessionDto toDto(UploadSession session) {
+        List<UploadSessionDto.ByteRange> ranges = new ArrayList<>();
+        long receivedBytes = 0;
+
+        if (session.getStatus() == UploadSession.UploadStatus.IN_PROGRESS) {
+            // Merge consecutive chunk indexes into contiguous byte ranges
+            Integer rangeStart = null;
+            Integer previous = null;
+            for (Integer index : receivedChunks(sessionDirectory(session))) {
+                if (previous == null || index != previous + 1) {
+                    if (rangeStart != null) {
+                        ranges.add(toByteRange(session, rangeStart, previous));
+                    }
+                    rangeStart = index;
+                }
+                previous = index;
+            }
+            if (rangeStart != null) {
+                ranges.add(toByteRange(session, rangeStart, previous));
+            }
+            receivedBytes = ranges.stream().mapToLong(r -> r.getEnd() - r.getStart() + 1).sum();
+        } else if (session.getStatus() == UploadSession.UploadStatus.COMPLETED) {
+            ranges.add(new UploadSessionDto.ByteRange(0, session.getTotalSize() - 1));
+            receivedBytes = session.getTotalSize();
+        }
+
+        return UploadSessionDto.builder()
+                .uploadId(session.getUploadId())
+                .status(session.getStatus().name())
+                .fileName(session.getFileName())
+                .totalSize(session.getTotalSize())
+                .chunkSize(session.getChunkSize())
+                .totalChunks(session.getTotalChunks())
+                .receivedBytes(receivedBytes)
+                .receivedRanges(ranges)
+                .documentId(session.getDocumentId())
+                .expiresAt(session.getExpiresAt())
+                .build();
+    }
+
+    private UploadSessionDto.ByteRange toByteRange(UploadSession session, int firstChunk, int lastChunk) {
+        long start = firstChunk * session.getChunkSize();
+        long end = Math.min((lastChunk + 1) * session.getChunkSize(), session.getTotalSize()) - 1;
+        return new UploadSessionDto.ByteRange(start, end);
+    }
+
+    private TreeSet<Integer> receivedChunks(Path directory) {
+        TreeSet<Integer> indexes = new TreeSet<>();
+        if (!Files.isDirectory(directory)) {
+            return indexes;
+        }
+        try (Stream<Path> files = Files.list(directory)) {
+            files.map(path -> path.getFileName().toString())
+                    .filter(name -> name.startsWith(CHUNK_PREFIX) && name.endsWith(CHUNK_SUFFIX))
+                    .map(name -> name.substring(CHUNK_PREFIX.length(), name.length() - CHUNK_SUFFIX.length()))
+                    .forEach(index -> indexes.add(Integer.parseInt(index)));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to list received chunks", e);
+        }
+        return indexes;
+    }
+
+    private Path sessionDirectory(UploadSession session) {
+        return stagingRoot.resolve(session.getUploadId());
+    }
+
+    private Path chunkPath(Path directory, int index) {
+        return directory.resolve(String.format("%s%06d%s", CHUNK_PREFIX, index, CHUNK_SUFFIX));
+    }
+
+    private LocalDate parseDate(String value) {
+        if (value == null || value.isBlank()) {
+            return null;
+        }
+        try {
+            return LocalDate.parse(value);
+        } catch (DateTimeParseException e) {
+            throw new BadRequestException("Invalid date: " + value);
+        }
+    }
+
+    private void deleteDirectory(Path directory) {
+        try {
+            FileUtils.deleteDirectory(directory.toFile());
+        } catch (IOException e) {
+            log.warn("Failed to delete staging directory {}: {}", directory, e.getMessage());
+        }
+    }
+
+    private void deleteQuietly(Path path) {
+        if (path == null) {
+            return;
+        }
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException e) {
+            log.warn("Failed to delete {}: {}", path, e.getMessage());
+        }
+    }
+}
@@ -1,61 +1,196 @@
 package com.bkb.scanner.service;
 
 import com.bkb.scanner.entity.Document;
+import com.bkb.scanner.entity.OrphanedContent;
+import com.bkb.scanner.repository.DocumentContentRepository;
 import com.bkb.scanner.repository.DocumentRepository;
+import com.bkb.scanner.repository.OrphanedContentRepository;
 import com.bkb.scanner.exception.ResourceNotFoundException;
 import com.bkb.scanner.exception.BadRequestException;
+import com.bkb.scanner.service.storage.ContentTypeDetector;
+import com.bkb.scanner.service.storage.DocumentStorage;
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.multipart.MultipartFile;
 
+import java.io.BufferedInputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.util.HexFormat;
+import java.util.List;
 import java.util.UUID;
 
 @Service
 @RequiredArgsConstructor
+@Slf4j
 @Transactional
 public class DocumentService {
 
+    private static final int UPLOAD_BUFFER_SIZE = 64 * 1024;
+    private static final int DATABASE_READ_CHUNK_SIZE = 1024 * 1024;
+
     private final DocumentRepository documentRepository;
+    private final DocumentContentRepository documentContentRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final DocumentStorage documentStorage;
+    private final OrphanedContentRepository orphanedContentRepository;
 
     public Document uploadDocument(MultipartFile file, String ownerPartyId, String docType,
                                    String issueDate, String expiryDate) {
+        // Single pass over the part: peek the header for the MIME type, then hash, count and store
+        try (InputStream in = new BufferedInputStream(file.getInputStream(), UPLOAD_BUFFER_SIZE)) {
+            String mimeType = ContentTypeDetector.detect(in, file.getContentType());
+            DocumentStorage.StoredContent stored = documentStorage.store(in);
+
+            return createDocument(stored, mimeType, file.getOriginalFilename(), ownerPartyId, docType,
+                    issueDate != null ? LocalDate.parse(issueDate) : null,
+                    expiryDate != null ? LocalDate.parse(expiryDate) : null,
+                    "System"); // Should be current user
+        } catch (IOException e) {
+            throw new BadRequestException("Failed to upload document: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Register a fully assembled file, e.g. from a chunked upload, as a new document.
+     * The file is handed to the storage and no longer exists at {@code source} afterwards.
+     */
+    public Document registerDocument(Path source, String fileName, String declaredType, String ownerPartyId,
+                                     String docType, LocalDate issueDate, LocalDate expiryDate, String uploadedBy) {
         try {
-            Document document = new Document();
-            document.setDocId("DOC-" + UUID.randomUUID());
-            document.setOwnerPartyId(ownerPartyId);
-            document.setDocType(docType);
-            document.setFileName(file.getOriginalFilename());
-            document.setFileSize(file.getSize());
-            document.setMimeType(file.getContentType());
-            document.setFileData(file.getBytes());
-            document.setUploadedBy("System"); // Should be current user
-            document.setCategory(determineCategory(docType));
-
-            if (issueDate != null) {
-                document.setIssueDate(LocalDate.parse(issueDate));
-            }
-            if (expiryDate != null) {
-                document.setExpiryDate(LocalDate.parse(expiryDate));
+            String mimeType;
+            try (InputStream in = new BufferedInputStream(Files.newInputStream(source), ContentTypeDetector.HEADER_LENGTH)) {
+                mimeType = ContentTypeDetector.detect(in, declaredType);
             }
+            DocumentStorage.StoredContent stored = documentStorage.store(source);
 
-            return documentRepository.save(document);
+            return createDocument(stored, mimeType, fileName, ownerPartyId, docType, issueDate, expiryDate, uploadedBy);
         } catch (IOException e) {
-            throw new BadRequestException("Failed to upload document: " + e.getMessage());
+            throw new BadRequestException("Failed to register document: " + e.getMessage());
         }
     }
 
+    private Document createDocument(DocumentStorage.StoredContent stored, String mimeType, String fileName,
+                                     String ownerPartyId, String docType, LocalDate issueDate,
+                                     LocalDate expiryDate, String uploadedBy) {
+        Document document = new Document();
+        document.setDocId("DOC-" + UUID.randomUUID());
+        document.setOwnerPartyId(ownerPartyId);
+        document.setDocType(docType);
+        document.setFileName(fileName);
+        document.setFileSize(stored.size());
+        document.setMimeType(mimeType);
+        document.setContentHash(stored.contentHash());
+        document.setFileUrl(stored.location());
+        document.setUploadedBy(uploadedBy);
+        document.setCategory(determineCategory(docType));
+        document.setIssueDate(issueDate);
+        document.setExpiryDate(expiryDate);
+
+        return documentRepository.save(document);
+    }
+
     public Document getDocumentByDocId(String docId) {
         return documentRepository.findByDocId(docId)
                 .orElseThrow(() -> new ResourceNotFoundException("Document not found: " + docId));
     }
 
+    public boolean hasDocumentContent(Document document) {
+        if (isExternallyStored(document)) {
+            return documentStorage.exists(document.getContentHash());
+        }
+        return documentContentRepository.existsByDocId(document.getDocId());
+    }
+
+    /**
+     * Size of the stored binary. Documents registered before sizes were recorded have no fileSize,
+     * so it is then taken from the stored content itself.
+     */
+    @Transactional(readOnly = true)
+    public long getContentLength(Document document) throws IOException {
+        if (document.getFileSize() != null) {
+            return document.getFileSize();
+        }
+        if (isExternallyStored(document)) {
+            return documentStorage.size(document.getContentHash());
+        }
+        return databaseContentLength(document.getDocId());
+    }
+
+    /**
+     * Copy {@code length} bytes of the stored binary, starting at {@code offset}, to the given stream.
+     * Externally stored content is read through the storage SPI. Rows not yet migrated out of the
+     * database are read in SUBSTRING chunks: Connector/J materializes a whole LONGBLOB value on
+     * getBlob, so at most one chunk of the payload is held on the heap at a time.
+     */
+    @Transactional(readOnly = true)
+    public void writeDocumentContent(Document document, long offset, long length, OutputStream out) throws IOException {
+        if (isExternallyStored(document)) {
+            documentStorage.copyTo(document.getContentHash(), offset, length, out);
+            return;
+        }
+
+        String docId = document.getDocId();
+        // The read-only transaction keeps every chunk on the same snapshot of the row
+        long end = Math.min(databaseContentLength(docId), offset + length);
+        long position = offset;
+        while (position < end) {
+            int chunkLength = (int) Math.min(DATABASE_READ_CHUNK_SIZE, end - position);
+            byte[] chunk = jdbcTemplate.queryForObject(
+                    "SELECT SUBSTRING(data, ?, ?) FROM csob_document_contents WHERE doc_id = ?",
+                    byte[].class, position + 1, chunkLength, docId);
+            if (chunk == null || chunk.length == 0) {
+                break;
+            }
+            out.write(chunk);
+            position += chunk.length;
+        }
+    }
+
     public void deleteDocument(String docId) {
         Document document = getDocumentByDocId(docId);
+        documentContentRepository.deleteByDocId(docId);
         documentRepository.delete(document);
+
+        if (isExternallyStored(document)) {
+            // Other documents may share the content, or an upload of the same bytes may be about to
+            // commit; the sweeper deletes it only once neither holds after the grace period
+            OrphanedContent orphan = new OrphanedContent();
+            orphan.setContentHash(document.getContentHash());
+            orphan.setQueuedAt(LocalDateTime.now());
+            orphanedContentRepository.save(orphan);
+        }
+    }
+
+    private long databaseContentLength(String docId) {
+        List<Long> sizes = jdbcTemplate.queryForList(
+                "SELECT LENGTH(data) FROM csob_document_contents WHERE doc_id = ?", Long.class, docId);
+        if (sizes.isEmpty() || sizes.get(0) == null) {
+            throw new ResourceNotFoundException("Document content not found: " + docId);
+        }
+        return sizes.get(0);
+    }
+
+    private boolean isExternallyStored(Document document) {
+        return document.getFileUrl() != null && document.getContentHash() != null;
+    }
+
+    public static String sha256Hex(byte[] data) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(data));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
     }
 
     private Document.DocumentCategory determineCategory(String docType) {
@@ -0,0 +1,99 @@
+package com.bkb.scanner.service;
+
+import com.bkb.scanner.dto.NotificationDTO;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Coalesces outgoing notifications per STOMP destination. Notifications are buffered for
+ * {@code notifications.fanout.window-ms} and each destination then receives one frame whose
+ * body is a JSON array of everything queued for it, with identical events collapsed. A bulk
+ * reassignment therefore costs one frame per recipient instead of one per case.
+ */
+@Component
+@Slf4j
+public class NotificationFanout {
+
+    private final SimpMessagingTemplate messagingTemplate;
+
+    private final Map<Destination, Map<String, NotificationDTO>> pending = new ConcurrentHashMap<>();
+
+    private final Counter enqueued;
+    private final Counter coalesced;
+    private final Counter delivered;
+    private final Counter frames;
+
+    public NotificationFanout(SimpMessagingTemplate messagingTemplate, MeterRegistry meterRegistry) {
+        this.messagingTemplate = messagingTemplate;
+        this.enqueued = meterRegistry.counter("notifications.fanout.enqueued");
+        this.coalesced = meterRegistry.counter("notifications.fanout.coalesced");
+        this.delivered = meterRegistry.counter("notifications.fanout.delivered");
+        this.frames = meterRegistry.counter("notifications.fanout.frames");
+    }
+
+    /**
+     * @param user principal name, or null for a broadcast destination
+     */
+    private record Destination(String user, String path) {
+    }
+
+    public void toUser(String user, String path, NotificationDTO notification) {
+        enqueue(new Destination(user, path), notification);
+    }
+
+    public void toTopic(String topic, NotificationDTO notification) {
+        enqueue(new Destination(null, topic), notification);
+    }
+
+    private void enqueue(Destination destination, NotificationDTO notification) {
+        enqueued.increment();
+        pending.compute(destination, (key, batch) -> {
+            Map<String, NotificationDTO> queued = batch != null ? batch : new LinkedHashMap<>();
+            if (queued.putIfAbsent(dedupKey(notification), notification) != null) {
+                coalesced.increment();
+            }
+            return queued;
+        });
+    }
+
+    @Scheduled(fixedDelayString = "${notifications.fanout.window-ms:100}")
+    @PreDestroy
+    public void flush() {
+        for (Destination destination : pending.keySet()) {
+            Map<String, NotificationDTO> batch = pending.remove(destination);
+            if (batch == null || batch.isEmpty()) {
+                continue;
+            }
+
+            List<NotificationDTO> payload = List.copyOf(batch.values());
+            try {
+                if (destination.user() != null) {
+                    messagingTemplate.convertAndSendToUser(destination.user(), destination.path(), payload);
+                } else {
+                    messagingTemplate.convertAndSend(destination.path(), payload);
+                }
+                frames.increment();
+                delivered.increment(payload.size());
+            } catch (Exception e) {
+                log.warn("Failed to deliver {} notifications to {}: {}", payload.size(), destination, e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Two notifications are the same event when they describe the same change to the same entity
+     */
+    private static String dedupKey(NotificationDTO notification) {
+        return notification.getType() + '|' + notification.getRelatedEntityId() + '|' + notification.getMessage();
+    }
+}
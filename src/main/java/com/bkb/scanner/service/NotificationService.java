@@ -1,43 +1,91 @@
 package com.bkb.scanner.service;
 
+import com.bkb.scanner.dto.CursorPage;
 import com.bkb.scanner.dto.NotificationDTO;
 import com.bkb.scanner.entity.Case;
+import com.bkb.scanner.entity.Notification;
 import com.bkb.scanner.entity.User;
+import com.bkb.scanner.exception.BadRequestException;
+import com.bkb.scanner.repository.NotificationRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import jakarta.annotation.PostConstruct;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.messaging.simp.SimpMessagingTemplate;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
-import java.util.ArrayList;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayDeque;
+import java.util.Collection;
+import java.util.Deque;
 import java.util.List;
-import java.util.Map;
-import java.util.concurrent.ConcurrentHashMap;
 
 @Service
 @RequiredArgsConstructor
 @Slf4j
+@Transactional
 public class NotificationService {
 
     private final SimpMessagingTemplate messagingTemplate;
+    private final NotificationRepository notificationRepository;
+    private final NotificationFanout notificationFanout;
 
-    // In-memory storage for notifications (in production, use database)
-    private final Map<String, List<NotificationDTO>> userNotifications = new ConcurrentHashMap<>();
+    @Value("${notifications.unread-buffer-size:50}")
+    private int unreadBufferSize;
+
+    @Value("${notifications.cached-users:10000}")
+    private long cachedUsers;
+
+    @Value("${notifications.page.default-size:20}")
+    private int defaultPageSize;
+
+    @Value("${notifications.page.max-size:100}")
+    private int maxPageSize;
+
+    // Hot unread set: the newest unread notifications of recently active users, bounded
+    // per user by the ring buffer and overall by the number of cached users. Entries are
+    // reloaded after a few minutes so a notification stored by another node shows up.
+    private Cache<String, UnreadBuffer> unreadBuffers;
+
+    @PostConstruct
+    void init() {
+        unreadBuffers = Caffeine.newBuilder()
+                .maximumSize(cachedUsers)
+                .expireAfterWrite(Duration.ofMinutes(5))
+                .build();
+    }
 
     /**
-     * Send notification to specific user
+     * Send notification to specific user. The caller's DTO is not modified, so the same one can be
+     * sent to several users; delivery waits for the surrounding transaction to commit.
      */
     public void sendNotificationToUser(String userId, NotificationDTO notification) {
+        NotificationDTO delivered = userId.equals(notification.getUserId())
+                ? notification
+                : notification.toBuilder().userId(userId).build();
+
         // Store notification
-        userNotifications.computeIfAbsent(userId, k -> new ArrayList<>()).add(notification);
+        notificationRepository.save(Notification.from(userId, delivered));
 
-        // Send via WebSocket if user is connected
-        messagingTemplate.convertAndSendToUser(
-                userId,
-                "/queue/notifications",
-                notification
-        );
+        afterCommit(() -> {
+            UnreadBuffer buffer = unreadBuffers.getIfPresent(userId);
+            if (buffer != null && !delivered.isRead()) {
+                buffer.add(delivered);
+            }
 
-        log.info("Sent notification to user {}: {}", userId, notification.getTitle());
+            // Send via WebSocket if user is connected, batched with anything else queued for them
+            notificationFanout.toUser(userId, "/queue/notifications", delivered);
+        });
+
+        log.debug("Queued notification for user {}: {}", userId, delivered.getTitle());
     }
 
     /**
@@ -53,58 +101,113 @@ public class NotificationService {
     public void sendNotificationToRole(User.UserRole role, NotificationDTO notification) {
         // In a real implementation, you would fetch users by role from database
         // For now, we'll broadcast to a role-specific topic
-        messagingTemplate.convertAndSend(
-                "/topic/role/" + role.name(),
-                notification
-        );
+        afterCommit(() -> notificationFanout.toTopic("/topic/role/" + role.name(), notification));
 
-        log.info("Sent notification to role {}: {}", role, notification.getTitle());
+        log.debug("Queued notification for role {}: {}", role, notification.getTitle());
     }
 
     /**
      * Broadcast notification to all connected users
      */
     public void broadcastNotification(NotificationDTO notification) {
-        messagingTemplate.convertAndSend("/topic/notifications", notification);
-        log.info("Broadcasted notification: {}", notification.getTitle());
+        afterCommit(() -> notificationFanout.toTopic("/topic/notifications", notification));
+        log.debug("Queued broadcast notification: {}", notification.getTitle());
     }
 
     /**
-     * Get unread notifications for a user
+     * Get the newest unread notifications for a user, at most notifications.unread-buffer-size.
+     * Older unread ones are reachable through {@link #getNotifications}.
      */
+    @Transactional(readOnly = true)
     public List<NotificationDTO> getUnreadNotifications(String userId) {
-        return userNotifications.getOrDefault(userId, new ArrayList<>())
-                .stream()
-                .filter(n -> !n.isRead())
-                .toList();
+        return unreadBuffers.get(userId, this::loadUnreadBuffer).snapshot();
+    }
+
+    @Transactional(readOnly = true)
+    public long getUnreadCount(String userId) {
+        return notificationRepository.countByUserIdAndReadFalse(userId);
+    }
+
+    /**
+     * Page through a user's notifications, newest first
+     */
+    @Transactional(readOnly = true)
+    public CursorPage<NotificationDTO> getNotifications(String userId, boolean unreadOnly, String cursor, Integer size) {
+        int pageSize = size == null || size <= 0 ? defaultPageSize : Math.min(size, maxPageSize);
+        Pageable limit = PageRequest.of(0, pageSize + 1);
+        Long before = decodeCursor(cursor);
+
+        List<Notification> rows;
+        if (unreadOnly) {
+            rows = before == null
+                    ? notificationRepository.findByUserIdAndReadFalseOrderByIdDesc(userId, limit)
+                    : notificationRepository.findByUserIdAndReadFalseAndIdLessThanOrderByIdDesc(userId, before, limit);
+        } else {
+            rows = before == null
+                    ? notificationRepository.findByUserIdOrderByIdDesc(userId, limit)
+                    : notificationRepository.findByUserIdAndIdLessThanOrderByIdDesc(userId, before, limit);
+        }
+
+        boolean hasMore = rows.size() > pageSize;
+        List<Notification> page = hasMore ? rows.subList(0, pageSize) : rows;
+        String nextCursor = hasMore ? String.valueOf(page.get(page.size() - 1).getId()) : null;
+
+        return new CursorPage<>(page.stream().map(Notification::toDto).toList(), nextCursor, hasMore, page.size());
     }
 
     /**
      * Mark notification as read
      */
     public void markAsRead(String userId, String notificationId) {
-        List<NotificationDTO> notifications = userNotifications.get(userId);
-        if (notifications != null) {
-            notifications.stream()
-                    .filter(n -> n.getId().equals(notificationId))
-                    .findFirst()
-                    .ifPresent(n -> {
-                        n.setRead(true);
-                        // Notify user of read status change
-                        messagingTemplate.convertAndSendToUser(
-                                userId,
-                                "/queue/notification-read",
-                                notificationId
-                        );
-                    });
+        if (markRead(userId, List.of(notificationId)) > 0) {
+            // Notify user of read status change
+            messagingTemplate.convertAndSendToUser(
+                    userId,
+                    "/queue/notification-read",
+                    notificationId
+            );
+        }
+    }
+
+    /**
+     * Mark several notifications as read in one statement
+     *
+     * @return the number of notifications that were unread
+     */
+    public int markAsRead(String userId, Collection<String> notificationIds) {
+        if (notificationIds.isEmpty()) {
+            return 0;
+        }
+        int updated = markRead(userId, notificationIds);
+        if (updated > 0) {
+            messagingTemplate.convertAndSendToUser(
+                    userId,
+                    "/queue/notifications-read",
+                    notificationIds
+            );
+        }
+        return updated;
+    }
+
+    public int markAllAsRead(String userId) {
+        int updated = notificationRepository.markAllRead(userId, LocalDateTime.now());
+        unreadBuffers.invalidate(userId);
+        if (updated > 0) {
+            messagingTemplate.convertAndSendToUser(
+                    userId,
+                    "/queue/notifications-read-all",
+                    updated
+            );
         }
+        return updated;
     }
 
     /**
      * Clear all notifications for a user
      */
     public void clearNotifications(String userId) {
-        userNotifications.remove(userId);
+        notificationRepository.deleteByUserId(userId);
+        unreadBuffers.invalidate(userId);
         messagingTemplate.convertAndSendToUser(
                 userId,
                 "/queue/notifications-cleared",
@@ -112,6 +215,92 @@ public class NotificationService {
         );
     }
 
+    private int markRead(String userId, Collection<String> notificationIds) {
+        int updated = notificationRepository.markRead(userId, notificationIds, LocalDateTime.now());
+        UnreadBuffer buffer = unreadBuffers.getIfPresent(userId);
+        if (buffer != null && buffer.remove(notificationIds)) {
+            // The buffer had dropped older unread items that should now move up; reload on next read
+            unreadBuffers.invalidate(userId);
+        }
+        return updated;
+    }
+
+    /**
+     * Run once the surrounding transaction commits, so users are never pushed a rolled-back notification
+     */
+    private void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                try {
+                    action.run();
+                } catch (Exception e) {
+                    log.warn("Failed to queue notification: {}", e.getMessage());
+                }
+            }
+        });
+    }
+
+    private UnreadBuffer loadUnreadBuffer(String userId) {
+        List<NotificationDTO> newest = notificationRepository
+                .findByUserIdAndReadFalseOrderByIdDesc(userId, PageRequest.of(0, unreadBufferSize)).stream()
+                .map(Notification::toDto)
+                .toList();
+        return new UnreadBuffer(unreadBufferSize, newest, newest.size() == unreadBufferSize);
+    }
+
+    private Long decodeCursor(String cursor) {
+        if (cursor == null || cursor.isEmpty()) {
+            return null;
+        }
+        try {
+            return Long.parseLong(cursor);
+        } catch (NumberFormatException e) {
+            throw new BadRequestException("Invalid cursor: " + cursor);
+        }
+    }
+
+    /**
+     * Fixed-capacity, newest-first ring of a user's unread notifications
+     */
+    private static final class UnreadBuffer {
+
+        private final int capacity;
+        private final Deque<NotificationDTO> items;
+        // Whether older unread notifications exist beyond what the buffer holds
+        private boolean truncated;
+
+        UnreadBuffer(int capacity, List<NotificationDTO> newestFirst, boolean truncated) {
+            this.capacity = capacity;
+            this.items = new ArrayDeque<>(newestFirst);
+            this.truncated = truncated;
+        }
+
+        synchronized void add(NotificationDTO notification) {
+            items.addFirst(notification);
+            if (items.size() > capacity) {
+                items.removeLast();
+                truncated = true;
+            }
+        }
+
+        /**
+         * @return true when the buffer may now be missing unread notifications it should show
+         */
+        synchronized boolean remove(Collection<String> notificationIds) {
+            boolean removed = items.removeIf(n -> notificationIds.contains(n.getId()));
+            return removed && truncated;
+        }
+
+        synchronized List<NotificationDTO> snapshot() {
+            return List.copyOf(items);
+        }
+    }
+
     // Notification creation helpers for common scenarios
 
     public void notifyCaseStatusChange(Case caseEntity, String previousStatus, String actor) {
@@ -0,0 +1,64 @@
+package com.bkb.scanner.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Supplier;
+
+/**
+ * Runs a command in its own transaction and re-runs it a bounded number of times when it loses an
+ * optimistic-lock race. Only for commands whose effect does not depend on what the loser read
+ * (appends, or writes the client sent without an If-Match precondition); conditional requests
+ * must surface the conflict instead.
+ */
+@Component
+@Slf4j
+public class OptimisticRetry {
+
+    private final TransactionTemplate transactionTemplate;
+    private final int maxAttempts;
+    private final long backoffMs;
+
+    public OptimisticRetry(TransactionTemplate transactionTemplate,
+                           @Value("${app.concurrency.retry.max-attempts:3}") int maxAttempts,
+                           @Value("${app.concurrency.retry.backoff-ms:20}") long backoffMs) {
+        this.transactionTemplate = transactionTemplate;
+        this.maxAttempts = Math.max(1, maxAttempts);
+        this.backoffMs = backoffMs;
+    }
+
+    public <T> T execute(Supplier<T> command) {
+        // Inside a caller's transaction a retry would replay against the same stale persistence context
+        if (TransactionSynchronizationManager.isActualTransactionActive()) {
+            return command.get();
+        }
+
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return transactionTemplate.execute(status -> command.get());
+            } catch (OptimisticLockingFailureException e) {
+                if (attempt >= maxAttempts) {
+                    throw e;
+                }
+                log.debug("Optimistic lock conflict, retrying (attempt {}/{}): {}", attempt, maxAttempts, e.getMessage());
+                backoff(attempt);
+            }
+        }
+    }
+
+    private void backoff(int attempt) {
+        // Jittered so that the colliding requests do not meet again on the next attempt
+        long delay = backoffMs * attempt + ThreadLocalRandom.current().nextLong(backoffMs + 1);
+        try {
+            Thread.sleep(delay);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while retrying", e);
+        }
+    }
+}
@@ -0,0 +1,147 @@
+package com.bkb.scanner.service;
+
+import com.bkb.scanner.entity.Case;
+import com.bkb.scanner.entity.DocumentRequirementTemplate;
+import com.bkb.scanner.entity.DocumentRequirementTemplate.RequirementType;
+import com.bkb.scanner.entity.EntityData;
+import com.bkb.scanner.repository.DocumentRequirementTemplateRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Immutable in-memory index of the active document requirement templates, keyed by
+ * requirement type and the attribute that selects it (entity type, account form category,
+ * risk level or residency status). Lookups never touch the database.
+ * <p>
+ * {@link RequirementTemplateListener} forwards every template insert, update or delete to this
+ * bean, which schedules a rebuild once the transaction commits.
+ * A rebuild loads all active templates in one query and swaps the whole snapshot, so readers
+ * always see either the old or the new set, never a mix. Changes made directly in the
+ * database are picked up on the next start or an explicit {@link #rebuild()}.
+ */
+@Component
+@Slf4j
+public class RequirementTemplateIndex {
+
+    private static final String REBUILD_SCHEDULED = RequirementTemplateIndex.class.getName() + ".REBUILD_SCHEDULED";
+
+    private final DocumentRequirementTemplateRepository repository;
+
+    private volatile Map<Key, List<RequirementRule>> rules;
+
+    public RequirementTemplateIndex(DocumentRequirementTemplateRepository repository) {
+        this.repository = repository;
+    }
+
+    /**
+     * A compiled template: only what checklist generation needs, detached from the persistence context
+     */
+    public record RequirementRule(String name, boolean required, String description,
+                                  Integer validityMonths, int sortOrder) {
+
+        static RequirementRule of(DocumentRequirementTemplate template) {
+            return new RequirementRule(
+                    template.getName(),
+                    Boolean.TRUE.equals(template.getRequired()),
+                    template.getDescription(),
+                    template.getValidityMonths(),
+                    template.getSortOrder() != null ? template.getSortOrder() : 0
+            );
+        }
+    }
+
+    private record Key(RequirementType type, Object selector) {
+    }
+
+    public List<RequirementRule> entityDocuments(EntityData.EntityType entityType) {
+        return lookup(RequirementType.ENTITY_DOCUMENT, entityType);
+    }
+
+    public List<RequirementRule> bankForms(String formCategory) {
+        return lookup(RequirementType.BANK_FORM, formCategory);
+    }
+
+    public List<RequirementRule> riskBased(Case.RiskLevel riskLevel) {
+        return lookup(RequirementType.RISK_BASED, riskLevel);
+    }
+
+    public List<RequirementRule> individualDocuments(String residencyStatus) {
+        return lookup(RequirementType.INDIVIDUAL_DOCUMENT, residencyStatus);
+    }
+
+    private List<RequirementRule> lookup(RequirementType type, Object selector) {
+        Map<Key, List<RequirementRule>> current = rules;
+        if (current == null) {
+            current = load();
+        }
+        return current.getOrDefault(new Key(type, selector), List.of());
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        load();
+    }
+
+    private synchronized Map<Key, List<RequirementRule>> load() {
+        // Ordered by id so the positional requirement ids (req-entity-0, ...) stay stable across rebuilds
+        List<DocumentRequirementTemplate> templates = repository.findByIsActiveTrueOrderByIdAsc();
+
+        Map<Key, List<RequirementRule>> building = new HashMap<>();
+        for (DocumentRequirementTemplate template : templates) {
+            building.computeIfAbsent(keyOf(template), k -> new ArrayList<>()).add(RequirementRule.of(template));
+        }
+
+        Map<Key, List<RequirementRule>> snapshot = new HashMap<>();
+        building.forEach((key, list) -> snapshot.put(key, List.copyOf(list)));
+        Map<Key, List<RequirementRule>> built = Map.copyOf(snapshot);
+        rules = built;
+
+        log.info("Built requirement template index: {} active templates in {} groups", templates.size(), built.size());
+        return built;
+    }
+
+    private static Key keyOf(DocumentRequirementTemplate template) {
+        Object selector = switch (template.getRequirementType()) {
+            case ENTITY_DOCUMENT -> template.getEntityType();
+            case INDIVIDUAL_DOCUMENT -> template.getResidencyStatus();
+            case RISK_BASED -> template.getRiskLevel();
+            case BANK_FORM, ACCOUNT_FORM -> template.getAccountType();
+        };
+        return new Key(template.getRequirementType(), selector);
+    }
+
+    /**
+     * Rebuild after the current transaction commits, or right away outside a transaction
+     */
+    void scheduleRebuild() {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            rebuild();
+            return;
+        }
+        // One rebuild per transaction, however many templates it touched
+        if (TransactionSynchronizationManager.hasResource(REBUILD_SCHEDULED)) {
+            return;
+        }
+        TransactionSynchronizationManager.bindResource(REBUILD_SCHEDULED, Boolean.TRUE);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                rebuild();
+            }
+
+            @Override
+            public void afterCompletion(int status) {
+                TransactionSynchronizationManager.unbindResourceIfPossible(REBUILD_SCHEDULED);
+            }
+        });
+    }
+}
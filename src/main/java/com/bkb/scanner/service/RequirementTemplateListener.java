@@ -0,0 +1,29 @@
+package com.bkb.scanner.service;
+
+import com.bkb.scanner.entity.DocumentRequirementTemplate;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import org.springframework.beans.factory.ObjectProvider;
+
+/**
+ * JPA entity listener for {@link DocumentRequirementTemplate}. Hibernate instantiates its own listener
+ * instance instead of using a registered bean, so this only forwards the change to the
+ * {@link RequirementTemplateIndex} singleton that checklist generation reads.
+ */
+public class RequirementTemplateListener {
+
+    // Lazy: Hibernate instantiates entity listeners while the EntityManagerFactory is being built
+    private final ObjectProvider<RequirementTemplateIndex> indexProvider;
+
+    public RequirementTemplateListener(ObjectProvider<RequirementTemplateIndex> indexProvider) {
+        this.indexProvider = indexProvider;
+    }
+
+    @PostPersist
+    @PostUpdate
+    @PostRemove
+    void onTemplateChanged(DocumentRequirementTemplate template) {
+        indexProvider.getObject().scheduleRebuild();
+    }
+}
@@ -4,11 +4,13 @@ import com.bkb.scanner.dto.*;
 import com.bkb.scanner.entity.*;
 import com.bkb.scanner.repository.*;
 import com.bkb.scanner.exception.ResourceNotFoundException;
+import com.bkb.scanner.service.scan.ScanProgressRegistry;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.scheduling.annotation.Async;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.util.*;
@@ -23,6 +25,7 @@ public class ScanService {
     private final ScanProfileRepository scanProfileRepository;
     private final DocumentRepository documentRepository;
     private final CaseService caseService;
+    private final ScanProgressRegistry progressRegistry;
 
     @Value("${naps2.exe.path}")
     private String naps2ExePath;
@@ -31,7 +34,8 @@ public class ScanService {
     private String scanTempDirectory;
 
     public ScanInitiateResponse initiateScan(String caseId, String requirementId,
-                                             String docType, String partyId, String scanProfile) {
+                                             String docType, String partyId, String scanProfile,
+                                             String requestedBy) {
         if (scanProfile == null || scanProfile.isEmpty()) {
             scanProfile = "Default";
         }
@@ -43,14 +47,13 @@ public class ScanService {
         scanQueue.setDocType(docType);
         scanQueue.setPartyId(partyId);
         scanQueue.setScanProfile(scanProfile);
+        scanQueue.setRequestedBy(requestedBy);
         scanQueue.setStatus(ScanQueue.ScanStatus.PENDING);
         scanQueue.setProgress(0);
 
+        // Picked up asynchronously by ScanWorker
         scanQueueRepository.save(scanQueue);
 
-        // Start async scanning process
-        // performScan(scanQueue.getScanId());
-
         return new ScanInitiateResponse(
                 scanQueue.getScanId(),
                 getEstimatedTime(scanProfile),
@@ -58,11 +61,19 @@ public class ScanService {
         );
     }
 
+    // SUPPORTS so a registry hit does not open a transaction or borrow a connection
+    @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
     public ScanStatusResponse getScanStatus(String scanId) {
+        Optional<ScanStatusResponse> tracked = progressRegistry.get(scanId);
+        if (tracked.isPresent()) {
+            return tracked.get();
+        }
+
         ScanQueue scanQueue = scanQueueRepository.findByScanId(scanId)
                 .orElseThrow(() -> new ResourceNotFoundException("Scan not found"));
 
         return ScanStatusResponse.builder()
+                .scanId(scanQueue.getScanId())
                 .status(scanQueue.getStatus().toString().toLowerCase())
                 .progress(scanQueue.getProgress())
                 .documentId(scanQueue.getDocumentId())
@@ -79,6 +90,8 @@ public class ScanService {
             scanQueue.setStatus(ScanQueue.ScanStatus.FAILED);
             scanQueue.setErrorMessage("Scan cancelled by user");
             scanQueueRepository.save(scanQueue);
+            progressRegistry.changed(scanId, scanQueue.getRequestedBy(), scanQueue.getStatus(),
+                    scanQueue.getProgress(), null, scanQueue.getErrorMessage());
         }
     }
 
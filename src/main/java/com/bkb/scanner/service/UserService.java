@@ -3,9 +3,12 @@ package com.bkb.scanner.service;
 import com.bkb.scanner.entity.User;
 import com.bkb.scanner.repository.UserRepository;
 import com.bkb.scanner.exception.ResourceNotFoundException;
+import com.bkb.scanner.security.UserStatusCache;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 import java.util.List;
 
@@ -15,6 +18,7 @@ import java.util.List;
 public class UserService {
 
     private final UserRepository userRepository;
+    private final UserStatusCache userStatusCache;
 
     public List<User> getAllUsers() {
         return userRepository.findAll();
@@ -37,7 +41,21 @@ public class UserService {
         if (userUpdate.getProfilePicture() != null) {
             existingUser.setProfilePicture(userUpdate.getProfilePicture());
         }
+        // "active" defaults to true on the request body, so only an explicit false is applied
+        if (!userUpdate.isActive()) {
+            existingUser.setActive(false);
+        }
 
-        return userRepository.save(existingUser);
+        User savedUser = userRepository.save(existingUser);
+        // Claims-based principals check this cache instead of the user row; evict again once
+        // committed so a request racing this update cannot re-cache the old status
+        userStatusCache.evict(userId);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                userStatusCache.evict(userId);
+            }
+        });
+        return savedUser;
     }
 }
\ No newline at end of file
@@ -0,0 +1,275 @@
+package com.bkb.scanner.service.audit;
+
+import com.bkb.scanner.dto.ActivityEntry;
+import com.bkb.scanner.entity.ActivityArchiveIndex;
+import com.bkb.scanner.entity.ActivityArchiveSegment;
+import com.bkb.scanner.repository.ActivityArchiveIndexRepository;
+import com.bkb.scanner.repository.ActivityArchiveSegmentRepository;
+import com.bkb.scanner.service.storage.DocumentStorage;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.common.io.CountingOutputStream;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Keeps csob_activity_logs down to the retention horizon. Older rows are moved, one month at a time,
+ * into gzip JSON-lines segments in {@link DocumentStorage}; csob_activity_archive_index records which
+ * byte range of which segment holds each case's rows, so archived history stays readable per case.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class ActivityArchiveService {
+
+    private static final String SELECT_EXPIRED_SQL = "SELECT a.id, c.case_id AS case_key, " +
+            ActivityRecord.columns("a") + " " +
+            "FROM csob_activity_logs a JOIN csob_cases c ON c.id = a.case_id " +
+            "WHERE a.timestamp >= ? AND a.timestamp < ? " +
+            "ORDER BY a.case_id, a.id LIMIT ? FOR UPDATE OF a SKIP LOCKED";
+
+    private static final RowMapper<ExpiredRow> EXPIRED_ROW_MAPPER = (rs, rowNum) ->
+            new ExpiredRow(rs.getLong("id"), rs.getString("case_key"), ActivityRecord.map(rs));
+
+    private final ActivityArchiveSegmentRepository segmentRepository;
+    private final ActivityArchiveIndexRepository indexRepository;
+    private final DocumentStorage documentStorage;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectMapper objectMapper;
+
+    @Value("${audit.archive.enabled:true}")
+    private boolean enabled;
+
+    @Value("${audit.archive.retention-days:365}")
+    private int retentionDays;
+
+    @Value("${audit.archive.segment-rows:10000}")
+    private int segmentRows;
+
+    @Scheduled(initialDelayString = "${audit.archive.initial-delay-ms:120000}",
+            fixedDelayString = "${audit.archive.interval-ms:86400000}")
+    public void archiveExpired() {
+        if (!enabled) {
+            return;
+        }
+
+        LocalDateTime cutoff = LocalDate.now().minusDays(retentionDays).atStartOfDay();
+        int segments = 0;
+        long rows = 0;
+        while (true) {
+            Integer archived;
+            try {
+                archived = transactionTemplate.execute(status -> archiveSegment(cutoff));
+            } catch (RuntimeException e) {
+                log.warn("Activity archival stopped after {} segments: {}", segments, e.getMessage());
+                break;
+            }
+            if (archived == null || archived == 0) {
+                break;
+            }
+            segments++;
+            rows += archived;
+        }
+
+        if (segments > 0) {
+            log.info("Archived {} activity log rows older than {} into {} segments", rows, cutoff, segments);
+        }
+    }
+
+    /**
+     * Months of archived history held for a case, newest first
+     */
+    @Transactional(readOnly = true)
+    public List<ActivityArchiveIndex> getArchiveIndex(String caseId) {
+        return indexRepository.findByCaseIdOrderByFromTimestampDesc(caseId);
+    }
+
+    /**
+     * A case's archived activities for one month (yyyy-MM), newest first
+     */
+    @Transactional(readOnly = true)
+    public List<ActivityEntry> readArchived(String caseId, YearMonth month) {
+        List<ActivityEntry> entries = new ArrayList<>();
+        for (ActivityArchiveIndex entry : indexRepository.findByCaseIdAndMonthOrderByFromTimestampDesc(
+                caseId, month.toString())) {
+            List<ActivityRecord> rows = readMember(entry);
+            Collections.reverse(rows);
+            rows.forEach(row -> entries.add(row.toEntry()));
+        }
+        return entries;
+    }
+
+    /**
+     * Move up to segment-rows rows of the oldest expired month into one segment. Runs in a single
+     * transaction: the rows are only deleted if the segment and its index entries are recorded.
+     */
+    private int archiveSegment(LocalDateTime cutoff) {
+        Timestamp oldest = jdbcTemplate.queryForObject(
+                "SELECT MIN(timestamp) FROM csob_activity_logs WHERE timestamp < ?",
+                Timestamp.class, Timestamp.valueOf(cutoff));
+        if (oldest == null) {
+            return 0;
+        }
+
+        YearMonth month = YearMonth.from(oldest.toLocalDateTime());
+        LocalDateTime from = month.atDay(1).atStartOfDay();
+        LocalDateTime nextMonth = month.plusMonths(1).atDay(1).atStartOfDay();
+        LocalDateTime to = nextMonth.isBefore(cutoff) ? nextMonth : cutoff;
+
+        // Ordered by case so that each case's rows are contiguous in the segment
+        List<ExpiredRow> rows = jdbcTemplate.query(SELECT_EXPIRED_SQL, EXPIRED_ROW_MAPPER,
+                Timestamp.valueOf(from), Timestamp.valueOf(to), segmentRows);
+        if (rows.isEmpty()) {
+            return 0;
+        }
+
+        String segmentId = "SEG-" + month + "-" + UUID.randomUUID();
+        List<ActivityArchiveIndex> index = new ArrayList<>();
+        DocumentStorage.StoredContent stored;
+        try {
+            stored = writeSegment(segmentId, month, rows, index);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to write archive segment " + segmentId, e);
+        }
+
+        ActivityArchiveSegment segment = new ActivityArchiveSegment();
+        segment.setSegmentId(segmentId);
+        segment.setMonth(month.toString());
+        segment.setContentHash(stored.contentHash());
+        segment.setLocation(stored.location());
+        segment.setSizeBytes(stored.size());
+        segment.setRowCount(rows.size());
+        segment.setCaseCount(index.size());
+        segment.setFromTimestamp(from);
+        segment.setToTimestamp(to);
+        segmentRepository.save(segment);
+
+        index.forEach(entry -> entry.setContentHash(stored.contentHash()));
+        indexRepository.saveAll(index);
+
+        jdbcTemplate.batchUpdate("DELETE FROM csob_activity_logs WHERE id = ?", rows, rows.size(),
+                (ps, row) -> ps.setLong(1, row.id()));
+
+        log.debug("Archived {} rows of {} for {} cases into {}", rows.size(), month, index.size(), segmentId);
+        return rows.size();
+    }
+
+    /**
+     * Write the rows as one gzip member per case, recording each member's byte range in {@code index}.
+     * Concatenated members still form a valid gzip file, so the segment can also be read whole.
+     */
+    private DocumentStorage.StoredContent writeSegment(String segmentId, YearMonth month, List<ExpiredRow> rows,
+                                                       List<ActivityArchiveIndex> index) throws IOException {
+        Path temp = Files.createTempFile("activity-archive-", ".jsonl.gz");
+        try {
+            try (CountingOutputStream file = new CountingOutputStream(
+                    new BufferedOutputStream(Files.newOutputStream(temp)))) {
+                int start = 0;
+                while (start < rows.size()) {
+                    String caseId = rows.get(start).caseId();
+                    int end = start;
+                    while (end < rows.size() && rows.get(end).caseId().equals(caseId)) {
+                        end++;
+                    }
+
+                    long offset = file.getCount();
+                    try (Writer out = new OutputStreamWriter(new GZIPOutputStream(new NonClosingOutputStream(file)),
+                            StandardCharsets.UTF_8)) {
+                        for (ExpiredRow row : rows.subList(start, end)) {
+                            out.write(objectMapper.writeValueAsString(row.activity()));
+                            out.write('\n');
+                        }
+                    }
+
+                    ActivityArchiveIndex entry = new ActivityArchiveIndex();
+                    entry.setCaseId(caseId);
+                    entry.setSegmentId(segmentId);
+                    entry.setMonth(month.toString());
+                    entry.setByteOffset(offset);
+                    entry.setByteLength(file.getCount() - offset);
+                    entry.setRowCount(end - start);
+                    entry.setFromTimestamp(rows.get(start).activity().timestamp());
+                    entry.setToTimestamp(rows.get(end - 1).activity().timestamp());
+                    index.add(entry);
+
+                    start = end;
+                }
+            }
+            return documentStorage.store(temp);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    /**
+     * A case's archived members, oldest first
+     */
+    List<ActivityArchiveIndex> getArchivedMembers(String caseId) {
+        return indexRepository.findByCaseIdOrderByFromTimestampAscIdAsc(caseId);
+    }
+
+    /**
+     * Records of one archived member in the order they were written
+     */
+    List<ActivityRecord> readMember(ActivityArchiveIndex entry) {
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream((int) entry.getByteLength());
+        List<ActivityRecord> rows = new ArrayList<>(entry.getRowCount());
+        try {
+            documentStorage.copyTo(entry.getContentHash(), entry.getByteOffset(), entry.getByteLength(), compressed);
+            try (BufferedReader reader = new BufferedReader(new InputStreamReader(
+                    new GZIPInputStream(new ByteArrayInputStream(compressed.toByteArray())), StandardCharsets.UTF_8))) {
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    rows.add(objectMapper.readValue(line, ActivityRecord.class));
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to read archive segment " + entry.getSegmentId(), e);
+        }
+        return rows;
+    }
+
+    private record ExpiredRow(long id, String caseId, ActivityRecord activity) {
+    }
+
+    /**
+     * Lets a gzip member be finished and its deflater released without closing the segment file
+     */
+    private static final class NonClosingOutputStream extends FilterOutputStream {
+        NonClosingOutputStream(OutputStream out) {
+            super(out);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            out.write(b, off, len);
+        }
+
+        @Override
+        public void close() throws IOException {
+            flush();
+        }
+    }
+}
@@ -0,0 +1,97 @@
+package com.bkb.scanner.service.audit;
+
+import com.google.common.hash.HashCode;
+import com.google.common.hash.Hasher;
+import com.google.common.hash.Hashing;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Hashing rules of the per-case activity chain. Every entry's hash covers its content, its sequence
+ * number, its case and the previous entry's hash, so changing, removing or reordering any entry
+ * breaks every later link. Ranges of a chain are summarized by Merkle roots in checkpoints.
+ */
+public final class ActivityChain {
+
+    /**
+     * previousHash of the first entry of every case
+     */
+    public static final String GENESIS_HASH = "0".repeat(64);
+
+    private ActivityChain() {
+    }
+
+    /**
+     * Timestamps are hashed at the precision the database stores (DATETIME(6)), so a row read back
+     * hashes the same as when it was written
+     */
+    public static LocalDateTime normalize(LocalDateTime timestamp) {
+        return timestamp.truncatedTo(ChronoUnit.MICROS);
+    }
+
+    public static String hash(String previousHash, String caseId, ActivityRecord record) {
+        // Every field is length-prefixed (-1 for null), so no two distinct entries share an encoding
+        Hasher hasher = Hashing.sha256().newHasher();
+        putField(hasher, previousHash);
+        putField(hasher, caseId);
+        hasher.putLong(record.sequence());
+        putField(hasher, record.activityId());
+        putField(hasher, normalize(record.timestamp()).toString());
+        putField(hasher, record.actor());
+        putField(hasher, record.actorRole());
+        putField(hasher, record.actorId());
+        putField(hasher, record.action());
+        putField(hasher, record.actionType());
+        putField(hasher, record.entityType());
+        putField(hasher, record.entityId());
+        putField(hasher, record.details());
+        putField(hasher, record.previousValue());
+        putField(hasher, record.newValue());
+        putField(hasher, record.ipAddress());
+        putField(hasher, record.userAgent());
+        putField(hasher, record.sessionId());
+        return hasher.hash().toString();
+    }
+
+    /**
+     * Merkle root over entry hashes in chain order. Interior nodes are prefixed with 0x01 so they can
+     * never be confused with leaves; an odd node at the end of a level is carried up unchanged.
+     */
+    public static String merkleRoot(List<String> leafHashes) {
+        if (leafHashes.isEmpty()) {
+            throw new IllegalArgumentException("Merkle root of an empty range");
+        }
+
+        List<HashCode> level = new ArrayList<>(leafHashes.size());
+        leafHashes.forEach(leaf -> level.add(HashCode.fromString(leaf)));
+        while (level.size() > 1) {
+            int write = 0;
+            for (int read = 0; read < level.size(); read += 2) {
+                if (read + 1 == level.size()) {
+                    level.set(write++, level.get(read));
+                } else {
+                    level.set(write++, Hashing.sha256().newHasher()
+                            .putByte((byte) 1)
+                            .putBytes(level.get(read).asBytes())
+                            .putBytes(level.get(read + 1).asBytes())
+                            .hash());
+                }
+            }
+            level.subList(write, level.size()).clear();
+        }
+        return level.get(0).toString();
+    }
+
+    private static void putField(Hasher hasher, String value) {
+        if (value == null) {
+            hasher.putInt(-1);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        hasher.putInt(bytes.length).putBytes(bytes);
+    }
+}
@@ -0,0 +1,320 @@
+package com.bkb.scanner.service.audit;
+
+import com.bkb.scanner.dto.ChainVerificationReport;
+import com.bkb.scanner.dto.ChainVerificationReport.BrokenLink;
+import com.bkb.scanner.entity.ActivityArchiveIndex;
+import com.bkb.scanner.entity.ActivityCheckpoint;
+import com.bkb.scanner.repository.ActivityCheckpointRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Service;
+
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Checks activity hash chains without a global pass: a run covers one case or the cases written to
+ * in one time window, each case is verified on its own thread, and a case range is read in sequence
+ * order page by page. For every entry the stored hash is recomputed from its content and its link to
+ * the previous entry is checked; checkpoints lying inside the range must reproduce their Merkle root.
+ * Every range runs up to the case's chain head and must end on the head's hash, so entries removed
+ * or rewritten at the tail are caught as well.
+ * <p>
+ * A case run starts at the genesis entry and reads the case's archive segments before the hot table.
+ * A window run starts at the first entry written in the window; if its predecessor has already been
+ * archived, the range is anchored on the first entry's own previousHash.
+ */
+@Service
+@Slf4j
+public class ActivityChainVerifier {
+
+    private static final String HEAD_COLUMNS = "SELECT h.case_row_id, h.case_id AS case_key, " +
+            "h.last_sequence, h.last_hash, h.checkpoint_gap_sequence, ";
+
+    private static final String CASE_RANGE_SQL = HEAD_COLUMNS + "1 AS from_sequence " +
+            "FROM csob_activity_chain_heads h WHERE h.case_id = ? AND h.last_sequence > 0";
+
+    // A head's updated_at is set on every append, so any case with entries in the window qualifies.
+    // A case that has no entries left in the window is still checked at its tip.
+    private static final String WINDOW_RANGES_SQL = HEAD_COLUMNS +
+            "COALESCE((SELECT MIN(a.sequence) FROM csob_activity_logs a WHERE a.case_id = h.case_row_id " +
+            "AND a.timestamp >= ? AND a.timestamp < ?), h.last_sequence) AS from_sequence " +
+            "FROM csob_activity_chain_heads h WHERE h.updated_at >= ? AND h.last_sequence > 0";
+
+    private static final String PAGE_SQL = "SELECT " + ActivityRecord.columns("a") + " " +
+            "FROM csob_activity_logs a WHERE a.case_id = ? AND a.sequence > ? AND a.sequence <= ? " +
+            "ORDER BY a.sequence LIMIT ?";
+
+    private static final RowMapper<CaseRange> CASE_RANGE_MAPPER = (rs, rowNum) -> new CaseRange(
+            rs.getLong("case_row_id"),
+            rs.getString("case_key"),
+            rs.getLong("from_sequence"),
+            rs.getLong("last_sequence"),
+            rs.getString("last_hash"),
+            rs.getObject("checkpoint_gap_sequence", Long.class));
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ActivityCheckpointRepository checkpointRepository;
+    private final ActivityArchiveService archiveService;
+    private final ThreadPoolTaskExecutor verifyExecutor;
+    private final Counter verifiedRows;
+    private final Counter brokenLinks;
+
+    @Value("${audit.verify.enabled:true}")
+    private boolean enabled;
+
+    @Value("${audit.verify.page-size:1000}")
+    private int pageSize;
+
+    @Value("${audit.verify.max-reported-breaks:1000}")
+    private int maxReportedBreaks;
+
+    public ActivityChainVerifier(JdbcTemplate jdbcTemplate,
+                                 ActivityCheckpointRepository checkpointRepository,
+                                 ActivityArchiveService archiveService,
+                                 @Qualifier("auditVerifyExecutor") ThreadPoolTaskExecutor verifyExecutor,
+                                 MeterRegistry meterRegistry) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.checkpointRepository = checkpointRepository;
+        this.archiveService = archiveService;
+        this.verifyExecutor = verifyExecutor;
+        this.verifiedRows = meterRegistry.counter("audit.chain.verified.rows");
+        this.brokenLinks = meterRegistry.counter("audit.chain.broken.links");
+    }
+
+    /**
+     * Nightly check of everything written the previous day
+     */
+    @Scheduled(cron = "${audit.verify.cron:0 30 2 * * *}")
+    public void verifyPreviousDay() {
+        if (!enabled) {
+            return;
+        }
+
+        LocalDateTime today = LocalDate.now().atStartOfDay();
+        ChainVerificationReport report = verifyWindow(today.minusDays(1), today);
+        if (report.brokenLinks() > 0) {
+            log.error("Activity chain verification of {} found {} broken links: {}",
+                    report.scope(), report.brokenLinks(), report.breaks());
+        }
+    }
+
+    /**
+     * Verify a case's whole chain, archived entries included, from genesis to its head
+     */
+    public ChainVerificationReport verifyCase(String caseId) {
+        List<CaseRange> ranges = jdbcTemplate.query(CASE_RANGE_SQL, CASE_RANGE_MAPPER, caseId);
+        return run("case " + caseId, ranges);
+    }
+
+    /**
+     * Verify, per case, the chain from the first entry timestamped in [from, to) up to the case's head
+     */
+    public ChainVerificationReport verifyWindow(LocalDateTime from, LocalDateTime to) {
+        List<CaseRange> ranges = jdbcTemplate.query(WINDOW_RANGES_SQL, CASE_RANGE_MAPPER,
+                Timestamp.valueOf(from), Timestamp.valueOf(to), Timestamp.valueOf(from));
+        return run("window " + from + " - " + to, ranges);
+    }
+
+    private ChainVerificationReport run(String scope, List<CaseRange> ranges) {
+        long started = System.nanoTime();
+        Tally tally = new Tally();
+
+        List<Future<?>> tasks = new ArrayList<>(ranges.size());
+        for (CaseRange range : ranges) {
+            tasks.add(verifyExecutor.submit(() -> verifyRange(range, tally)));
+        }
+        for (int i = 0; i < tasks.size(); i++) {
+            try {
+                tasks.get(i).get();
+            } catch (ExecutionException e) {
+                CaseRange range = ranges.get(i);
+                tally.broken(range.caseId(), range.fromSequence(), null,
+                        "Verification failed: " + e.getCause().getMessage());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                tasks.forEach(task -> task.cancel(true));
+                throw new IllegalStateException("Interrupted while verifying " + scope, e);
+            }
+        }
+
+        long elapsedNanos = Math.max(1, System.nanoTime() - started);
+        long rows = tally.rows.sum();
+        double rowsPerSecond = rows * 1_000_000_000d / elapsedNanos;
+        verifiedRows.increment(rows);
+        brokenLinks.increment(tally.brokenCount.get());
+
+        log.info("Verified activity chains for {}: {} cases, {} rows, {} checkpoints, {} broken links " +
+                        "in {} ms ({} rows/s)", scope, ranges.size(), rows, tally.checkpoints.sum(),
+                tally.brokenCount.get(), elapsedNanos / 1_000_000, Math.round(rowsPerSecond));
+
+        return new ChainVerificationReport(scope, ranges.size(), rows, tally.checkpoints.sum(),
+                tally.brokenCount.get(), elapsedNanos / 1_000_000, rowsPerSecond, List.copyOf(tally.breaks));
+    }
+
+    private void verifyRange(CaseRange range, Tally tally) {
+        RangeWalk walk = new RangeWalk(range, tally);
+        if (range.checkpointGapSequence() != null) {
+            tally.broken(range.caseId(), range.checkpointGapSequence(), null,
+                    "Entry " + range.checkpointGapSequence() + " was missing when it was due for a checkpoint");
+        }
+
+        long after = range.fromSequence() - 1;
+        if (range.fromSequence() == 1) {
+            for (ActivityArchiveIndex member : archiveService.getArchivedMembers(range.caseId())) {
+                List<ActivityRecord> archived = new ArrayList<>(archiveService.readMember(member));
+                archived.sort(Comparator.comparingLong(ActivityRecord::sequence));
+                for (ActivityRecord entry : archived) {
+                    walk.accept(entry);
+                    after = entry.sequence();
+                }
+            }
+        }
+
+        List<ActivityRecord> page;
+        do {
+            page = jdbcTemplate.query(PAGE_SQL, (rs, rowNum) -> ActivityRecord.map(rs),
+                    range.caseRowId(), after, range.headSequence(), pageSize);
+            for (ActivityRecord entry : page) {
+                walk.accept(entry);
+                after = entry.sequence();
+            }
+        } while (page.size() == pageSize);
+
+        walk.finish();
+    }
+
+    /**
+     * Hash of the entry before the range, or null if it is no longer in the hot table
+     */
+    private String predecessorHash(CaseRange range) {
+        List<String> hashes = jdbcTemplate.queryForList(
+                "SELECT hash FROM csob_activity_logs WHERE case_id = ? AND sequence = ?",
+                String.class, range.caseRowId(), range.fromSequence() - 1);
+        return hashes.isEmpty() ? null : hashes.get(0);
+    }
+
+    private record CaseRange(long caseRowId, String caseId, long fromSequence, long headSequence,
+                             String headHash, Long checkpointGapSequence) {
+    }
+
+    /**
+     * Checks one case range entry by entry, in sequence order
+     */
+    private final class RangeWalk {
+        private final CaseRange range;
+        private final Tally tally;
+        private final Iterator<ActivityCheckpoint> checkpoints;
+        private final List<String> leaves = new ArrayList<>();
+        private ActivityCheckpoint checkpoint;
+        private long expectedSequence;
+        private String expectedPrevious;
+        private String lastHash;
+
+        RangeWalk(CaseRange range, Tally tally) {
+            this.range = range;
+            this.tally = tally;
+            this.checkpoints = checkpointRepository
+                    .findWithin(range.caseRowId(), range.fromSequence(), range.headSequence()).iterator();
+            this.checkpoint = checkpoints.hasNext() ? checkpoints.next() : null;
+            this.expectedSequence = range.fromSequence();
+            this.expectedPrevious = range.fromSequence() == 1 ? ActivityChain.GENESIS_HASH : predecessorHash(range);
+        }
+
+        void accept(ActivityRecord entry) {
+            String caseId = range.caseId();
+            if (entry.sequence() != expectedSequence) {
+                tally.broken(caseId, expectedSequence, null,
+                        "Entries " + expectedSequence + ".." + (entry.sequence() - 1) + " are missing");
+                expectedPrevious = null;
+            }
+            if (expectedPrevious != null && !expectedPrevious.equals(entry.previousHash())) {
+                tally.broken(caseId, entry.sequence(), entry.activityId(),
+                        "previousHash does not match the hash of entry " + (entry.sequence() - 1));
+            }
+            if (!ActivityChain.hash(entry.previousHash(), caseId, entry).equals(entry.hash())) {
+                tally.broken(caseId, entry.sequence(), entry.activityId(), "Content does not match its hash");
+            }
+
+            // Checkpoints skipped over by a gap are incomplete; the gap is already reported
+            while (checkpoint != null && entry.sequence() > checkpoint.getToSequence()) {
+                leaves.clear();
+                nextCheckpoint();
+            }
+            if (checkpoint != null && entry.sequence() >= checkpoint.getFromSequence()) {
+                leaves.add(entry.hash());
+                if (entry.sequence() == checkpoint.getToSequence()) {
+                    verifyCheckpoint(entry);
+                    leaves.clear();
+                    nextCheckpoint();
+                }
+            }
+
+            expectedPrevious = entry.hash();
+            expectedSequence = entry.sequence() + 1;
+            lastHash = entry.hash();
+            tally.rows.increment();
+        }
+
+        /**
+         * The range must run up to the head: missing or rewritten tail entries leave it short or off its hash
+         */
+        void finish() {
+            if (expectedSequence <= range.headSequence()) {
+                tally.broken(range.caseId(), expectedSequence, null, "Entries " + expectedSequence + ".."
+                        + range.headSequence() + " up to the chain head are missing");
+            } else if (!range.headHash().equals(lastHash)) {
+                tally.broken(range.caseId(), range.headSequence(), null,
+                        "Last entry does not match the hash recorded in the chain head");
+            }
+        }
+
+        private void verifyCheckpoint(ActivityRecord last) {
+            if (leaves.size() != checkpoint.getToSequence() - checkpoint.getFromSequence() + 1) {
+                return;
+            }
+            if (!ActivityChain.merkleRoot(leaves).equals(checkpoint.getMerkleRoot())
+                    || !checkpoint.getLastHash().equals(last.hash())) {
+                tally.broken(range.caseId(), checkpoint.getFromSequence(), null, "Checkpoint "
+                        + checkpoint.getFromSequence() + ".." + checkpoint.getToSequence()
+                        + " does not match the entries it covers");
+            }
+            tally.checkpoints.increment();
+        }
+
+        private void nextCheckpoint() {
+            checkpoint = checkpoints.hasNext() ? checkpoints.next() : null;
+        }
+    }
+
+    private final class Tally {
+        final LongAdder rows = new LongAdder();
+        final LongAdder checkpoints = new LongAdder();
+        final AtomicLong brokenCount = new AtomicLong();
+        final Queue<BrokenLink> breaks = new ConcurrentLinkedQueue<>();
+
+        void broken(String caseId, long sequence, String activityId, String reason) {
+            if (brokenCount.incrementAndGet() <= maxReportedBreaks) {
+                breaks.add(new BrokenLink(caseId, sequence, activityId, reason));
+            }
+        }
+    }
+}
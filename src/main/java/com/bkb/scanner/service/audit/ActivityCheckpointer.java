@@ -0,0 +1,112 @@
+package com.bkb.scanner.service.audit;
+
+import com.bkb.scanner.entity.ActivityChainHead;
+import com.bkb.scanner.entity.ActivityCheckpoint;
+import com.bkb.scanner.repository.ActivityChainHeadRepository;
+import com.bkb.scanner.repository.ActivityCheckpointRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Periodically seals the entries each case appended since its last checkpoint into Merkle-root
+ * checkpoints of at most checkpoint-max-leaves entries, so verification can work range by range.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class ActivityCheckpointer {
+
+    private static final int HEADS_PER_BATCH = 100;
+
+    private final ActivityChainHeadRepository chainHeadRepository;
+    private final ActivityCheckpointRepository checkpointRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${audit.chain.checkpoint-max-leaves:4096}")
+    private int maxLeaves;
+
+    @Scheduled(initialDelayString = "${audit.chain.checkpoint-initial-delay-ms:60000}",
+            fixedDelayString = "${audit.chain.checkpoint-interval-ms:3600000}")
+    public void checkpoint() {
+        int cases = 0;
+        while (true) {
+            Integer sealed = transactionTemplate.execute(status -> checkpointBatch());
+            if (sealed == null || sealed == 0) {
+                break;
+            }
+            cases += sealed;
+        }
+
+        if (cases > 0) {
+            log.info("Checkpointed activity chains of {} cases", cases);
+        }
+    }
+
+    private int checkpointBatch() {
+        List<ActivityChainHead> heads = chainHeadRepository.lockUncheckpointed(HEADS_PER_BATCH);
+        for (ActivityChainHead head : heads) {
+            long from = head.getCheckpointedSequence() + 1;
+            while (from <= head.getLastSequence()) {
+                long to = Math.min(head.getLastSequence(), from + maxLeaves - 1);
+                if (!seal(head, from, to)) {
+                    break;
+                }
+                head.setCheckpointedSequence(to);
+                from = to + 1;
+            }
+        }
+        return heads.size();
+    }
+
+    /**
+     * Record a checkpoint over entries from..to, or mark the head with a gap if any of them is missing
+     */
+    private boolean seal(ActivityChainHead head, long from, long to) {
+        List<Leaf> leaves = jdbcTemplate.query(
+                "SELECT sequence, hash, timestamp FROM csob_activity_logs " +
+                        "WHERE case_id = ? AND sequence BETWEEN ? AND ? ORDER BY sequence",
+                (rs, rowNum) -> new Leaf(rs.getLong("sequence"), rs.getString("hash"),
+                        rs.getTimestamp("timestamp").toLocalDateTime()),
+                head.getCaseRowId(), from, to);
+
+        if (leaves.size() != to - from + 1) {
+            // Removed, or archived before it was sealed: a checkpoint cannot cover it. The head stops
+            // here and keeps the gap, which the verifier reports as a broken link.
+            long missing = from;
+            for (Leaf leaf : leaves) {
+                if (leaf.sequence() != missing) {
+                    break;
+                }
+                missing++;
+            }
+            head.setCheckpointGapSequence(missing);
+            log.error("Cannot checkpoint case {} past entry {}: only {} of entries {}..{} are present",
+                    head.getCaseId(), missing - 1, leaves.size(), from, to);
+            return false;
+        }
+
+        ActivityCheckpoint checkpoint = new ActivityCheckpoint();
+        checkpoint.setCaseRowId(head.getCaseRowId());
+        checkpoint.setCaseId(head.getCaseId());
+        checkpoint.setFromSequence(from);
+        checkpoint.setToSequence(to);
+        checkpoint.setMerkleRoot(ActivityChain.merkleRoot(leaves.stream().map(Leaf::hash).toList()));
+        checkpoint.setLastHash(leaves.get(leaves.size() - 1).hash());
+        checkpoint.setFromTimestamp(leaves.get(0).timestamp());
+        checkpoint.setToTimestamp(leaves.get(leaves.size() - 1).timestamp());
+        checkpointRepository.save(checkpoint);
+        return true;
+    }
+
+    private record Leaf(long sequence, String hash, LocalDateTime timestamp) {
+    }
+}
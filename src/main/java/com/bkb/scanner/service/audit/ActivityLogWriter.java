@@ -0,0 +1,149 @@
+package com.bkb.scanner.service.audit;
+
+import com.bkb.scanner.entity.ActivityChainHead;
+import com.bkb.scanner.entity.ActivityOutbox;
+import com.bkb.scanner.repository.ActivityChainHeadRepository;
+import com.bkb.scanner.repository.ActivityOutboxRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.*;
+
+/**
+ * Append-only audit pipeline. Request paths only append a narrow outbox row inside the caller's
+ * transaction ({@link #append} is {@code MANDATORY}), so the event commits or rolls back with the
+ * change it describes; this writer drains the outbox in id order and moves the events into
+ * csob_activity_logs with one JDBC batch per drain, so Hibernate never manages activity history.
+ * <p>
+ * Draining relies on MySQL 8 SQL: nodes take disjoint batches through {@code FOR UPDATE SKIP LOCKED}
+ * ({@link ActivityOutboxRepository#lockBatch}) and chain heads are created with {@code INSERT IGNORE}
+ * ({@link ActivityChainHeadRepository#insertIfAbsent}). Porting to another database means
+ * replacing both queries.
+ * <p>
+ * The writer is also where entries join their case's hash chain ({@link ActivityChain}): the
+ * affected chain heads are locked for the batch, so each case's sequence stays gap-free and ordered.
+ */
+@Service
+@Slf4j
+public class ActivityLogWriter {
+
+    private static final String INSERT_SQL = "INSERT INTO csob_activity_logs " +
+            "(activity_id, case_id, timestamp, actor, actor_role, actor_id, action, action_type, " +
+            "entity_type, entity_id, details, previous_value, new_value, sequence, previous_hash, hash) " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    private final ActivityOutboxRepository outboxRepository;
+    private final ActivityChainHeadRepository chainHeadRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final int batchSize;
+
+    public ActivityLogWriter(ActivityOutboxRepository outboxRepository,
+                             ActivityChainHeadRepository chainHeadRepository,
+                             JdbcTemplate jdbcTemplate,
+                             TransactionTemplate transactionTemplate,
+                             @Value("${audit.writer.batch-size:500}") int batchSize) {
+        this.outboxRepository = outboxRepository;
+        this.chainHeadRepository = chainHeadRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.batchSize = batchSize;
+    }
+
+    /**
+     * Record an activity as part of the caller's transaction; it commits or rolls back with the change
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public ActivityOutbox append(ActivityOutbox event) {
+        return outboxRepository.save(event);
+    }
+
+    @Scheduled(fixedDelayString = "${audit.writer.poll-interval-ms:500}")
+    public void drain() {
+        int written;
+        do {
+            Integer count = transactionTemplate.execute(status -> writeBatch());
+            written = count != null ? count : 0;
+        } while (written == batchSize);
+    }
+
+    private int writeBatch() {
+        List<ActivityOutbox> batch = outboxRepository.lockBatch(batchSize);
+        if (batch.isEmpty()) {
+            return 0;
+        }
+
+        List<ChainedEvent> chained = chain(batch);
+        jdbcTemplate.batchUpdate(INSERT_SQL, chained, chained.size(), (ps, entry) -> {
+            ActivityOutbox event = entry.event();
+            ActivityRecord record = entry.record();
+            ps.setString(1, record.activityId());
+            ps.setLong(2, event.getCaseRowId());
+            ps.setTimestamp(3, Timestamp.valueOf(record.timestamp()));
+            ps.setString(4, record.actor());
+            ps.setString(5, record.actorRole());
+            ps.setString(6, record.actorId());
+            ps.setString(7, record.action());
+            ps.setString(8, record.actionType());
+            ps.setString(9, record.entityType());
+            ps.setString(10, record.entityId());
+            ps.setString(11, record.details());
+            ps.setString(12, record.previousValue());
+            ps.setString(13, record.newValue());
+            ps.setLong(14, record.sequence());
+            ps.setString(15, record.previousHash());
+            ps.setString(16, record.hash());
+        });
+        outboxRepository.deleteAllByIdInBatch(batch.stream().map(ActivityOutbox::getId).toList());
+
+        log.debug("Wrote {} activity log entries", batch.size());
+        return batch.size();
+    }
+
+    /**
+     * Assign each event the next sequence of its case and link it to the previous entry's hash.
+     * The locked heads are managed entities, so their new tips commit together with the rows.
+     */
+    private List<ChainedEvent> chain(List<ActivityOutbox> batch) {
+        Map<Long, String> caseIds = new TreeMap<>();
+        batch.forEach(event -> caseIds.putIfAbsent(event.getCaseRowId(), event.getCaseId()));
+        caseIds.forEach((caseRowId, caseId) ->
+                chainHeadRepository.insertIfAbsent(caseRowId, caseId, ActivityChain.GENESIS_HASH));
+
+        Map<Long, ActivityChainHead> heads = new HashMap<>();
+        chainHeadRepository.findByCaseRowIdInOrderByCaseRowIdAsc(caseIds.keySet())
+                .forEach(head -> heads.put(head.getCaseRowId(), head));
+
+        LocalDateTime now = LocalDateTime.now();
+        List<ChainedEvent> chained = new ArrayList<>(batch.size());
+        for (ActivityOutbox event : batch) {
+            ActivityChainHead head = heads.get(event.getCaseRowId());
+            ActivityRecord unhashed = toRecord(event, head.getLastSequence() + 1, head.getLastHash(), null);
+            String hash = ActivityChain.hash(head.getLastHash(), event.getCaseId(), unhashed);
+            chained.add(new ChainedEvent(event, toRecord(event, unhashed.sequence(), head.getLastHash(), hash)));
+
+            head.setLastSequence(unhashed.sequence());
+            head.setLastHash(hash);
+            head.setUpdatedAt(now);
+        }
+        return chained;
+    }
+
+    private static ActivityRecord toRecord(ActivityOutbox event, long sequence, String previousHash, String hash) {
+        return new ActivityRecord(event.getActivityId(), sequence, ActivityChain.normalize(event.getTimestamp()),
+                event.getActor(), event.getActorRole(), event.getActorId(), event.getAction(),
+                event.getActionType(), event.getEntityType(), event.getEntityId(), event.getDetails(),
+                event.getPreviousValue(), event.getNewValue(), null, null, null, previousHash, hash);
+    }
+
+    private record ChainedEvent(ActivityOutbox event, ActivityRecord record) {
+    }
+}
@@ -0,0 +1,74 @@
+package com.bkb.scanner.service.audit;
+
+import com.bkb.scanner.dto.ActivityEntry;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+
+/**
+ * Full content of one activity log row, independent of where it is stored. This is the line format
+ * of archive segments and the input of {@link ActivityChain#hash}, so archived history carries its
+ * chain fields and can be verified like the hot table.
+ */
+public record ActivityRecord(
+        String activityId,
+        long sequence,
+        LocalDateTime timestamp,
+        String actor,
+        String actorRole,
+        String actorId,
+        String action,
+        String actionType,
+        String entityType,
+        String entityId,
+        String details,
+        String previousValue,
+        String newValue,
+        String ipAddress,
+        String userAgent,
+        String sessionId,
+        String previousHash,
+        String hash
+) {
+
+    /**
+     * Columns read by {@link #map}, qualified with the given table alias
+     */
+    static String columns(String alias) {
+        return String.join(", ",
+                alias + ".activity_id", alias + ".sequence", alias + ".timestamp", alias + ".actor",
+                alias + ".actor_role", alias + ".actor_id", alias + ".action", alias + ".action_type",
+                alias + ".entity_type", alias + ".entity_id", alias + ".details", alias + ".previous_value",
+                alias + ".new_value", alias + ".ip_address", alias + ".user_agent", alias + ".session_id",
+                alias + ".previous_hash", alias + ".hash");
+    }
+
+    static ActivityRecord map(ResultSet rs) throws SQLException {
+        return new ActivityRecord(
+                rs.getString("activity_id"),
+                rs.getLong("sequence"),
+                rs.getTimestamp("timestamp").toLocalDateTime(),
+                rs.getString("actor"),
+                rs.getString("actor_role"),
+                rs.getString("actor_id"),
+                rs.getString("action"),
+                rs.getString("action_type"),
+                rs.getString("entity_type"),
+                rs.getString("entity_id"),
+                rs.getString("details"),
+                rs.getString("previous_value"),
+                rs.getString("new_value"),
+                rs.getString("ip_address"),
+                rs.getString("user_agent"),
+                rs.getString("session_id"),
+                rs.getString("previous_hash"),
+                rs.getString("hash")
+        );
+    }
+
+    ActivityEntry toEntry() {
+        return new ActivityEntry(null, activityId, timestamp, actor, actorRole, action, entityType, entityId,
+                details, previousValue, newValue);
+    }
+}
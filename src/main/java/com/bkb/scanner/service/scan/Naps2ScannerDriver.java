@@ -0,0 +1,136 @@
+package com.bkb.scanner.service.scan;
+
+import com.bkb.scanner.entity.ScanProfile;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.IntConsumer;
+
+/**
+ * Runs the NAPS2 console as an external process. Console output is redirected to a log
+ * file beside the output so progress can be read without a reader thread per scan.
+ * Pointing {@code naps2.exe.path} at a script that writes a PDF gives a local stand-in scanner.
+ */
+@Component
+@Slf4j
+public class Naps2ScannerDriver implements ScannerDriver {
+
+    private static final long POLL_INTERVAL_MS = 500;
+
+    private final String naps2ExePath;
+
+    public Naps2ScannerDriver(@Value("${naps2.exe.path}") String naps2ExePath) {
+        this.naps2ExePath = naps2ExePath;
+    }
+
+    @Override
+    public void scan(String scanId, ScanProfile profile, Path output, Duration timeout, IntConsumer progressListener)
+            throws IOException, InterruptedException, TimeoutException {
+        Files.createDirectories(output.getParent());
+        Path consoleLog = output.resolveSibling(scanId + ".log");
+
+        Process process = new ProcessBuilder(buildCommand(profile, output))
+                .redirectErrorStream(true)
+                .redirectOutput(consoleLog.toFile())
+                .start();
+        progressListener.accept(5);
+
+        try {
+            long deadline = System.nanoTime() + timeout.toNanos();
+            int lastProgress = 5;
+            while (!process.waitFor(POLL_INTERVAL_MS, TimeUnit.MILLISECONDS)) {
+                if (System.nanoTime() > deadline) {
+                    process.destroyForcibly();
+                    throw new TimeoutException("Scan " + scanId + " exceeded " + timeout.toSeconds() + "s");
+                }
+                int progress = estimateProgress(consoleLog);
+                if (progress > lastProgress) {
+                    lastProgress = progress;
+                    progressListener.accept(progress);
+                }
+            }
+
+            if (process.exitValue() != 0) {
+                throw new IOException("NAPS2 exited with code " + process.exitValue() + ": " + lastLine(consoleLog));
+            }
+            if (!Files.exists(output) || Files.size(output) == 0) {
+                throw new IOException("NAPS2 produced no output for scan " + scanId);
+            }
+            progressListener.accept(100);
+        } finally {
+            if (process.isAlive()) {
+                process.destroyForcibly();
+            }
+            Files.deleteIfExists(consoleLog);
+        }
+    }
+
+    private List<String> buildCommand(ScanProfile profile, Path output) {
+        List<String> command = new ArrayList<>();
+        command.add(naps2ExePath);
+        command.add("-o");
+        command.add(output.toString());
+        command.add("--force");
+
+        if (profile != null) {
+            command.add("--noprofile");
+            if (profile.getScannerDevice() != null) {
+                command.add("--device");
+                command.add(profile.getScannerDevice());
+            }
+            if (profile.getResolution() != null) {
+                command.add("--dpi");
+                command.add(String.valueOf(profile.getResolution()));
+            }
+            if (profile.getColorMode() != null) {
+                command.add("--bitdepth");
+                command.add(switch (profile.getColorMode()) {
+                    case "Grayscale" -> "gray";
+                    case "BlackWhite" -> "bw";
+                    default -> "color";
+                });
+            }
+            if (profile.getPaperSize() != null) {
+                command.add("--pagesize");
+                command.add(profile.getPaperSize().toLowerCase());
+            }
+            command.add("--source");
+            command.add(Boolean.TRUE.equals(profile.getDuplex()) ? "duplex" : "glass");
+        }
+        return command;
+    }
+
+    /**
+     * NAPS2 logs one line per scanned page; each page moves progress up, capped below 100
+     * until the process has actually exited.
+     */
+    private int estimateProgress(Path consoleLog) {
+        try {
+            long pages = Files.readAllLines(consoleLog, StandardCharsets.UTF_8).stream()
+                    .filter(line -> line.toLowerCase().contains("page"))
+                    .count();
+            return (int) Math.min(90, 10 + pages * 15);
+        } catch (IOException e) {
+            return 0;
+        }
+    }
+
+    private String lastLine(Path consoleLog) {
+        try {
+            List<String> lines = Files.readAllLines(consoleLog, StandardCharsets.UTF_8);
+            return lines.isEmpty() ? "" : lines.get(lines.size() - 1);
+        } catch (IOException e) {
+            return "";
+        }
+    }
+}
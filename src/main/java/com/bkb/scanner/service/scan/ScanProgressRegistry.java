@@ -0,0 +1,155 @@
+package com.bkb.scanner.service.scan;
+
+import com.bkb.scanner.dto.ScanStatusResponse;
+import com.bkb.scanner.entity.ScanQueue;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Node-local view of the scans this instance is running or has recently finished.
+ * Every change is pushed to the initiating user on {@code /user/queue/scan/{scanId}};
+ * status queries are answered from here and only fall back to {@code csob_scan_queue}
+ * for scans this node does not know about. Progress is persisted in steps of
+ * {@code scan.progress.persist-step} percent so the row stays roughly current for
+ * other nodes and crash recovery without a write per page.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class ScanProgressRegistry {
+
+    private static final String DESTINATION_PREFIX = "/queue/scan/";
+
+    private final SimpMessagingTemplate messagingTemplate;
+
+    private final Map<String, Entry> scans = new ConcurrentHashMap<>();
+
+    @Value("${scan.progress.persist-step:10}")
+    private int persistStep;
+
+    @Value("${scan.progress.retention-minutes:10}")
+    private long retentionMinutes;
+
+    /**
+     * Start tracking a scan a worker has just claimed
+     */
+    public void started(ScanQueue scan) {
+        Entry entry = new Entry(scan.getRequestedBy(), status(scan.getScanId(), scan.getStatus(), 0, null, null), 0);
+        scans.put(scan.getScanId(), entry);
+        publish(scan.getScanId(), entry);
+    }
+
+    /**
+     * Record scanner progress and push it to the user.
+     *
+     * @return true when the change is large enough that the database row should be updated too
+     */
+    public boolean progress(String scanId, int progress) {
+        boolean[] advanced = new boolean[1];
+        Entry updated = scans.computeIfPresent(scanId, (id, entry) -> {
+            // Ignore stale or repeated values, and late events for a scan that already moved on
+            if (!entry.isScanning() || progress <= entry.response().getProgress()) {
+                return entry;
+            }
+            advanced[0] = true;
+            ScanStatusResponse response = status(id, ScanQueue.ScanStatus.SCANNING, progress, null, null);
+            int persisted = progress - entry.persistedProgress() >= persistStep ? progress : entry.persistedProgress();
+            return new Entry(entry.requestedBy(), response, persisted);
+        });
+        if (!advanced[0]) {
+            return false;
+        }
+        publish(scanId, updated);
+        return updated.persistedProgress() == progress;
+    }
+
+    /**
+     * Record a status change that has already been written to the database
+     */
+    public void changed(String scanId, String requestedBy, ScanQueue.ScanStatus status, Integer progress,
+                        String documentId, String error) {
+        Entry entry = scans.compute(scanId, (id, previous) -> {
+            String user = previous != null ? previous.requestedBy() : requestedBy;
+            int current = progress != null ? progress : previous != null ? previous.response().getProgress() : 0;
+            return new Entry(user, status(id, status, current, documentId, error), current);
+        });
+        publish(scanId, entry);
+    }
+
+    /**
+     * The scan went back to the queue and may be picked up by another node, so stop answering for it
+     */
+    public void requeued(String scanId, String error) {
+        Entry entry = scans.remove(scanId);
+        if (entry != null) {
+            publish(scanId, new Entry(entry.requestedBy(),
+                    status(scanId, ScanQueue.ScanStatus.PENDING, 0, null, error), 0));
+        }
+    }
+
+    /**
+     * Stop answering for a scan whose row another node now owns; status queries fall back to the database
+     */
+    public void forget(String scanId) {
+        scans.remove(scanId);
+    }
+
+    public Optional<ScanStatusResponse> get(String scanId) {
+        return Optional.ofNullable(scans.get(scanId)).map(Entry::response);
+    }
+
+    @Scheduled(fixedDelay = 60_000)
+    public void evictFinished() {
+        Instant cutoff = Instant.now().minus(Duration.ofMinutes(retentionMinutes));
+        scans.entrySet().removeIf(e -> e.getValue().isFinished() && e.getValue().updatedAt().isBefore(cutoff));
+    }
+
+    private void publish(String scanId, Entry entry) {
+        if (entry.requestedBy() == null) {
+            return;
+        }
+        try {
+            messagingTemplate.convertAndSendToUser(entry.requestedBy(), DESTINATION_PREFIX + scanId, entry.response());
+        } catch (Exception e) {
+            // Delivery is best effort; the client can always fall back to GET /scan/status
+            log.warn("Failed to publish progress for scan {}: {}", scanId, e.getMessage());
+        }
+    }
+
+    private static ScanStatusResponse status(String scanId, ScanQueue.ScanStatus status, int progress,
+                                             String documentId, String error) {
+        return ScanStatusResponse.builder()
+                .scanId(scanId)
+                .status(status.toString().toLowerCase())
+                .progress(progress)
+                .documentId(documentId)
+                .error(error)
+                .build();
+    }
+
+    private record Entry(String requestedBy, ScanStatusResponse response, int persistedProgress, Instant updatedAt) {
+
+        Entry(String requestedBy, ScanStatusResponse response, int persistedProgress) {
+            this(requestedBy, response, persistedProgress, Instant.now());
+        }
+
+        boolean isScanning() {
+            return "scanning".equals(response.getStatus());
+        }
+
+        boolean isFinished() {
+            String status = response.getStatus();
+            return "completed".equals(status) || "failed".equals(status);
+        }
+    }
+}
@@ -0,0 +1,257 @@
+package com.bkb.scanner.service.scan;
+
+import com.bkb.scanner.entity.Document;
+import com.bkb.scanner.entity.ScanProfile;
+import com.bkb.scanner.entity.ScanQueue;
+import com.bkb.scanner.repository.ScanProfileRepository;
+import com.bkb.scanner.repository.ScanQueueRepository;
+import com.bkb.scanner.service.DocumentService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.Semaphore;
+
+/**
+ * Executes queued scans. A scheduled poller claims PENDING rows with
+ * {@code SELECT ... FOR UPDATE SKIP LOCKED}, so several application nodes can share the
+ * queue without double-processing, and hands each one to the bounded scan executor.
+ * Rows move PENDING -> SCANNING -> PROCESSING -> COMPLETED, or back to PENDING on a
+ * retryable failure until {@code scan.max.retries} is exhausted, then FAILED.
+ */
+@Component
+@Slf4j
+public class ScanWorker {
+
+    private static final List<ScanQueue.ScanStatus> ACTIVE_STATUSES =
+            List.of(ScanQueue.ScanStatus.SCANNING, ScanQueue.ScanStatus.PROCESSING);
+
+    private final ScanQueueRepository scanQueueRepository;
+    private final ScanProfileRepository scanProfileRepository;
+    private final ScannerDriver scannerDriver;
+    private final ScanProgressRegistry progressRegistry;
+    private final DocumentService documentService;
+    private final TransactionTemplate transactionTemplate;
+    private final ThreadPoolTaskExecutor scanExecutor;
+    private final Semaphore freeWorkers;
+
+    @Value("${scan.temp.directory}")
+    private String scanTempDirectory;
+
+    @Value("${scan.timeout.seconds:300}")
+    private long timeoutSeconds;
+
+    @Value("${scan.max.retries:3}")
+    private int maxRetries;
+
+    public ScanWorker(ScanQueueRepository scanQueueRepository,
+                      ScanProfileRepository scanProfileRepository,
+                      ScannerDriver scannerDriver,
+                      ScanProgressRegistry progressRegistry,
+                      DocumentService documentService,
+                      TransactionTemplate transactionTemplate,
+                      @Qualifier("scanExecutor") ThreadPoolTaskExecutor scanExecutor) {
+        this.scanQueueRepository = scanQueueRepository;
+        this.scanProfileRepository = scanProfileRepository;
+        this.scannerDriver = scannerDriver;
+        this.progressRegistry = progressRegistry;
+        this.documentService = documentService;
+        this.transactionTemplate = transactionTemplate;
+        this.scanExecutor = scanExecutor;
+        this.freeWorkers = new Semaphore(scanExecutor.getMaxPoolSize());
+    }
+
+    @Scheduled(fixedDelayString = "${scan.worker.poll-interval-ms:2000}")
+    public void poll() {
+        requeueStaleScans();
+
+        int capacity = freeWorkers.availablePermits();
+        if (capacity == 0) {
+            return;
+        }
+
+        List<ScanQueue> claimed = transactionTemplate.execute(status -> claim(capacity));
+        if (claimed == null) {
+            return;
+        }
+
+        for (ScanQueue scan : claimed) {
+            progressRegistry.started(scan);
+            // Only this poller acquires permits, so a permit counted above is still free
+            freeWorkers.acquireUninterruptibly();
+            try {
+                scanExecutor.execute(() -> {
+                    try {
+                        process(scan);
+                    } finally {
+                        freeWorkers.release();
+                    }
+                });
+            } catch (TaskRejectedException e) {
+                freeWorkers.release();
+                log.warn("Scan executor rejected {}, returning it to the queue", scan.getScanId());
+                transactionTemplate.executeWithoutResult(status -> scanQueueRepository.transition(
+                        scan.getScanId(), ScanQueue.ScanStatus.SCANNING, ScanQueue.ScanStatus.PENDING));
+                progressRegistry.requeued(scan.getScanId(), null);
+            }
+        }
+    }
+
+    private List<ScanQueue> claim(int limit) {
+        List<ScanQueue> pending = scanQueueRepository.lockPending(limit);
+        LocalDateTime now = LocalDateTime.now();
+        for (ScanQueue scan : pending) {
+            scan.setStatus(ScanQueue.ScanStatus.SCANNING);
+            scan.setStartedAt(now);
+            scan.setProgress(0);
+            scan.setAttempts(scan.getAttempts() + 1);
+        }
+        return scanQueueRepository.saveAll(pending);
+    }
+
+    private void process(ScanQueue scan) {
+        String scanId = scan.getScanId();
+        Path output = Paths.get(scanTempDirectory).resolve(scanId + ".pdf");
+        log.info("Starting scan {} (attempt {})", scanId, scan.getAttempts());
+
+        try {
+            ScanProfile profile = scan.getScanProfile() != null
+                    ? scanProfileRepository.findByProfileName(scan.getScanProfile()).orElse(null)
+                    : null;
+
+            scannerDriver.scan(scanId, profile, output, Duration.ofSeconds(timeoutSeconds),
+                    progress -> onProgress(scanId, progress));
+
+            if (!transition(scanId, ScanQueue.ScanStatus.SCANNING, ScanQueue.ScanStatus.PROCESSING)) {
+                log.info("Scan {} was cancelled while scanning, discarding output", scanId);
+                transactionTemplate.executeWithoutResult(status ->
+                        settle(scanId, scanQueueRepository.findByScanId(scanId).orElse(null)));
+                return;
+            }
+            progressRegistry.changed(scanId, scan.getRequestedBy(), ScanQueue.ScanStatus.PROCESSING, null, null, null);
+
+            Document document = documentService.registerDocument(
+                    output,
+                    scan.getDocType() + ".pdf",
+                    MediaType.APPLICATION_PDF_VALUE,
+                    scan.getPartyId(),
+                    scan.getDocType(),
+                    null,
+                    null,
+                    "Scanner"
+            );
+            complete(scanId, document.getDocId());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            fail(scanId, "Scan interrupted");
+        } catch (Exception e) {
+            log.warn("Scan {} failed: {}", scanId, e.getMessage());
+            fail(scanId, e.getMessage());
+        } finally {
+            try {
+                Files.deleteIfExists(output);
+            } catch (IOException e) {
+                log.warn("Failed to delete scan output {}: {}", output, e.getMessage());
+            }
+        }
+    }
+
+    private void onProgress(String scanId, int progress) {
+        if (progressRegistry.progress(scanId, progress)) {
+            transactionTemplate.executeWithoutResult(status ->
+                    scanQueueRepository.updateProgress(scanId, ScanQueue.ScanStatus.SCANNING, progress));
+        }
+    }
+
+    private boolean transition(String scanId, ScanQueue.ScanStatus from, ScanQueue.ScanStatus to) {
+        Integer updated = transactionTemplate.execute(status -> scanQueueRepository.transition(scanId, from, to));
+        return updated != null && updated > 0;
+    }
+
+    private void complete(String scanId, String documentId) {
+        transactionTemplate.executeWithoutResult(status -> {
+            ScanQueue scan = scanQueueRepository.findByScanId(scanId).orElse(null);
+            if (scan == null || scan.getStatus() != ScanQueue.ScanStatus.PROCESSING) {
+                settle(scanId, scan);
+                return;
+            }
+            scan.setStatus(ScanQueue.ScanStatus.COMPLETED);
+            scan.setProgress(100);
+            scan.setDocumentId(documentId);
+            scan.setErrorMessage(null);
+            scan.setCompletedAt(LocalDateTime.now());
+            scanQueueRepository.save(scan);
+            progressRegistry.changed(scanId, scan.getRequestedBy(), scan.getStatus(), 100, documentId, null);
+            log.info("Scan {} completed as document {}", scanId, documentId);
+        });
+    }
+
+    private void fail(String scanId, String error) {
+        transactionTemplate.executeWithoutResult(status -> {
+            ScanQueue scan = scanQueueRepository.findByScanId(scanId).orElse(null);
+            if (scan == null || !ACTIVE_STATUSES.contains(scan.getStatus())) {
+                settle(scanId, scan);
+                return;
+            }
+            scan.setErrorMessage(error);
+            if (scan.getAttempts() < maxRetries) {
+                scan.setStatus(ScanQueue.ScanStatus.PENDING);
+                scan.setProgress(0);
+                scanQueueRepository.save(scan);
+                progressRegistry.requeued(scanId, error);
+            } else {
+                scan.setStatus(ScanQueue.ScanStatus.FAILED);
+                scan.setCompletedAt(LocalDateTime.now());
+                scanQueueRepository.save(scan);
+                progressRegistry.changed(scanId, scan.getRequestedBy(), scan.getStatus(),
+                        scan.getProgress(), null, error);
+            }
+        });
+    }
+
+    /**
+     * The row was moved on elsewhere (cancelled, or requeued and claimed by another node): publish its
+     * final state, or stop tracking it here, so the registry never keeps a scan this worker let go of
+     */
+    private void settle(String scanId, ScanQueue scan) {
+        if (scan != null && (scan.getStatus() == ScanQueue.ScanStatus.COMPLETED
+                || scan.getStatus() == ScanQueue.ScanStatus.FAILED)) {
+            progressRegistry.changed(scanId, scan.getRequestedBy(), scan.getStatus(), scan.getProgress(),
+                    scan.getDocumentId(), scan.getErrorMessage());
+        } else {
+            progressRegistry.forget(scanId);
+        }
+    }
+
+    /**
+     * A scan still active well past its timeout belongs to a worker that died; put it back in the queue,
+     * or fail it once it has had scan.max.retries attempts so a scan that kills its worker is not retried forever
+     */
+    private void requeueStaleScans() {
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime cutoff = now.minusSeconds(timeoutSeconds * 2);
+        Integer failed = transactionTemplate.execute(status -> scanQueueRepository.failStale(
+                ACTIVE_STATUSES, ScanQueue.ScanStatus.FAILED, cutoff, maxRetries, "Scan worker stopped responding on every attempt", now));
+        Integer requeued = transactionTemplate.execute(status ->
+                scanQueueRepository.requeueStale(ACTIVE_STATUSES, ScanQueue.ScanStatus.PENDING, cutoff, maxRetries));
+        if (failed != null && failed > 0) {
+            log.error("Failed {} stale scans that exhausted their attempts", failed);
+        }
+        if (requeued != null && requeued > 0) {
+            log.warn("Requeued {} stale scans", requeued);
+        }
+    }
+}
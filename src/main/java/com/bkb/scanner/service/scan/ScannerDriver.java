@@ -0,0 +1,25 @@
+package com.bkb.scanner.service.scan;
+
+import com.bkb.scanner.entity.ScanProfile;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.concurrent.TimeoutException;
+import java.util.function.IntConsumer;
+
+/**
+ * Drives a physical (or simulated) scanner to produce a single output file.
+ * Implementations run synchronously on a scan worker thread.
+ */
+public interface ScannerDriver {
+
+    /**
+     * Scan into {@code output}, reporting progress as a percentage in [0, 100].
+     *
+     * @param profile scan settings, or null to use the driver's defaults
+     * @throws TimeoutException if the scan does not finish within {@code timeout}
+     */
+    void scan(String scanId, ScanProfile profile, Path output, Duration timeout, IntConsumer progressListener)
+            throws IOException, InterruptedException, TimeoutException;
+}
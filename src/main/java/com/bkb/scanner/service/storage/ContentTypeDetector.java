@@ -0,0 +1,111 @@
+package com.bkb.scanner.service.storage;
+
+import org.springframework.http.MediaType;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
+import java.util.Set;
+
+/**
+ * Detects the MIME type of an upload from its leading magic bytes rather than the
+ * client-supplied Content-Type. Only the formats branch scanners and users actually
+ * send are recognised; anything else falls back to the declared type.
+ */
+public final class ContentTypeDetector {
+
+    /**
+     * Number of leading bytes needed by {@link #detect}; callers mark/reset around a peek of this size
+     */
+    public static final int HEADER_LENGTH = 18;
+
+    private static final String OOXML_PREFIX = "application/vnd.openxmlformats-officedocument.";
+
+    // BITMAPCOREHEADER, BITMAPINFOHEADER, V2, V3, V4 and V5 header sizes
+    private static final Set<Integer> BMP_DIB_HEADER_SIZES = Set.of(12, 40, 52, 56, 108, 124);
+
+    private ContentTypeDetector() {
+    }
+
+    /**
+     * Peek at the stream's header without consuming it. The stream must support mark/reset.
+     */
+    public static String detect(InputStream in, String declaredType) throws IOException {
+        if (!in.markSupported()) {
+            throw new IllegalArgumentException("Stream must support mark/reset");
+        }
+        in.mark(HEADER_LENGTH);
+        byte[] header;
+        try {
+            header = in.readNBytes(HEADER_LENGTH);
+        } finally {
+            in.reset();
+        }
+        return detect(header, declaredType);
+    }
+
+    static String detect(byte[] header, String declaredType) {
+        if (startsWith(header, '%', 'P', 'D', 'F', '-')) {
+            return MediaType.APPLICATION_PDF_VALUE;
+        }
+        if (startsWith(header, 0x89, 'P', 'N', 'G', 0x0D, 0x0A, 0x1A, 0x0A)) {
+            return MediaType.IMAGE_PNG_VALUE;
+        }
+        if (startsWith(header, 0xFF, 0xD8, 0xFF)) {
+            return MediaType.IMAGE_JPEG_VALUE;
+        }
+        if (startsWith(header, 'G', 'I', 'F', '8')) {
+            return MediaType.IMAGE_GIF_VALUE;
+        }
+        if (startsWith(header, 'I', 'I', 0x2A, 0x00) || startsWith(header, 'M', 'M', 0x00, 0x2A)) {
+            return "image/tiff";
+        }
+        if (isBitmap(header)) {
+            return "image/bmp";
+        }
+        if (startsWith(header, 'P', 'K', 0x03, 0x04)) {
+            // OOXML documents are zip containers; keep the declared type when it names one
+            return declaredType != null && declaredType.startsWith(OOXML_PREFIX) ? declaredType : "application/zip";
+        }
+        if (startsWith(header, 0xD0, 0xCF, 0x11, 0xE0, 0xA1, 0xB1, 0x1A, 0xE1)) {
+            return declaredType != null && declaredType.startsWith("application/") ? declaredType : "application/x-ole-storage";
+        }
+        return declaredType != null && !declaredType.isBlank() ? declaredType : MediaType.APPLICATION_OCTET_STREAM_VALUE;
+    }
+
+    /**
+     * "BM" alone is too weak (a CSV may start with "BMW"), so the rest of the BITMAPFILEHEADER has to
+     * check out too: zero reserved bytes 6-9 and a known DIB header size at offset 14.
+     */
+    private static boolean isBitmap(byte[] header) {
+        if (header.length < 18 || !startsWith(header, 'B', 'M')) {
+            return false;
+        }
+        for (int i = 6; i < 10; i++) {
+            if (header[i] != 0) {
+                return false;
+            }
+        }
+        int dibHeaderSize = (header[14] & 0xFF) | (header[15] & 0xFF) << 8
+                | (header[16] & 0xFF) << 16 | (header[17] & 0xFF) << 24;
+        return BMP_DIB_HEADER_SIZES.contains(dibHeaderSize);
+    }
+
+    private static boolean startsWith(byte[] header, int... magic) {
+        if (header.length < magic.length) {
+            return false;
+        }
+        return Arrays.equals(
+                Arrays.copyOf(header, magic.length),
+                toBytes(magic)
+        );
+    }
+
+    private static byte[] toBytes(int... values) {
+        byte[] bytes = new byte[values.length];
+        for (int i = 0; i < values.length; i++) {
+            bytes[i] = (byte) values[i];
+        }
+        return bytes;
+    }
+}
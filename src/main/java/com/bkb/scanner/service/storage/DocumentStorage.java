@@ -0,0 +1,58 @@
+package com.bkb.scanner.service.storage;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Path;
+import java.time.Instant;
+
+/**
+ * Content-addressed store for document binaries kept outside the database.
+ * Content is keyed by its SHA-256 hash, so identical uploads share one stored copy.
+ */
+public interface DocumentStorage {
+
+    /**
+     * Consume the stream once, persisting it under its SHA-256 hash.
+     * Must be atomic: readers never observe a partially written object. Storing content that is
+     * already present refreshes its last-stored time, see {@link #deleteIfIdleSince}.
+     */
+    StoredContent store(InputStream content) throws IOException;
+
+    /**
+     * Store an existing local file. Implementations may move it into place instead of copying;
+     * either way {@code source} no longer exists once this returns successfully.
+     */
+    StoredContent store(Path source) throws IOException;
+
+    /**
+     * Copy {@code length} bytes starting at {@code offset} of the stored object to {@code out}
+     */
+    void copyTo(String contentHash, long offset, long length, OutputStream out) throws IOException;
+
+    boolean exists(String contentHash);
+
+    /**
+     * Number of bytes stored under {@code contentHash}
+     */
+    long size(String contentHash) throws IOException;
+
+    /**
+     * Delete the object unless it was stored again after {@code cutoff}. A store racing with the
+     * delete either keeps the object or writes it anew, it never ends up pointing at nothing.
+     *
+     * @return true if the object no longer exists, false if it was stored recently and was kept
+     */
+    boolean deleteIfIdleSince(String contentHash, Instant cutoff) throws IOException;
+
+    /**
+     * Result of a {@link #store} call
+     *
+     * @param contentHash hex-encoded SHA-256 of the content, used as the storage key
+     * @param size        number of bytes stored
+     * @param location    implementation-specific location, recorded in Document.fileUrl
+     * @param deduplicated true if identical content was already present and nothing new was written
+     */
+    record StoredContent(String contentHash, long size, String location, boolean deduplicated) {
+    }
+}
@@ -0,0 +1,104 @@
+package com.bkb.scanner.service.storage;
+
+import com.bkb.scanner.repository.DocumentContentRepository;
+import com.bkb.scanner.repository.DocumentRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.sql.Blob;
+import java.util.List;
+
+/**
+ * Moves binaries still held in csob_document_contents into the {@link DocumentStorage},
+ * one batch at a time and one transaction per document, then drops the database copy.
+ * Each run walks the table by id, so a row that keeps failing is retried on the next run
+ * instead of blocking the rest of the batch.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class DocumentStorageMigrator {
+
+    private final DocumentContentRepository documentContentRepository;
+    private final DocumentRepository documentRepository;
+    private final DocumentStorage documentStorage;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${document.storage.migration.enabled:true}")
+    private boolean enabled;
+
+    @Value("${document.storage.migration.batch-size:100}")
+    private int batchSize;
+
+    @Scheduled(initialDelayString = "${document.storage.migration.initial-delay-ms:30000}",
+            fixedDelayString = "${document.storage.migration.interval-ms:300000}")
+    public void migratePendingContent() {
+        if (!enabled) {
+            return;
+        }
+
+        long lastId = 0;
+        int migrated = 0;
+        int failed = 0;
+
+        List<Long> batch;
+        do {
+            batch = documentContentRepository.findIdsAfter(lastId, PageRequest.of(0, batchSize));
+            for (Long contentId : batch) {
+                try {
+                    transactionTemplate.executeWithoutResult(status -> migrate(contentId));
+                    migrated++;
+                } catch (RuntimeException e) {
+                    failed++;
+                    log.warn("Failed to migrate document content {}: {}", contentId, e.getMessage());
+                }
+                lastId = contentId;
+            }
+        } while (batch.size() == batchSize);
+
+        if (migrated > 0 || failed > 0) {
+            log.info("Document storage migration finished: {} migrated, {} failed", migrated, failed);
+        }
+    }
+
+    private void migrate(Long contentId) {
+        jdbcTemplate.query("SELECT doc_id, data FROM csob_document_contents WHERE id = ?", rs -> {
+            if (!rs.next()) {
+                return null;
+            }
+            String docId = rs.getString("doc_id");
+            Blob blob = rs.getBlob("data");
+            if (blob == null) {
+                return null;
+            }
+
+            DocumentStorage.StoredContent stored;
+            try (InputStream in = blob.getBinaryStream()) {
+                stored = documentStorage.store(in);
+            } catch (IOException e) {
+                throw new DataAccessResourceFailureException("Failed to store content of " + docId, e);
+            } finally {
+                blob.free();
+            }
+
+            documentRepository.findByDocId(docId).ifPresent(document -> {
+                document.setFileUrl(stored.location());
+                document.setContentHash(stored.contentHash());
+                document.setFileSize(stored.size());
+                documentRepository.save(document);
+            });
+            documentContentRepository.deleteById(contentId);
+            return null;
+        }, contentId);
+    }
+}
@@ -0,0 +1,181 @@
+package com.bkb.scanner.service.storage;
+
+import com.bkb.scanner.exception.ResourceNotFoundException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.*;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.nio.file.attribute.FileTime;
+import java.time.Instant;
+import java.util.HexFormat;
+import java.util.UUID;
+
+/**
+ * Stores each binary at {@code <root>/ab/cd/<sha256>} where ab and cd are the first two
+ * byte pairs of the hash, keeping directory fan-out bounded. Writes go to a temp file
+ * under the same root and are renamed into place, so the final path is only ever complete.
+ */
+@Component
+@Slf4j
+public class FileSystemDocumentStorage implements DocumentStorage {
+
+    private static final String TEMP_DIRECTORY = ".tmp";
+
+    private final Path root;
+    private final Path tempDirectory;
+
+    public FileSystemDocumentStorage(@Value("${file.upload.directory}") String uploadDirectory) {
+        this.root = Paths.get(uploadDirectory).toAbsolutePath().normalize();
+        this.tempDirectory = root.resolve(TEMP_DIRECTORY);
+    }
+
+    @Override
+    public StoredContent store(InputStream content) throws IOException {
+        Files.createDirectories(tempDirectory);
+        Path temp = Files.createTempFile(tempDirectory, "upload-", ".part");
+        try {
+            MessageDigest digest = newDigest();
+            long size;
+            try (InputStream in = new DigestInputStream(content, digest);
+                 OutputStream out = Files.newOutputStream(temp)) {
+                size = in.transferTo(out);
+            }
+            return moveIntoPlace(temp, HexFormat.of().formatHex(digest.digest()), size);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    @Override
+    public StoredContent store(Path source) throws IOException {
+        MessageDigest digest = newDigest();
+        long size;
+        try (InputStream in = new DigestInputStream(Files.newInputStream(source), digest)) {
+            size = in.transferTo(OutputStream.nullOutputStream());
+        }
+        try {
+            return moveIntoPlace(source, HexFormat.of().formatHex(digest.digest()), size);
+        } finally {
+            Files.deleteIfExists(source);
+        }
+    }
+
+    /**
+     * Rename a fully written file to its content-addressed path. Sources under the storage
+     * root are on the same filesystem, so the rename is atomic.
+     */
+    private StoredContent moveIntoPlace(Path source, String contentHash, long size) throws IOException {
+        Path target = resolve(contentHash);
+        String location = root.relativize(target).toString();
+
+        if (Files.exists(target)) {
+            try {
+                // Marks the object as stored again, which keeps deleteIfIdleSince away from it
+                Files.setLastModifiedTime(target, FileTime.from(Instant.now()));
+                log.debug("Content {} already stored, skipping write", contentHash);
+                return new StoredContent(contentHash, size, location, true);
+            } catch (NoSuchFileException e) {
+                // Deleted in the meantime: write it again below
+            }
+        }
+
+        Files.createDirectories(target.getParent());
+        try {
+            Files.move(source, target, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(source, target, StandardCopyOption.REPLACE_EXISTING);
+        }
+        return new StoredContent(contentHash, size, location, false);
+    }
+
+    @Override
+    public void copyTo(String contentHash, long offset, long length, OutputStream out) throws IOException {
+        Path path = resolve(contentHash);
+        if (!Files.exists(path)) {
+            throw new ResourceNotFoundException("Stored content not found: " + contentHash);
+        }
+
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            WritableByteChannel target = Channels.newChannel(out);
+            long position = offset;
+            long remaining = Math.min(length, channel.size() - offset);
+            while (remaining > 0) {
+                long transferred = channel.transferTo(position, remaining, target);
+                if (transferred <= 0) {
+                    break;
+                }
+                position += transferred;
+                remaining -= transferred;
+            }
+        }
+    }
+
+    @Override
+    public boolean exists(String contentHash) {
+        return Files.exists(resolve(contentHash));
+    }
+
+    @Override
+    public long size(String contentHash) throws IOException {
+        try {
+            return Files.size(resolve(contentHash));
+        } catch (NoSuchFileException e) {
+            throw new ResourceNotFoundException("Stored content not found: " + contentHash);
+        }
+    }
+
+    /**
+     * The object is first renamed out of its content-addressed path, then its modification time is
+     * checked again. A store that touched it before the rename is seen and the object is put back;
+     * a store after the rename finds no file and writes a new copy.
+     */
+    @Override
+    public boolean deleteIfIdleSince(String contentHash, Instant cutoff) throws IOException {
+        Path target = resolve(contentHash);
+        try {
+            if (Files.getLastModifiedTime(target).toInstant().isAfter(cutoff)) {
+                return false;
+            }
+            Files.createDirectories(tempDirectory);
+            Path doomed = tempDirectory.resolve(contentHash + "-" + UUID.randomUUID() + ".deleting");
+            Files.move(target, doomed, StandardCopyOption.ATOMIC_MOVE);
+
+            if (Files.getLastModifiedTime(doomed).toInstant().isAfter(cutoff)) {
+                // Identical bytes, so replacing a copy written meanwhile is harmless
+                Files.move(doomed, target, StandardCopyOption.ATOMIC_MOVE);
+                return false;
+            }
+            Files.delete(doomed);
+            return true;
+        } catch (NoSuchFileException e) {
+            return true;
+        }
+    }
+
+    private Path resolve(String contentHash) {
+        if (contentHash == null || contentHash.length() != 64 || !contentHash.matches("[0-9a-f]+")) {
+            throw new IllegalArgumentException("Invalid content hash: " + contentHash);
+        }
+        return root.resolve(contentHash.substring(0, 2))
+                .resolve(contentHash.substring(2, 4))
+                .resolve(contentHash);
+    }
+
+    private static MessageDigest newDigest() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+}
@@ -0,0 +1,97 @@
+package com.bkb.scanner.service.storage;
+
+import com.bkb.scanner.entity.OrphanedContent;
+import com.bkb.scanner.repository.ActivityArchiveSegmentRepository;
+import com.bkb.scanner.repository.DocumentRepository;
+import com.bkb.scanner.repository.OrphanedContentRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.List;
+
+/**
+ * Deletes stored content whose last document went away. A hash queued in csob_orphaned_contents is
+ * only looked at after the grace period, and the object is only deleted if no document or archive
+ * segment references it and it was not stored again within the grace period, which covers an upload
+ * of the same bytes that deduplicated onto it but has not committed yet.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class OrphanedContentSweeper {
+
+    private final OrphanedContentRepository orphanedContentRepository;
+    private final DocumentRepository documentRepository;
+    private final ActivityArchiveSegmentRepository archiveSegmentRepository;
+    private final DocumentStorage documentStorage;
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${document.storage.orphan-grace-minutes:1440}")
+    private long graceMinutes;
+
+    @Value("${document.storage.sweep-batch-size:100}")
+    private int batchSize;
+
+    @Scheduled(initialDelayString = "${document.storage.sweep-initial-delay-ms:300000}",
+            fixedDelayString = "${document.storage.sweep-interval-ms:3600000}")
+    public void sweep() {
+        Instant cutoff = Instant.now().minus(Duration.ofMinutes(graceMinutes));
+        LocalDateTime queuedBefore = LocalDateTime.ofInstant(cutoff, ZoneId.systemDefault());
+
+        long lastId = 0;
+        int deleted = 0;
+        List<OrphanedContent> batch;
+        do {
+            batch = orphanedContentRepository.findByQueuedAtBeforeAndIdGreaterThanOrderByIdAsc(
+                    queuedBefore, lastId, PageRequest.of(0, batchSize));
+            for (OrphanedContent orphan : batch) {
+                lastId = orphan.getId();
+                try {
+                    Boolean removed = transactionTemplate.execute(status -> release(orphan.getContentHash(), cutoff));
+                    if (Boolean.TRUE.equals(removed)) {
+                        deleted++;
+                    }
+                } catch (RuntimeException e) {
+                    log.warn("Failed to sweep stored content {}: {}", orphan.getContentHash(), e.getMessage());
+                }
+            }
+        } while (batch.size() == batchSize);
+
+        if (deleted > 0) {
+            log.info("Deleted {} unreferenced stored objects", deleted);
+        }
+    }
+
+    /**
+     * @return true if the stored object was deleted
+     */
+    private boolean release(String contentHash, Instant cutoff) {
+        if (documentRepository.existsByContentHash(contentHash)
+                || archiveSegmentRepository.existsByContentHash(contentHash)) {
+            orphanedContentRepository.deleteByContentHash(contentHash);
+            return false;
+        }
+
+        try {
+            if (!documentStorage.deleteIfIdleSince(contentHash, cutoff)) {
+                // Stored again recently: look again once that upload has committed or rolled back
+                return false;
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        orphanedContentRepository.deleteByContentHash(contentHash);
+        return true;
+    }
+}
@@ -0,0 +1,149 @@
+package com.bkb.scanner.controller;
+
+import com.bkb.scanner.dto.CaseDelta;
+import com.bkb.scanner.entity.Case;
+import com.bkb.scanner.exception.GlobalExceptionHandler;
+import com.bkb.scanner.exception.PreconditionFailedException;
+import com.bkb.scanner.service.CaseService;
+import com.bkb.scanner.service.OptimisticRetry;
+import com.bkb.scanner.service.audit.ActivityArchiveService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.security.web.method.annotation.AuthenticationPrincipalArgumentResolver;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.util.Map;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@ExtendWith(MockitoExtension.class)
+class CaseControllerTest {
+
+    @Mock
+    private CaseService caseService;
+
+    @Mock
+    private OptimisticRetry optimisticRetry;
+
+    @Mock
+    private ActivityArchiveService activityArchiveService;
+
+    private MockMvc mockMvc;
+
+    @BeforeEach
+    void setUp() {
+        mockMvc = MockMvcBuilders
+                .standaloneSetup(new CaseController(caseService, optimisticRetry, activityArchiveService))
+                .setControllerAdvice(new GlobalExceptionHandler())
+                .setCustomArgumentResolvers(new AuthenticationPrincipalArgumentResolver())
+                .build();
+    }
+
+    @Test
+    void conditionalStatusChangeRunsOnceAndReturnsCaseVersionAsETag() throws Exception {
+        when(caseService.updateCaseStatus(eq("CASE-1"), any(), any(), eq(3L)))
+                .thenReturn(delta(4L, null));
+
+        mockMvc.perform(patch("/cases/CASE-1/status")
+                        .header(HttpHeaders.IF_MATCH, "\"3\"")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"status\":\"PENDING_CHECKER_REVIEW\"}"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"4\""))
+                .andExpect(jsonPath("$.version").value(4))
+                .andExpect(jsonPath("$.changes.status").value("PENDING_CHECKER_REVIEW"));
+
+        verifyNoInteractions(optimisticRetry);
+    }
+
+    @Test
+    void staleIfMatchIsRejectedWith412() throws Exception {
+        when(caseService.updateCaseStatus(eq("CASE-1"), any(), any(), eq(2L)))
+                .thenThrow(new PreconditionFailedException("Case CASE-1 is no longer at version 2"));
+
+        mockMvc.perform(patch("/cases/CASE-1/status")
+                        .header(HttpHeaders.IF_MATCH, "W/\"2\"")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"status\":\"PENDING_CHECKER_REVIEW\"}"))
+                .andExpect(status().isPreconditionFailed())
+                .andExpect(jsonPath("$.message").value("Case CASE-1 is no longer at version 2"));
+    }
+
+    @Test
+    void unconditionalRequestGoesThroughRetry() throws Exception {
+        when(optimisticRetry.execute(any())).thenAnswer(invocation -> ((Supplier<?>) invocation.getArgument(0)).get());
+        when(caseService.updateCaseStatus(eq("CASE-1"), any(), any(), isNull()))
+                .thenReturn(delta(7L, null));
+
+        mockMvc.perform(patch("/cases/CASE-1/status")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"status\":\"PENDING_CHECKER_REVIEW\"}"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"7\""));
+
+        verify(optimisticRetry).execute(any());
+    }
+
+    @Test
+    void submissionReviewReturnsSubmissionVersionAsETag() throws Exception {
+        when(caseService.updateSubmission(eq("CASE-1"), eq("SUB-1"), any(), any(), eq(1L)))
+                .thenReturn(delta(9L, 2L));
+
+        mockMvc.perform(put("/cases/CASE-1/submissions/SUB-1")
+                        .header(HttpHeaders.IF_MATCH, "\"1\"")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"status\":\"VERIFIED\"}"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"2\""))
+                .andExpect(jsonPath("$.version").value(9))
+                .andExpect(jsonPath("$.entityVersion").value(2));
+    }
+
+    @Test
+    void malformedIfMatchIsRejectedWith400() throws Exception {
+        mockMvc.perform(patch("/cases/CASE-1/status")
+                        .header(HttpHeaders.IF_MATCH, "\"abc\"")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"status\":\"PENDING_CHECKER_REVIEW\"}"))
+                .andExpect(status().isBadRequest());
+
+        verifyNoInteractions(caseService, optimisticRetry);
+    }
+
+    @Test
+    void parseIfMatchAcceptsStrongWeakAndWildcardTags() {
+        assertThat(CaseController.parseIfMatch(null)).isNull();
+        assertThat(CaseController.parseIfMatch(" ")).isNull();
+        assertThat(CaseController.parseIfMatch("*")).isNull();
+        assertThat(CaseController.parseIfMatch("\"12\"")).isEqualTo(12L);
+        assertThat(CaseController.parseIfMatch("W/\"12\"")).isEqualTo(12L);
+        assertThat(CaseController.parseIfMatch("12")).isEqualTo(12L);
+        assertThatThrownBy(() -> CaseController.parseIfMatch("\"12\", \"13\""))
+                .hasMessageContaining("Invalid If-Match header");
+    }
+
+    private static CaseDelta delta(Long version, Long entityVersion) {
+        return CaseDelta.builder()
+                .caseId("CASE-1")
+                .status(Case.CaseStatus.PENDING_CHECKER_REVIEW)
+                .version(version)
+                .entityVersion(entityVersion)
+                .changes(Map.of("status", Case.CaseStatus.PENDING_CHECKER_REVIEW))
+                .build();
+    }
+}
@@ -0,0 +1,88 @@
+package com.bkb.scanner.controller;
+
+import com.bkb.scanner.entity.Document;
+import com.bkb.scanner.exception.GlobalExceptionHandler;
+import com.bkb.scanner.repository.DocumentContentRepository;
+import com.bkb.scanner.repository.DocumentRepository;
+import com.bkb.scanner.repository.OrphanedContentRepository;
+import com.bkb.scanner.service.DocumentService;
+import com.bkb.scanner.service.storage.DocumentStorage;
+import com.bkb.scanner.service.storage.FileSystemDocumentStorage;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.http.HttpHeaders;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.Optional;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+class DocumentControllerTest {
+
+    private static final byte[] CONTENT = "0123456789".getBytes(StandardCharsets.US_ASCII);
+
+    @TempDir
+    Path root;
+
+    private DocumentRepository documentRepository;
+    private MockMvc mockMvc;
+    private Document document;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        documentRepository = mock(DocumentRepository.class);
+        DocumentStorage storage = new FileSystemDocumentStorage(root.toString());
+        DocumentService documentService = new DocumentService(documentRepository,
+                mock(DocumentContentRepository.class), mock(JdbcTemplate.class), storage,
+                mock(OrphanedContentRepository.class));
+        mockMvc = MockMvcBuilders.standaloneSetup(new DocumentController(documentService))
+                .setControllerAdvice(new GlobalExceptionHandler())
+                .build();
+
+        DocumentStorage.StoredContent stored = storage.store(new ByteArrayInputStream(CONTENT));
+        // A row written before sizes were recorded
+        document = new Document();
+        document.setDocId("DOC-1");
+        document.setFileName("legacy.txt");
+        document.setMimeType("text/plain");
+        document.setContentHash(stored.contentHash());
+        document.setFileUrl(stored.location());
+        document.setFileSize(null);
+        when(documentRepository.findByDocId("DOC-1")).thenReturn(Optional.of(document));
+    }
+
+    @Test
+    void documentWithoutRecordedSizeStreamsWholeBody() throws Exception {
+        MvcResult result = mockMvc.perform(get("/documents/DOC-1/download"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(header().longValue(HttpHeaders.CONTENT_LENGTH, CONTENT.length))
+                .andExpect(content().bytes(CONTENT));
+    }
+
+    @Test
+    void documentWithoutRecordedSizeStillServesRanges() throws Exception {
+        MvcResult result = mockMvc.perform(get("/documents/DOC-1/download").header(HttpHeaders.RANGE, "bytes=-3"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isPartialContent())
+                .andExpect(header().string(HttpHeaders.CONTENT_RANGE, "bytes 7-9/10"))
+                .andExpect(content().string("789"));
+    }
+}
@@ -0,0 +1,80 @@
+package com.bkb.scanner.controller;
+
+import com.bkb.scanner.entity.User;
+import com.bkb.scanner.exception.GlobalExceptionHandler;
+import com.bkb.scanner.service.UserService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.web.method.annotation.AuthenticationPrincipalArgumentResolver;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.time.LocalDateTime;
+
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@ExtendWith(MockitoExtension.class)
+class UserControllerTest {
+
+    @Mock
+    private UserService userService;
+
+    private MockMvc mockMvc;
+
+    @BeforeEach
+    void setUp() {
+        mockMvc = MockMvcBuilders
+                .standaloneSetup(new UserController(userService))
+                .setControllerAdvice(new GlobalExceptionHandler())
+                .setCustomArgumentResolvers(new AuthenticationPrincipalArgumentResolver())
+                .build();
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void currentUserIsTheStoredProfileNotTheClaimsPrincipal() throws Exception {
+        // What the JWT filter authenticates with: only the claims
+        User principal = new User();
+        principal.setUserId("USR-7");
+        principal.setEmail("checker@bkb.example");
+        principal.setName("Checker");
+        principal.setRole(User.UserRole.CHECKER);
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken(principal, null, principal.getAuthorities()));
+
+        User stored = new User();
+        stored.setId(7L);
+        stored.setUserId("USR-7");
+        stored.setEmail("checker@bkb.example");
+        stored.setName("Checker");
+        stored.setRole(User.UserRole.CHECKER);
+        stored.setDepartment("Onboarding");
+        stored.setProfilePicture("/avatars/usr-7.png");
+        stored.setLastLogin(LocalDateTime.of(2024, 5, 1, 9, 30));
+        stored.setActive(false);
+        when(userService.getUserByUserId("USR-7")).thenReturn(stored);
+
+        mockMvc.perform(get("/users/current"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.id").value(7))
+                .andExpect(jsonPath("$.userId").value("USR-7"))
+                .andExpect(jsonPath("$.role").value("CHECKER"))
+                .andExpect(jsonPath("$.department").value("Onboarding"))
+                .andExpect(jsonPath("$.profilePicture").value("/avatars/usr-7.png"))
+                .andExpect(jsonPath("$.lastLogin").exists())
+                .andExpect(jsonPath("$.enabled").value(false));
+    }
+}
@@ -0,0 +1,145 @@
+package com.bkb.scanner.repository;
+
+import com.bkb.scanner.entity.Account;
+import com.bkb.scanner.entity.Case;
+import com.bkb.scanner.service.OptimisticRetry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Parallel writers against one case. Runs outside the test transaction so every writer commits on
+ * its own connection, as concurrent requests do.
+ */
+@DataJpaTest(properties = {
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.flyway.enabled=false"
+})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class CaseConcurrencyTest {
+
+    private static final int THREADS = 8;
+    private static final int WRITES_PER_THREAD = 10;
+
+    @Autowired
+    private CaseRepository caseRepository;
+
+    @Autowired
+    private AccountRepository accountRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private TransactionTemplate transactionTemplate;
+    private Long caseRowId;
+    private Long accountRowId;
+
+    @BeforeEach
+    void setUp() {
+        transactionTemplate = new TransactionTemplate(transactionManager);
+        transactionTemplate.executeWithoutResult(status -> {
+            Case newCase = new Case();
+            newCase.setCaseId("CASE-STRESS");
+            caseRowId = caseRepository.save(newCase).getId();
+
+            Account account = new Account();
+            account.setAccountId("ACC-STRESS");
+            account.setAccountType("Current");
+            account.setCaseEntity(caseRepository.getReferenceById(caseRowId));
+            account.setExpectedMonthlyCredits("0");
+            accountRowId = accountRepository.save(account).getId();
+        });
+    }
+
+    @AfterEach
+    void tearDown() {
+        transactionTemplate.executeWithoutResult(status -> {
+            accountRepository.deleteAllInBatch();
+            caseRepository.deleteAllInBatch();
+        });
+    }
+
+    @Test
+    void retriedReadModifyWritesLoseNoUpdates() throws Exception {
+        OptimisticRetry optimisticRetry = new OptimisticRetry(transactionTemplate, 200, 1);
+
+        runInParallel(() -> optimisticRetry.execute(() -> {
+            Account account = accountRepository.findById(accountRowId).orElseThrow();
+            int credits = Integer.parseInt(account.getExpectedMonthlyCredits());
+            account.setExpectedMonthlyCredits(String.valueOf(credits + 1));
+            return accountRepository.saveAndFlush(account);
+        }));
+
+        Account account = accountRepository.findById(accountRowId).orElseThrow();
+        assertThat(account.getExpectedMonthlyCredits()).isEqualTo(String.valueOf(THREADS * WRITES_PER_THREAD));
+        assertThat(account.getVersion()).isEqualTo((long) THREADS * WRITES_PER_THREAD);
+    }
+
+    @Test
+    void unconditionalTouchesEachBumpTheCaseVersion() throws Exception {
+        runInParallel(() -> transactionTemplate.execute(status ->
+                caseRepository.touch(caseRowId, LocalDateTime.now(), null)));
+
+        assertThat(caseRepository.findVersionById(caseRowId)).isEqualTo((long) THREADS * WRITES_PER_THREAD);
+    }
+
+    @Test
+    void onlyOneWriterWinsEachConditionalRound() throws Exception {
+        for (int round = 0; round < WRITES_PER_THREAD; round++) {
+            long expected = caseRepository.findVersionById(caseRowId);
+            AtomicInteger winners = new AtomicInteger();
+
+            runConcurrently(() -> {
+                Integer updated = transactionTemplate.execute(status -> caseRepository.updateStatus(caseRowId,
+                        Case.CaseStatus.PENDING_CHECKER_REVIEW, LocalDateTime.now(), expected));
+                winners.addAndGet(updated != null ? updated : 0);
+            });
+
+            assertThat(winners).hasValue(1);
+            assertThat(caseRepository.findVersionById(caseRowId)).isEqualTo(expected + 1);
+        }
+    }
+
+    private void runInParallel(Runnable write) throws Exception {
+        runConcurrently(() -> {
+            for (int i = 0; i < WRITES_PER_THREAD; i++) {
+                write.run();
+            }
+        });
+    }
+
+    private static void runConcurrently(Runnable task) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        try {
+            CountDownLatch start = new CountDownLatch(1);
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < THREADS; t++) {
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    task.run();
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get(60, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,68 @@
+package com.bkb.scanner.repository;
+
+import com.bkb.scanner.entity.Case;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest(properties = {
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.flyway.enabled=false"
+})
+class CaseSpecificationsTest {
+
+    @Autowired
+    private CaseRepository caseRepository;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Test
+    void keysetWalkVisitsEveryCaseOnceIncludingCasesWithoutUpdatedAt() {
+        List<Long> ids = new ArrayList<>();
+        for (int i = 0; i < 7; i++) {
+            Case newCase = new Case();
+            newCase.setCaseId("CASE-" + i);
+            ids.add(entityManager.persistAndFlush(newCase).getId());
+        }
+        // Rows written outside JPA auditing, plus two sharing one timestamp
+        LocalDateTime tie = LocalDateTime.of(2024, 1, 1, 12, 0);
+        entityManager.getEntityManager()
+                .createNativeQuery("UPDATE csob_cases SET updated_at = NULL WHERE id IN (:ids)")
+                .setParameter("ids", List.of(ids.get(1), ids.get(4), ids.get(5)))
+                .executeUpdate();
+        entityManager.getEntityManager()
+                .createNativeQuery("UPDATE csob_cases SET updated_at = :tie WHERE id IN (:ids)")
+                .setParameter("tie", tie)
+                .setParameter("ids", List.of(ids.get(2), ids.get(3)))
+                .executeUpdate();
+        entityManager.clear();
+
+        List<Long> visited = new ArrayList<>();
+        Case last = null;
+        do {
+            Specification<Case> spec = Specification.where(null);
+            if (last != null) {
+                spec = spec.and(CaseSpecifications.after(last.getUpdatedAt(), last.getId()));
+            }
+            List<Case> page = caseRepository.findBy(spec, query -> query
+                    .sortBy(CaseSpecifications.KEYSET_SORT)
+                    .limit(2)
+                    .all());
+            page.forEach(row -> visited.add(row.getId()));
+            last = page.size() == 2 ? page.get(1) : null;
+        } while (last != null);
+
+        assertThat(visited).containsExactlyInAnyOrderElementsOf(ids);
+        assertThat(visited.subList(visited.size() - 3, visited.size()))
+                .containsExactly(ids.get(5), ids.get(4), ids.get(1));
+    }
+}
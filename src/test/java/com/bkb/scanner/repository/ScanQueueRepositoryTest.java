@@ -0,0 +1,67 @@
+package com.bkb.scanner.repository;
+
+import com.bkb.scanner.entity.ScanQueue;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest(properties = {
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.flyway.enabled=false"
+})
+class ScanQueueRepositoryTest {
+
+    private static final List<ScanQueue.ScanStatus> ACTIVE =
+            List.of(ScanQueue.ScanStatus.SCANNING, ScanQueue.ScanStatus.PROCESSING);
+
+    @Autowired
+    private ScanQueueRepository scanQueueRepository;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Test
+    void staleScansAreRequeuedUntilTheirAttemptsRunOut() {
+        LocalDateTime now = LocalDateTime.now();
+        scanQueueRepository.saveAll(List.of(
+                scan("SCAN-RETRY", 1, now.minusHours(1)),
+                scan("SCAN-EXHAUSTED", 3, now.minusHours(1)),
+                scan("SCAN-RUNNING", 3, now)));
+        entityManager.flush();
+
+        LocalDateTime cutoff = now.minusMinutes(10);
+        int failed = scanQueueRepository.failStale(ACTIVE, ScanQueue.ScanStatus.FAILED, cutoff, 3, "Worker died", now);
+        int requeued = scanQueueRepository.requeueStale(ACTIVE, ScanQueue.ScanStatus.PENDING, cutoff, 3);
+        entityManager.clear();
+
+        assertThat(failed).isEqualTo(1);
+        assertThat(requeued).isEqualTo(1);
+        assertThat(status("SCAN-RETRY")).isEqualTo(ScanQueue.ScanStatus.PENDING);
+        assertThat(status("SCAN-EXHAUSTED")).isEqualTo(ScanQueue.ScanStatus.FAILED);
+        assertThat(status("SCAN-RUNNING")).isEqualTo(ScanQueue.ScanStatus.SCANNING);
+    }
+
+    private ScanQueue.ScanStatus status(String scanId) {
+        return scanQueueRepository.findByScanId(scanId).orElseThrow().getStatus();
+    }
+
+    private static ScanQueue scan(String scanId, int attempts, LocalDateTime startedAt) {
+        ScanQueue scan = new ScanQueue();
+        scan.setScanId(scanId);
+        scan.setCaseId("CASE-1");
+        scan.setRequirementId("REQ-1");
+        scan.setPartyId("PARTY-1");
+        scan.setStatus(ScanQueue.ScanStatus.SCANNING);
+        scan.setAttempts(attempts);
+        scan.setStartedAt(startedAt);
+        scan.setProgress(0);
+        scan.setDocType("Passport");
+        return scan;
+    }
+}
@@ -0,0 +1,88 @@
+package com.bkb.scanner.security;
+
+import com.bkb.scanner.entity.User;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtParser;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import javax.crypto.SecretKey;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-request cost of authenticating a bearer token. {@code perRequestParsers} reproduces the old
+ * filter path (key and parser rebuilt for every call, token verified twice), {@code sharedParserUncached}
+ * is a single parse with the shared parser, and {@code sharedParserCached} is a verified-token cache hit
+ * through {@link JwtUtil#verify}.
+ * <p>
+ * Run with {@code mvn test-compile exec:java -Dexec.classpathScope=test
+ * -Dexec.mainClass=com.bkb.scanner.security.JwtVerificationBenchmark}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JwtVerificationBenchmark {
+
+    private static final String SECRET = "0123456789abcdef0123456789abcdef0123456789abcdef0123456789abcdef";
+
+    private JwtUtil jwtUtil;
+    private JwtParser parser;
+    private String token;
+
+    @Setup
+    public void setUp() {
+        jwtUtil = newJwtUtil(10_000);
+        parser = (JwtParser) ReflectionTestUtils.getField(jwtUtil, "parser");
+
+        User user = new User();
+        user.setUserId("USR-001");
+        user.setEmail("checker@bkb.example");
+        user.setName("Bench Checker");
+        user.setRole(User.UserRole.CHECKER);
+        token = jwtUtil.generateToken(user);
+        jwtUtil.verify(token);
+    }
+
+    @Benchmark
+    public String perRequestParsers() {
+        SecretKey key = Keys.hmacShaKeyFor(SECRET.getBytes(StandardCharsets.UTF_8));
+        Jwts.parserBuilder().setSigningKey(key).build().parseClaimsJws(token);
+        SecretKey again = Keys.hmacShaKeyFor(SECRET.getBytes(StandardCharsets.UTF_8));
+        return Jwts.parserBuilder().setSigningKey(again).build().parseClaimsJws(token).getBody().getSubject();
+    }
+
+    @Benchmark
+    public String sharedParserUncached() {
+        return parser.parseClaimsJws(token).getBody().getSubject();
+    }
+
+    @Benchmark
+    public String sharedParserCached() {
+        return jwtUtil.verify(token).map(Claims::getSubject).orElseThrow();
+    }
+
+    private static JwtUtil newJwtUtil(long cacheSize) {
+        JwtUtil jwtUtil = new JwtUtil();
+        ReflectionTestUtils.setField(jwtUtil, "secret", SECRET);
+        ReflectionTestUtils.setField(jwtUtil, "expiration", 3_600_000L);
+        ReflectionTestUtils.setField(jwtUtil, "refreshExpiration", 604_800_000L);
+        ReflectionTestUtils.setField(jwtUtil, "verifiedCacheSize", cacheSize);
+        jwtUtil.init();
+        return jwtUtil;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(JwtVerificationBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
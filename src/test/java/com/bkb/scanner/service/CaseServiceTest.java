@@ -0,0 +1,188 @@
+package com.bkb.scanner.service;
+
+import com.bkb.scanner.dto.*;
+import com.bkb.scanner.entity.*;
+import com.bkb.scanner.exception.PreconditionFailedException;
+import com.bkb.scanner.repository.*;
+import com.bkb.scanner.service.audit.ActivityLogWriter;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.entry;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class CaseServiceTest {
+
+    private static final Long CASE_ROW_ID = 42L;
+
+    @Mock
+    private CaseRepository caseRepository;
+    @Mock
+    private AccountRepository accountRepository;
+    @Mock
+    private SubmissionRepository submissionRepository;
+    @Mock
+    private CasePartyLinkRepository casePartyLinkRepository;
+    @Mock
+    private CaseDocumentLinkRepository caseDocumentLinkRepository;
+    @Mock
+    private ActivityLogRepository activityLogRepository;
+    @Mock
+    private ActivityLogWriter activityLogWriter;
+    @Mock
+    private CaseChecklistStatusRepository checklistStatusRepository;
+    @Mock
+    private ChecklistService checklistService;
+    @Mock
+    private CaseUpdatePublisher caseUpdatePublisher;
+
+    @InjectMocks
+    private CaseService caseService;
+
+    private User checker;
+
+    @BeforeEach
+    void setUp() {
+        checker = new User();
+        checker.setUserId("USR-1");
+        checker.setName("Checker");
+        checker.setRole(User.UserRole.CHECKER);
+
+        when(caseRepository.findHeaderByCaseId("CASE-1")).thenReturn(Optional.of(
+                new CaseHeader(CASE_ROW_ID, "CASE-1", Case.CaseStatus.DRAFT, "alice", 5L)));
+    }
+
+    @Test
+    void statusChangeIsOneRowUpdateAnsweredWithDelta() {
+        when(caseRepository.updateStatus(eq(CASE_ROW_ID), eq(Case.CaseStatus.PENDING_CHECKER_REVIEW), any(), eq(5L)))
+                .thenReturn(1);
+        when(caseRepository.findVersionById(CASE_ROW_ID)).thenReturn(6L);
+        UpdateCaseStatusDto dto = new UpdateCaseStatusDto();
+        dto.setStatus(Case.CaseStatus.PENDING_CHECKER_REVIEW);
+        dto.setComment("Ready");
+
+        CaseDelta delta = caseService.updateCaseStatus("CASE-1", dto, checker, 5L);
+
+        assertThat(delta.getCaseId()).isEqualTo("CASE-1");
+        assertThat(delta.getStatus()).isEqualTo(Case.CaseStatus.PENDING_CHECKER_REVIEW);
+        assertThat(delta.getVersion()).isEqualTo(6L);
+        assertThat(delta.getEntityVersion()).isNull();
+        assertThat(delta.getAction()).isEqualTo("Status Changed to PENDING_CHECKER_REVIEW");
+        assertThat(delta.getChanges()).containsExactly(entry("status", Case.CaseStatus.PENDING_CHECKER_REVIEW));
+
+        ArgumentCaptor<ActivityOutbox> activity = ArgumentCaptor.forClass(ActivityOutbox.class);
+        verify(activityLogWriter).append(activity.capture());
+        assertThat(activity.getValue().getActivityId()).isEqualTo(delta.getActivityId());
+        assertThat(activity.getValue().getCaseRowId()).isEqualTo(CASE_ROW_ID);
+        assertThat(activity.getValue().getPreviousValue()).isEqualTo("DRAFT");
+        assertThat(activity.getValue().getNewValue()).isEqualTo("PENDING_CHECKER_REVIEW");
+        verify(caseRepository, never()).findByCaseId(anyString());
+        verify(caseRepository, never()).save(any());
+        verify(caseUpdatePublisher).publishAfterCommit("CASE-1", Case.CaseStatus.DRAFT, "alice",
+                Case.CaseStatus.PENDING_CHECKER_REVIEW, "alice", delta.getAction());
+    }
+
+    @Test
+    void staleCaseVersionFailsBeforeAnythingIsRecorded() {
+        when(caseRepository.updateStatus(eq(CASE_ROW_ID), any(), any(), eq(4L))).thenReturn(0);
+        UpdateCaseStatusDto dto = new UpdateCaseStatusDto();
+        dto.setStatus(Case.CaseStatus.PENDING_CHECKER_REVIEW);
+
+        assertThatThrownBy(() -> caseService.updateCaseStatus("CASE-1", dto, checker, 4L))
+                .isInstanceOf(PreconditionFailedException.class)
+                .hasMessage("Case CASE-1 is no longer at version 4");
+
+        verifyNoInteractions(activityLogWriter, caseUpdatePublisher);
+    }
+
+    @Test
+    void accountProposalAnswersWithCaseAndAccountVersions() {
+        when(caseRepository.touch(eq(CASE_ROW_ID), any(), isNull())).thenReturn(1);
+        when(caseRepository.findVersionById(CASE_ROW_ID)).thenReturn(6L);
+        when(accountRepository.save(any(Account.class))).thenAnswer(invocation -> {
+            Account account = invocation.getArgument(0);
+            account.setVersion(0L);
+            return account;
+        });
+        CreateAccountDto dto = new CreateAccountDto();
+        dto.setAccountType("Current");
+        dto.setAuthorizedSignatories(List.of("PTY-1"));
+
+        CaseDelta delta = caseService.createAccount("CASE-1", dto, checker, null);
+
+        assertThat(delta.getVersion()).isEqualTo(6L);
+        assertThat(delta.getEntityVersion()).isEqualTo(0L);
+        assertThat(delta.getEntityType()).isEqualTo("ACCOUNT");
+        assertThat(delta.getEntityId()).startsWith("ACC-");
+        assertThat(delta.getChanges()).containsExactly(entry("accountType", "Current"), entry("accountStatus", "Proposed"));
+        verify(caseRepository, never()).findByCaseId(anyString());
+    }
+
+    @Test
+    void submissionReviewChecksSubmissionVersionAndReportsBothVersions() {
+        Submission submission = submission(3L);
+        when(submissionRepository.findBySubmissionIdAndDocumentLink_CaseEntity_Id("SUB-1", CASE_ROW_ID))
+                .thenReturn(Optional.of(submission));
+        when(submissionRepository.saveAndFlush(submission)).thenAnswer(invocation -> {
+            submission.setVersion(4L);
+            return submission;
+        });
+        when(submissionRepository.findFirstByDocumentLinkOrderByIdDesc(submission.getDocumentLink()))
+                .thenReturn(Optional.of(submission));
+        when(caseRepository.touch(eq(CASE_ROW_ID), any(), isNull())).thenReturn(1);
+        when(caseRepository.findVersionById(CASE_ROW_ID)).thenReturn(6L);
+        UpdateSubmissionDto dto = new UpdateSubmissionDto();
+        dto.setStatus(Submission.DocumentStatus.VERIFIED);
+
+        CaseDelta delta = caseService.updateSubmission("CASE-1", "SUB-1", dto, checker, 3L);
+
+        assertThat(delta.getVersion()).isEqualTo(6L);
+        assertThat(delta.getEntityVersion()).isEqualTo(4L);
+        assertThat(delta.getEntityId()).isEqualTo("SUB-1");
+        assertThat(delta.getChanges()).containsExactly(
+                entry("requirementId", "REQ-1"), entry("submissionStatus", Submission.DocumentStatus.VERIFIED));
+        verify(checklistService).recordSubmissionStatus("CASE-1", "REQ-1", submission);
+    }
+
+    @Test
+    void staleSubmissionVersionIsRejected() {
+        when(submissionRepository.findBySubmissionIdAndDocumentLink_CaseEntity_Id("SUB-1", CASE_ROW_ID))
+                .thenReturn(Optional.of(submission(3L)));
+        UpdateSubmissionDto dto = new UpdateSubmissionDto();
+        dto.setStatus(Submission.DocumentStatus.VERIFIED);
+
+        assertThatThrownBy(() -> caseService.updateSubmission("CASE-1", "SUB-1", dto, checker, 2L))
+                .isInstanceOf(PreconditionFailedException.class)
+                .hasMessage("Submission SUB-1 is no longer at version 2");
+
+        verify(submissionRepository, never()).saveAndFlush(any());
+        verifyNoInteractions(activityLogWriter);
+    }
+
+    private static Submission submission(Long version) {
+        CaseDocumentLink link = new CaseDocumentLink();
+        link.setLinkId("LNK-1");
+        link.setRequirementId("REQ-1");
+        Submission submission = new Submission();
+        submission.setSubmissionId("SUB-1");
+        submission.setDocumentLink(link);
+        submission.setStatus(Submission.DocumentStatus.PENDING_COMPLIANCE_VERIFICATION);
+        submission.setVersion(version);
+        return submission;
+    }
+}
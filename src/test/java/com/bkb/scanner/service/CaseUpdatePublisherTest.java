@@ -0,0 +1,88 @@
+package com.bkb.scanner.service;
+
+import com.bkb.scanner.dto.CaseUpdateMessage;
+import com.bkb.scanner.entity.Case;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+class CaseUpdatePublisherTest {
+
+    private SimpMessagingTemplate messagingTemplate;
+    private CaseUpdatePublisher publisher;
+
+    @BeforeEach
+    void setUp() {
+        messagingTemplate = mock(SimpMessagingTemplate.class);
+        publisher = new CaseUpdatePublisher(messagingTemplate);
+        TransactionSynchronizationManager.initSynchronization();
+    }
+
+    @AfterEach
+    void tearDown() {
+        TransactionSynchronizationManager.clearSynchronization();
+    }
+
+    @Test
+    void statusChangeAlsoTellsTheQueueTheCaseLeft() {
+        publisher.publishAfterCommit("CASE-1", Case.CaseStatus.PENDING_CHECKER_REVIEW, "alice",
+                Case.CaseStatus.PENDING_COMPLIANCE_REVIEW, "alice", "Status Changed");
+        verifyNoInteractions(messagingTemplate);
+
+        commit();
+
+        assertThat(destinations()).containsExactly(
+                "/topic/cases/CASE-1",
+                "/topic/assignee/alice",
+                "/topic/role/COMPLIANCE/case-updates",
+                "/topic/role/CHECKER/case-updates");
+        ArgumentCaptor<CaseUpdateMessage> message = ArgumentCaptor.forClass(CaseUpdateMessage.class);
+        verify(messagingTemplate, atLeastOnce()).convertAndSend(anyString(), message.capture());
+        assertThat(message.getAllValues()).allSatisfy(sent ->
+                assertThat(sent.getStatus()).isEqualTo("PENDING_COMPLIANCE_REVIEW"));
+    }
+
+    @Test
+    void reassignmentAlsoTellsThePreviousAssignee() {
+        publisher.publishAfterCommit("CASE-1", Case.CaseStatus.DRAFT, "alice smith",
+                Case.CaseStatus.DRAFT, "bob", "Case Updated");
+        commit();
+
+        assertThat(destinations()).containsExactly(
+                "/topic/cases/CASE-1",
+                "/topic/assignee/bob",
+                "/topic/assignee/alice%20smith");
+    }
+
+    @Test
+    void unchangedQueueAndAssigneeAreSentOnce() {
+        publisher.publishAfterCommit("CASE-1", Case.CaseStatus.PENDING_GM_APPROVAL, "alice", "Document Submitted");
+        commit();
+
+        assertThat(destinations()).containsExactly(
+                "/topic/cases/CASE-1",
+                "/topic/assignee/alice",
+                "/topic/role/GM/case-updates");
+    }
+
+    private List<String> destinations() {
+        ArgumentCaptor<String> destination = ArgumentCaptor.forClass(String.class);
+        verify(messagingTemplate, atLeastOnce()).convertAndSend(destination.capture(), any(Object.class));
+        return destination.getAllValues();
+    }
+
+    private static void commit() {
+        TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+    }
+}
@@ -0,0 +1,165 @@
+package com.bkb.scanner.service;
+
+import com.bkb.scanner.dto.InitiateUploadDto;
+import com.bkb.scanner.dto.UploadSessionDto;
+import com.bkb.scanner.entity.Document;
+import com.bkb.scanner.entity.User;
+import com.bkb.scanner.exception.BadRequestException;
+import com.bkb.scanner.repository.UploadSessionRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.security.access.AccessDeniedException;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.ByteArrayInputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+/**
+ * Runs outside the test transaction so that each call commits on its own connection, as
+ * concurrent requests do.
+ */
+@DataJpaTest(properties = {
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.flyway.enabled=false",
+        "file.upload.directory=${java.io.tmpdir}/chunked-upload-service-test",
+        "document.upload.chunk-size-bytes=4"
+})
+@Import(ChunkedUploadService.class)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class ChunkedUploadServiceTest {
+
+    @Autowired
+    private ChunkedUploadService chunkedUploadService;
+
+    @Autowired
+    private UploadSessionRepository uploadSessionRepository;
+
+    @MockBean
+    private DocumentService documentService;
+
+    private final User owner = user("USR-1", User.UserRole.RM);
+    private final User otherUser = user("USR-2", User.UserRole.RM);
+    private final AtomicInteger registered = new AtomicInteger();
+
+    @BeforeEach
+    void setUp() {
+        when(documentService.registerDocument(any(), any(), any(), any(), any(), any(), any(), any()))
+                .thenAnswer(invocation -> {
+                    Path assembled = invocation.getArgument(0);
+                    assertThat(Files.readString(assembled)).isEqualTo("scanned!");
+                    // Widen the window in which a second completion could slip in
+                    Thread.sleep(200);
+                    Document document = new Document();
+                    document.setDocId("DOC-" + registered.incrementAndGet());
+                    return document;
+                });
+    }
+
+    @AfterEach
+    void tearDown() {
+        uploadSessionRepository.deleteAllInBatch();
+    }
+
+    @Test
+    void concurrentCompletionsRegisterOneDocument() throws Exception {
+        String uploadId = uploadAllChunks();
+
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            CountDownLatch start = new CountDownLatch(1);
+            Callable<String> complete = () -> {
+                start.await();
+                return chunkedUploadService.completeUpload(uploadId, owner).getDocumentId();
+            };
+            Future<String> first = executor.submit(complete);
+            Future<String> second = executor.submit(complete);
+            start.countDown();
+
+            assertThat(List.of(first.get(30, TimeUnit.SECONDS), second.get(30, TimeUnit.SECONDS)))
+                    .containsExactly("DOC-1", "DOC-1");
+        } finally {
+            executor.shutdownNow();
+        }
+        assertThat(registered).hasValue(1);
+    }
+
+    @Test
+    void repeatedCompletionReturnsTheSameDocument() {
+        String uploadId = uploadAllChunks();
+
+        UploadSessionDto completed = chunkedUploadService.completeUpload(uploadId, owner);
+        UploadSessionDto retried = chunkedUploadService.completeUpload(uploadId, owner);
+
+        assertThat(retried.getStatus()).isEqualTo("COMPLETED");
+        assertThat(retried.getDocumentId()).isEqualTo(completed.getDocumentId());
+        assertThat(registered).hasValue(1);
+    }
+
+    @Test
+    void chunksAreRejectedOnceTheUploadCompleted() {
+        String uploadId = uploadAllChunks();
+        chunkedUploadService.completeUpload(uploadId, owner);
+
+        assertThatThrownBy(() -> chunkedUploadService.uploadChunk(uploadId, 0, null,
+                new ByteArrayInputStream("late".getBytes()), owner))
+                .isInstanceOf(BadRequestException.class);
+    }
+
+    @Test
+    void onlyTheOwnerOrAnAdminCanUseTheSession() {
+        String uploadId = chunkedUploadService.initiateUpload(initiate(), owner).getUploadId();
+
+        assertThatThrownBy(() -> chunkedUploadService.uploadChunk(uploadId, 0, null,
+                new ByteArrayInputStream("scan".getBytes()), otherUser))
+                .isInstanceOf(AccessDeniedException.class);
+        assertThatThrownBy(() -> chunkedUploadService.getUploadStatus(uploadId, otherUser))
+                .isInstanceOf(AccessDeniedException.class);
+        assertThatThrownBy(() -> chunkedUploadService.completeUpload(uploadId, otherUser))
+                .isInstanceOf(AccessDeniedException.class);
+        assertThatThrownBy(() -> chunkedUploadService.abortUpload(uploadId, otherUser))
+                .isInstanceOf(AccessDeniedException.class);
+
+        assertThat(chunkedUploadService.getUploadStatus(uploadId, user("USR-9", User.UserRole.ADMIN)).getStatus())
+                .isEqualTo("IN_PROGRESS");
+    }
+
+    private String uploadAllChunks() {
+        String uploadId = chunkedUploadService.initiateUpload(initiate(), owner).getUploadId();
+        chunkedUploadService.uploadChunk(uploadId, 1, 4L, new ByteArrayInputStream("ned!".getBytes()), owner);
+        chunkedUploadService.uploadChunk(uploadId, 0, 0L, new ByteArrayInputStream("scan".getBytes()), owner);
+        return uploadId;
+    }
+
+    private static InitiateUploadDto initiate() {
+        InitiateUploadDto dto = new InitiateUploadDto();
+        dto.setOwnerPartyId("PTY-1");
+        dto.setDocType("PASSPORT");
+        dto.setFileName("passport.pdf");
+        dto.setMimeType("application/pdf");
+        dto.setTotalSize(8L);
+        return dto;
+    }
+
+    private static User user(String userId, User.UserRole role) {
+        User user = new User();
+        user.setUserId(userId);
+        user.setName(userId);
+        user.setRole(role);
+        return user;
+    }
+}
@@ -0,0 +1,97 @@
+package com.bkb.scanner.service;
+
+import com.bkb.scanner.dto.NotificationDTO;
+import com.bkb.scanner.entity.Notification;
+import com.bkb.scanner.repository.NotificationRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class NotificationServiceTest {
+
+    @Mock
+    private SimpMessagingTemplate messagingTemplate;
+
+    @Mock
+    private NotificationRepository notificationRepository;
+
+    @Mock
+    private NotificationFanout notificationFanout;
+
+    private NotificationService notificationService;
+
+    @BeforeEach
+    void setUp() {
+        notificationService = new NotificationService(messagingTemplate, notificationRepository, notificationFanout);
+        ReflectionTestUtils.setField(notificationService, "unreadBufferSize", 50);
+        ReflectionTestUtils.setField(notificationService, "cachedUsers", 100L);
+        notificationService.init();
+        TransactionSynchronizationManager.initSynchronization();
+    }
+
+    @AfterEach
+    void tearDown() {
+        TransactionSynchronizationManager.clearSynchronization();
+    }
+
+    @Test
+    void eachRecipientGetsItsOwnRowAndFrame() {
+        NotificationDTO notification = NotificationDTO.caseAssigned("CASE-1", "Acme Ltd", "alice", "bob");
+        notification.setUserId(null);
+
+        notificationService.sendNotificationToUsers(List.of("alice", "carol"), notification);
+        commit();
+
+        ArgumentCaptor<Notification> saved = ArgumentCaptor.forClass(Notification.class);
+        verify(notificationRepository, times(2)).save(saved.capture());
+        assertThat(saved.getAllValues()).extracting(Notification::getUserId).containsExactly("alice", "carol");
+        assertThat(notification.getUserId()).isNull();
+
+        ArgumentCaptor<NotificationDTO> frames = ArgumentCaptor.forClass(NotificationDTO.class);
+        verify(notificationFanout).toUser(eq("alice"), eq("/queue/notifications"), frames.capture());
+        verify(notificationFanout).toUser(eq("carol"), eq("/queue/notifications"), frames.capture());
+        assertThat(frames.getAllValues()).extracting(NotificationDTO::getUserId).containsExactly("alice", "carol");
+    }
+
+    @Test
+    void nothingIsPushedUntilTheTransactionCommits() {
+        NotificationDTO notification = NotificationDTO.caseAssigned("CASE-1", "Acme Ltd", "alice", "bob");
+
+        notificationService.sendNotificationToUser("alice", notification);
+
+        verify(notificationRepository).save(any(Notification.class));
+        verifyNoInteractions(notificationFanout);
+        assertThat(notificationService.getUnreadNotifications("alice")).isEmpty();
+    }
+
+    @Test
+    void rolledBackNotificationsAreNeverPushed() {
+        NotificationDTO notification = NotificationDTO.caseAssigned("CASE-1", "Acme Ltd", "alice", "bob");
+
+        notificationService.sendNotificationToUser("alice", notification);
+        TransactionSynchronizationManager.getSynchronizations()
+                .forEach(sync -> sync.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK));
+
+        verifyNoInteractions(notificationFanout);
+    }
+
+    private static void commit() {
+        TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+    }
+}
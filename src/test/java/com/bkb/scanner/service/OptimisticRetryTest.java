@@ -0,0 +1,90 @@
+package com.bkb.scanner.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class OptimisticRetryTest {
+
+    private PlatformTransactionManager transactionManager;
+    private OptimisticRetry optimisticRetry;
+
+    @BeforeEach
+    void setUp() {
+        transactionManager = mock(PlatformTransactionManager.class);
+        optimisticRetry = new OptimisticRetry(new TransactionTemplate(transactionManager), 3, 0);
+    }
+
+    @AfterEach
+    void tearDown() {
+        TransactionSynchronizationManager.setActualTransactionActive(false);
+    }
+
+    @Test
+    void retriesLostRacesInFreshTransactions() {
+        AtomicInteger calls = new AtomicInteger();
+
+        String result = optimisticRetry.execute(() -> {
+            if (calls.incrementAndGet() < 3) {
+                throw new OptimisticLockingFailureException("stale");
+            }
+            return "done";
+        });
+
+        assertThat(result).isEqualTo("done");
+        assertThat(calls).hasValue(3);
+        verify(transactionManager, times(3)).getTransaction(any());
+        verify(transactionManager, times(2)).rollback(any());
+        verify(transactionManager).commit(any());
+    }
+
+    @Test
+    void givesUpAfterMaxAttempts() {
+        AtomicInteger calls = new AtomicInteger();
+
+        assertThatThrownBy(() -> optimisticRetry.execute(() -> {
+            calls.incrementAndGet();
+            throw new OptimisticLockingFailureException("stale");
+        })).isInstanceOf(OptimisticLockingFailureException.class);
+
+        assertThat(calls).hasValue(3);
+    }
+
+    @Test
+    void doesNotRetryOtherFailures() {
+        AtomicInteger calls = new AtomicInteger();
+
+        assertThatThrownBy(() -> optimisticRetry.execute(() -> {
+            calls.incrementAndGet();
+            throw new DataIntegrityViolationException("duplicate");
+        })).isInstanceOf(DataIntegrityViolationException.class);
+
+        assertThat(calls).hasValue(1);
+    }
+
+    @Test
+    void runsOnceInsideCallersTransaction() {
+        TransactionSynchronizationManager.setActualTransactionActive(true);
+        AtomicInteger calls = new AtomicInteger();
+
+        assertThatThrownBy(() -> optimisticRetry.execute(() -> {
+            calls.incrementAndGet();
+            throw new OptimisticLockingFailureException("stale");
+        })).isInstanceOf(OptimisticLockingFailureException.class);
+
+        assertThat(calls).hasValue(1);
+        verifyNoInteractions(transactionManager);
+    }
+}
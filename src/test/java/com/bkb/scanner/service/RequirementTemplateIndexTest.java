@@ -0,0 +1,100 @@
+package com.bkb.scanner.service;
+
+import com.bkb.scanner.entity.DocumentRequirementTemplate;
+import com.bkb.scanner.entity.EntityData;
+import com.bkb.scanner.repository.DocumentRequirementTemplateRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Template changes committed through JPA must reach the index bean that checklist generation reads,
+ * not a listener instance Hibernate created on its own.
+ */
+@DataJpaTest(properties = {
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.flyway.enabled=false"
+})
+@Import(RequirementTemplateIndex.class)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class RequirementTemplateIndexTest {
+
+    @Autowired
+    private RequirementTemplateIndex requirementIndex;
+
+    @Autowired
+    private DocumentRequirementTemplateRepository templateRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private TransactionTemplate transactionTemplate;
+
+    @BeforeEach
+    void setUp() {
+        transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    @AfterEach
+    void tearDown() {
+        transactionTemplate.executeWithoutResult(status -> templateRepository.deleteAllInBatch());
+    }
+
+    @Test
+    void committedTemplateChangesReachTheIndexBean() {
+        assertThat(requirementIndex.entityDocuments(EntityData.EntityType.TRUST)).isEmpty();
+
+        DocumentRequirementTemplate saved = transactionTemplate.execute(status -> {
+            DocumentRequirementTemplate template = templateRepository.save(template("Trust Deed", EntityData.EntityType.TRUST));
+            // Not visible until the transaction commits
+            assertThat(requirementIndex.entityDocuments(EntityData.EntityType.TRUST)).isEmpty();
+            return template;
+        });
+
+        assertThat(requirementIndex.entityDocuments(EntityData.EntityType.TRUST))
+                .extracting(RequirementTemplateIndex.RequirementRule::name)
+                .containsExactly("Trust Deed");
+
+        transactionTemplate.executeWithoutResult(status -> {
+            DocumentRequirementTemplate template = templateRepository.findById(saved.getId()).orElseThrow();
+            template.setName("Trust Deed (certified)");
+        });
+
+        assertThat(requirementIndex.entityDocuments(EntityData.EntityType.TRUST))
+                .extracting(RequirementTemplateIndex.RequirementRule::name)
+                .containsExactly("Trust Deed (certified)");
+
+        transactionTemplate.executeWithoutResult(status -> templateRepository.deleteById(saved.getId()));
+
+        assertThat(requirementIndex.entityDocuments(EntityData.EntityType.TRUST)).isEmpty();
+    }
+
+    @Test
+    void rolledBackChangesLeaveTheIndexAlone() {
+        assertThat(requirementIndex.entityDocuments(EntityData.EntityType.CHARITY)).isEmpty();
+
+        transactionTemplate.executeWithoutResult(status -> {
+            templateRepository.save(template("Charity Registration", EntityData.EntityType.CHARITY));
+            status.setRollbackOnly();
+        });
+
+        assertThat(requirementIndex.entityDocuments(EntityData.EntityType.CHARITY)).isEmpty();
+    }
+
+    private static DocumentRequirementTemplate template(String name, EntityData.EntityType entityType) {
+        DocumentRequirementTemplate template = new DocumentRequirementTemplate();
+        template.setName(name);
+        template.setRequirementType(DocumentRequirementTemplate.RequirementType.ENTITY_DOCUMENT);
+        template.setEntityType(entityType);
+        return template;
+    }
+}
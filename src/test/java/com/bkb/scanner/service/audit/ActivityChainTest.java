@@ -0,0 +1,122 @@
+package com.bkb.scanner.service.audit;
+
+import com.google.common.hash.HashCode;
+import com.google.common.hash.Hashing;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ActivityChainTest {
+
+    private static final LocalDateTime TIMESTAMP = LocalDateTime.of(2024, 3, 1, 10, 15, 30, 123_456_000);
+
+    @Test
+    void chainedHashesLinkEachEntryToItsPredecessor() {
+        String first = ActivityChain.hash(ActivityChain.GENESIS_HASH, "CASE-1", record(1, "Case Created", null));
+        String second = ActivityChain.hash(first, "CASE-1", record(2, "Status Changed", first));
+
+        assertThat(first).hasSize(64).isNotEqualTo(second);
+        assertThat(ActivityChain.hash(ActivityChain.GENESIS_HASH, "CASE-1", record(2, "Status Changed", first)))
+                .isNotEqualTo(second);
+    }
+
+    @Test
+    void hashCoversContentSequenceAndCase() {
+        String hash = ActivityChain.hash(ActivityChain.GENESIS_HASH, "CASE-1", record(1, "Case Created", null));
+
+        assertThat(ActivityChain.hash(ActivityChain.GENESIS_HASH, "CASE-1", record(1, "Case Closed", null)))
+                .isNotEqualTo(hash);
+        assertThat(ActivityChain.hash(ActivityChain.GENESIS_HASH, "CASE-1", record(2, "Case Created", null)))
+                .isNotEqualTo(hash);
+        assertThat(ActivityChain.hash(ActivityChain.GENESIS_HASH, "CASE-2", record(1, "Case Created", null)))
+                .isNotEqualTo(hash);
+    }
+
+    @Test
+    void nullAndEmptyFieldsHashDifferently() {
+        ActivityRecord withNull = record(1, "Case Created", null);
+        ActivityRecord withEmpty = new ActivityRecord(withNull.activityId(), 1, TIMESTAMP, "Alice", "RM", "USR-1",
+                "Case Created", "CASE", "Case", "CASE-1", "", null, null, null, null, null, null, null);
+
+        assertThat(ActivityChain.hash(ActivityChain.GENESIS_HASH, "CASE-1", withEmpty))
+                .isNotEqualTo(ActivityChain.hash(ActivityChain.GENESIS_HASH, "CASE-1", withNull));
+    }
+
+    @Test
+    void timestampsAreHashedAtDatabasePrecision() {
+        ActivityRecord stored = record(1, "Case Created", null);
+        ActivityRecord written = new ActivityRecord(stored.activityId(), 1, TIMESTAMP.plusNanos(789), "Alice", "RM",
+                "USR-1", "Case Created", "CASE", "Case", "CASE-1", null, null, null, null, null, null, null, null);
+
+        assertThat(ActivityChain.hash(ActivityChain.GENESIS_HASH, "CASE-1", written))
+                .isEqualTo(ActivityChain.hash(ActivityChain.GENESIS_HASH, "CASE-1", stored));
+    }
+
+    @Test
+    void merkleRootOfOneLeafIsTheLeaf() {
+        String leaf = leaf("a");
+
+        assertThat(ActivityChain.merkleRoot(List.of(leaf))).isEqualTo(leaf);
+    }
+
+    @Test
+    void merkleRootPairsLeavesAndCarriesAnOddLeafUp() {
+        String a = leaf("a");
+        String b = leaf("b");
+        String c = leaf("c");
+
+        assertThat(ActivityChain.merkleRoot(List.of(a, b))).isEqualTo(node(a, b));
+        assertThat(ActivityChain.merkleRoot(List.of(a, b, c))).isEqualTo(node(node(a, b), c));
+        assertThat(ActivityChain.merkleRoot(List.of(a, b, c, leaf("d"))))
+                .isEqualTo(node(node(a, b), node(c, leaf("d"))));
+    }
+
+    @Test
+    void merkleRootDependsOnLeafOrder() {
+        String a = leaf("a");
+        String b = leaf("b");
+
+        assertThat(ActivityChain.merkleRoot(List.of(b, a))).isNotEqualTo(ActivityChain.merkleRoot(List.of(a, b)));
+    }
+
+    @Test
+    void merkleRootChangesWhenAnyLeafChanges() {
+        List<String> leaves = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            leaves.add(leaf("entry-" + i));
+        }
+        String root = ActivityChain.merkleRoot(leaves);
+
+        leaves.set(617, leaf("tampered"));
+        assertThat(ActivityChain.merkleRoot(leaves)).isNotEqualTo(root);
+    }
+
+    @Test
+    void merkleRootOfNoLeavesIsRejected() {
+        assertThatThrownBy(() -> ActivityChain.merkleRoot(List.of()))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private static ActivityRecord record(long sequence, String action, String previousHash) {
+        return new ActivityRecord("ACT-" + sequence, sequence, TIMESTAMP, "Alice", "RM", "USR-1", action, "CASE",
+                "Case", "CASE-1", null, null, null, null, null, null, previousHash, null);
+    }
+
+    private static String leaf(String content) {
+        return Hashing.sha256().hashUnencodedChars(content).toString();
+    }
+
+    private static String node(String left, String right) {
+        return Hashing.sha256().newHasher()
+                .putByte((byte) 1)
+                .putBytes(HashCode.fromString(left).asBytes())
+                .putBytes(HashCode.fromString(right).asBytes())
+                .hash()
+                .toString();
+    }
+}
@@ -0,0 +1,113 @@
+package com.bkb.scanner.service.scan;
+
+import com.bkb.scanner.entity.ScanQueue;
+import com.bkb.scanner.repository.ScanProfileRepository;
+import com.bkb.scanner.repository.ScanQueueRepository;
+import com.bkb.scanner.service.DocumentService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ScanWorkerTest {
+
+    private static final String SCAN_ID = "SCAN-1";
+
+    @Mock
+    private ScanQueueRepository scanQueueRepository;
+
+    @Mock
+    private ScanProfileRepository scanProfileRepository;
+
+    @Mock
+    private ScannerDriver scannerDriver;
+
+    @Mock
+    private DocumentService documentService;
+
+    @Mock
+    private ThreadPoolTaskExecutor scanExecutor;
+
+    @TempDir
+    Path tempDirectory;
+
+    private ScanProgressRegistry progressRegistry;
+    private ScanWorker worker;
+
+    @BeforeEach
+    void setUp() {
+        progressRegistry = new ScanProgressRegistry(mock(SimpMessagingTemplate.class));
+        ReflectionTestUtils.setField(progressRegistry, "persistStep", 10);
+
+        when(scanExecutor.getMaxPoolSize()).thenReturn(2);
+        doAnswer(invocation -> {
+            invocation.<Runnable>getArgument(0).run();
+            return null;
+        }).when(scanExecutor).execute(any(Runnable.class));
+
+        worker = new ScanWorker(scanQueueRepository, scanProfileRepository, scannerDriver, progressRegistry,
+                documentService, new TransactionTemplate(mock(PlatformTransactionManager.class)), scanExecutor);
+        ReflectionTestUtils.setField(worker, "scanTempDirectory", tempDirectory.toString());
+        ReflectionTestUtils.setField(worker, "maxRetries", 3);
+
+        ScanQueue claimed = scan(ScanQueue.ScanStatus.PENDING);
+        when(scanQueueRepository.lockPending(anyInt())).thenReturn(List.of(claimed));
+        when(scanQueueRepository.saveAll(anyList())).thenAnswer(invocation -> invocation.getArgument(0));
+    }
+
+    @Test
+    void scanCancelledElsewhereEndsInItsFinalState() {
+        when(scanQueueRepository.transition(SCAN_ID, ScanQueue.ScanStatus.SCANNING, ScanQueue.ScanStatus.PROCESSING))
+                .thenReturn(0);
+        ScanQueue cancelled = scan(ScanQueue.ScanStatus.FAILED);
+        cancelled.setErrorMessage("Scan cancelled by user");
+        when(scanQueueRepository.findByScanId(SCAN_ID)).thenReturn(Optional.of(cancelled));
+
+        worker.poll();
+
+        assertThat(progressRegistry.get(SCAN_ID)).hasValueSatisfying(status -> {
+            assertThat(status.getStatus()).isEqualTo("failed");
+            assertThat(status.getError()).isEqualTo("Scan cancelled by user");
+        });
+    }
+
+    @Test
+    void failedScanOwnedByAnotherNodeIsNoLongerTracked() throws Exception {
+        doThrow(new IOException("Paper jam")).when(scannerDriver).scan(eq(SCAN_ID), any(), any(), any(), any());
+        // Requeued as stale and claimed by another node before this worker gave up
+        when(scanQueueRepository.findByScanId(SCAN_ID)).thenReturn(Optional.of(scan(ScanQueue.ScanStatus.PENDING)));
+
+        worker.poll();
+
+        assertThat(progressRegistry.get(SCAN_ID)).isEmpty();
+        verify(scanQueueRepository, never()).save(any(ScanQueue.class));
+    }
+
+    private static ScanQueue scan(ScanQueue.ScanStatus status) {
+        ScanQueue scan = new ScanQueue();
+        scan.setScanId(SCAN_ID);
+        scan.setStatus(status);
+        scan.setRequestedBy("alice");
+        scan.setDocType("Passport");
+        scan.setProgress(0);
+        scan.setAttempts(0);
+        return scan;
+    }
+}
@@ -0,0 +1,59 @@
+package com.bkb.scanner.service.storage;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ContentTypeDetectorTest {
+
+    @Test
+    void textStartingWithBmKeepsDeclaredType() {
+        byte[] csv = "BMW,X5,2021,Silver\n".getBytes(StandardCharsets.US_ASCII);
+
+        assertThat(ContentTypeDetector.detect(csv, "text/csv")).isEqualTo("text/csv");
+    }
+
+    @Test
+    void realBitmapHeaderIsDetected() {
+        assertThat(ContentTypeDetector.detect(bitmapHeader(40), "application/octet-stream")).isEqualTo("image/bmp");
+        assertThat(ContentTypeDetector.detect(bitmapHeader(124), null)).isEqualTo("image/bmp");
+        assertThat(ContentTypeDetector.detect(bitmapHeader(12), null)).isEqualTo("image/bmp");
+    }
+
+    @Test
+    void bitmapLookalikesKeepDeclaredType() {
+        assertThat(ContentTypeDetector.detect(bitmapHeader(41), "text/plain")).isEqualTo("text/plain");
+
+        byte[] nonZeroReserved = bitmapHeader(40);
+        nonZeroReserved[7] = 1;
+        assertThat(ContentTypeDetector.detect(nonZeroReserved, "text/plain")).isEqualTo("text/plain");
+
+        byte[] truncated = Arrays.copyOf(bitmapHeader(40), 17);
+        assertThat(ContentTypeDetector.detect(truncated, "text/plain")).isEqualTo("text/plain");
+    }
+
+    @Test
+    void detectionDoesNotConsumeTheStream() throws Exception {
+        byte[] content = Arrays.copyOf(bitmapHeader(40), 64);
+        BufferedInputStream in = new BufferedInputStream(new ByteArrayInputStream(content),
+                ContentTypeDetector.HEADER_LENGTH);
+
+        assertThat(ContentTypeDetector.detect(in, null)).isEqualTo("image/bmp");
+        assertThat(in.readAllBytes()).isEqualTo(content);
+    }
+
+    private static byte[] bitmapHeader(int dibHeaderSize) {
+        byte[] header = new byte[18];
+        header[0] = 'B';
+        header[1] = 'M';
+        header[2] = 0x46; // file size 70, little-endian
+        header[10] = 0x36; // pixel data offset 54
+        header[14] = (byte) dibHeaderSize;
+        return header;
+    }
+}
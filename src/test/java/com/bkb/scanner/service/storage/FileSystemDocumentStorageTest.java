@@ -0,0 +1,93 @@
+package com.bkb.scanner.service.storage;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Duration;
+import java.time.Instant;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class FileSystemDocumentStorageTest {
+
+    private static final byte[] CONTENT = "passport scan".getBytes(StandardCharsets.UTF_8);
+
+    @TempDir
+    Path root;
+
+    private FileSystemDocumentStorage storage;
+
+    @BeforeEach
+    void setUp() {
+        storage = new FileSystemDocumentStorage(root.toString());
+    }
+
+    @Test
+    void identicalContentIsStoredOnce() throws Exception {
+        DocumentStorage.StoredContent first = storage.store(new ByteArrayInputStream(CONTENT));
+        DocumentStorage.StoredContent second = storage.store(new ByteArrayInputStream(CONTENT));
+
+        assertThat(first.deduplicated()).isFalse();
+        assertThat(second.deduplicated()).isTrue();
+        assertThat(second.contentHash()).isEqualTo(first.contentHash());
+        assertThat(read(first.contentHash())).isEqualTo(CONTENT);
+    }
+
+    @Test
+    void idleContentIsDeleted() throws Exception {
+        String hash = storage.store(new ByteArrayInputStream(CONTENT)).contentHash();
+        age(hash, Duration.ofDays(2));
+
+        assertThat(storage.deleteIfIdleSince(hash, Instant.now().minus(Duration.ofDays(1)))).isTrue();
+        assertThat(storage.exists(hash)).isFalse();
+    }
+
+    @Test
+    void deduplicatedStoreKeepsContentAlive() throws Exception {
+        String hash = storage.store(new ByteArrayInputStream(CONTENT)).contentHash();
+        age(hash, Duration.ofDays(2));
+
+        // An upload of the same bytes lands on the existing object and has not committed yet
+        storage.store(new ByteArrayInputStream(CONTENT));
+
+        assertThat(storage.deleteIfIdleSince(hash, Instant.now().minus(Duration.ofDays(1)))).isFalse();
+        assertThat(read(hash)).isEqualTo(CONTENT);
+    }
+
+    @Test
+    void storeAfterDeleteWritesContentAgain() throws Exception {
+        String hash = storage.store(new ByteArrayInputStream(CONTENT)).contentHash();
+        age(hash, Duration.ofDays(2));
+        storage.deleteIfIdleSince(hash, Instant.now().minus(Duration.ofDays(1)));
+
+        DocumentStorage.StoredContent stored = storage.store(new ByteArrayInputStream(CONTENT));
+
+        assertThat(stored.deduplicated()).isFalse();
+        assertThat(read(hash)).isEqualTo(CONTENT);
+    }
+
+    @Test
+    void sizeIsTheStoredLength() throws Exception {
+        String hash = storage.store(new ByteArrayInputStream(CONTENT)).contentHash();
+
+        assertThat(storage.size(hash)).isEqualTo(CONTENT.length);
+    }
+
+    private void age(String hash, Duration age) throws Exception {
+        Path path = root.resolve(hash.substring(0, 2)).resolve(hash.substring(2, 4)).resolve(hash);
+        Files.setLastModifiedTime(path, FileTime.from(Instant.now().minus(age)));
+    }
+
+    private byte[] read(String hash) throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        storage.copyTo(hash, 0, Long.MAX_VALUE, out);
+        return out.toByteArray();
+    }
+}